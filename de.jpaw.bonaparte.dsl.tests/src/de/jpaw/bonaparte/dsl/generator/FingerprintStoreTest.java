@@ -0,0 +1,175 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package de.jpaw.bonaparte.dsl.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.generator.InMemoryFileSystemAccess;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.inject.Injector;
+
+import de.jpaw.bonaparte.dsl.BonScriptStandaloneSetup;
+
+public class FingerprintStoreTest {
+    private static final String BASE         = "package test.a {\n    class Base {\n        Unicode(20) name;\n    }\n}\n";
+    private static final String BASE_CHANGED = "package test.a {\n    class Base {\n        Unicode(30) name;\n    }\n}\n";
+    private static final String DERIVED      = "package test.b {\n    class Derived extends test.a.Base {\n        int count;\n    }\n}\n";
+    private static final String OTHER        = "package test.c {\n    class Other {\n        int x;\n    }\n}\n";
+    private static final String OTHER_CHANGED = "package test.c {\n    class Other {\n        long x;\n    }\n}\n";
+
+    private static Injector injector;
+
+    @BeforeAll
+    public static void setup() {
+        injector = new BonScriptStandaloneSetup().createInjectorAndDoEMFRegistration();
+    }
+
+    // parses the sources into a new resource set, one resource per source
+    private static List<Resource> parse(String... sources) throws IOException {
+        final XtextResourceSet rs = injector.getInstance(XtextResourceSet.class);
+        final List<Resource> result = new ArrayList<Resource>(sources.length);
+        for (int i = 0; i < sources.length; ++i) {
+            final Resource r = rs.createResource(URI.createURI("test" + i + ".bon"));
+            r.load(new ByteArrayInputStream(sources[i].getBytes(StandardCharsets.UTF_8)), null);
+            result.add(r);
+        }
+        EcoreUtil.resolveAll(rs);
+        return result;
+    }
+
+    // the (single) package of a resource
+    private static List<EObject> packageOf(Resource r) {
+        return Collections.singletonList(r.getContents().get(0).eContents().get(0));
+    }
+
+    private static String fingerprintOfDerived(String version, String... sources) throws IOException {
+        final List<Resource> resources = parse(sources);
+        final FingerprintStore store = new FingerprintStore(new InMemoryFileSystemAccess(), resources.get(1), FingerprintStoreTest.class, version);
+        return store.fingerprint(packageOf(resources.get(1)));
+    }
+
+    @Test
+    public void testReferencedPackagesAreCovered() throws IOException {
+        final String original = fingerprintOfDerived("v1", BASE, DERIVED, OTHER);
+        assertEquals(original, fingerprintOfDerived("v1", BASE, DERIVED, OTHER));
+        assertNotEquals(original, fingerprintOfDerived("v1", BASE_CHANGED, DERIVED, OTHER));
+        assertEquals(original, fingerprintOfDerived("v1", BASE, DERIVED, OTHER_CHANGED));
+    }
+
+    @Test
+    public void testVersionIsCovered() throws IOException {
+        assertNotEquals(fingerprintOfDerived("v1", BASE, DERIVED, OTHER), fingerprintOfDerived("v2", BASE, DERIVED, OTHER));
+    }
+
+    @Test
+    public void testUnknownVersion() throws IOException {
+        final List<Resource> resources = parse(BASE, DERIVED);
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+        final FingerprintStore store = new FingerprintStore(fsa, resources.get(1), FingerprintStoreTest.class, (String)null);
+        assertNull(store.fingerprint(packageOf(resources.get(1))));
+        store.generateFile("Derived.java", null, "class Derived {}");
+        assertFalse(store.isCurrent("Derived.java", null));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final List<Resource> resources = parse(BASE, DERIVED);
+        final Resource r = resources.get(1);
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+
+        final FingerprintStore first = new FingerprintStore(fsa, r, FingerprintStoreTest.class, "v1");
+        final String fp = first.fingerprint(packageOf(r));
+        assertFalse(first.isCurrent("Derived.java", fp));
+        first.generateFile("Derived.java", fp, "class Derived {}");
+        first.save();
+
+        // a later run finds the file and its fingerprint
+        final FingerprintStore second = new FingerprintStore(fsa, r, FingerprintStoreTest.class, "v1");
+        assertTrue(second.isCurrent("Derived.java", fp));
+        assertFalse(second.isCurrent("Derived.java", fp + "x"));
+        assertFalse(second.isCurrent("Other.java", fp));
+        second.save();
+
+        // the fingerprints are kept per generator
+        assertFalse(new FingerprintStore(fsa, r, FingerprintStore.class, "v1").isCurrent("Derived.java", fp));
+
+        // a run which does not generate the file drops its fingerprint
+        final FingerprintStore third = new FingerprintStore(fsa, r, FingerprintStoreTest.class, "v1");
+        third.save();
+        assertFalse(new FingerprintStore(fsa, r, FingerprintStoreTest.class, "v1").isCurrent("Derived.java", fp));
+    }
+
+    // a file system access which counts the calls of generateFile
+    private static final class CountingFileSystemAccess extends InMemoryFileSystemAccess {
+        private int writes = 0;
+
+        @Override
+        public void generateFile(String fileName, String outputConfigName, CharSequence contents) {
+            ++writes;
+            super.generateFile(fileName, outputConfigName, contents);
+        }
+    }
+
+    @Test
+    public void testUnchangedFilesAreNotWritten() throws IOException {
+        final List<Resource> resources = parse(BASE);
+        final CountingFileSystemAccess fsa = new CountingFileSystemAccess();
+        final FingerprintStore store = new FingerprintStore(fsa, resources.get(0), FingerprintStoreTest.class, "v1", false);
+        store.generateFile("Base.java", null, "class Base {}");
+        store.generateFile("Base.java", null, "class Base {}");
+        assertEquals(1, fsa.writes);
+        store.generateFile("Base.java", null, "class Base { int x; }");
+        assertEquals(2, fsa.writes);
+    }
+
+    @Test
+    public void testRetainedFilesAreRegistered() throws IOException {
+        final List<Resource> resources = parse(BASE);
+        final Resource r = resources.get(0);
+        final CountingFileSystemAccess fsa = new CountingFileSystemAccess();
+        final FingerprintStore first = new FingerprintStore(fsa, r, FingerprintStoreTest.class, "v1", true);
+        final String fp = first.fingerprint(packageOf(r));
+        first.generateFile("Base.java", fp, "class Base {}");
+        first.save();
+
+        // the builder deletes files which are not generated again, therefore skipped and unchanged files are passed on unmodified
+        final FingerprintStore second = new FingerprintStore(fsa, r, FingerprintStoreTest.class, "v1", true);
+        fsa.writes = 0;
+        assertTrue(second.isCurrent("Base.java", fp));
+        assertEquals(1, fsa.writes);
+        second.generateFile("Base.java", fp, "class Base {}");
+        assertEquals(2, fsa.writes);
+        assertEquals("class Base {}", fsa.readTextFile("Base.java").toString());
+    }
+}
@@ -0,0 +1,261 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package de.jpaw.bonaparte.dsl.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.generator.GeneratorContext;
+import org.eclipse.xtext.generator.InMemoryFileSystemAccess;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.inject.Injector;
+
+import de.jpaw.bonaparte.dsl.BonScriptPreferences;
+import de.jpaw.bonaparte.dsl.BonScriptStandaloneSetup;
+
+/** Generates the Java output of small models and checks the code created for the optional generator features. */
+public class GeneratorOutputTest {
+    private static final String JAVA_FOLDER = "java/de/jpaw/bonaparte/pojos/test/";
+
+    private static Injector injector;
+
+    @BeforeAll
+    public static void setup() {
+        injector = new BonScriptStandaloneSetup().createInjectorAndDoEMFRegistration();
+    }
+
+    // every test starts with the default preferences, without XML output
+    @BeforeEach
+    public void resetPreferences() {
+        BonScriptPreferences.currentPrefs = new BonScriptPreferences();
+        BonScriptPreferences.currentPrefs.noXML = true;
+    }
+
+    @AfterEach
+    public void restorePreferences() {
+        BonScriptPreferences.currentPrefs = new BonScriptPreferences();
+    }
+
+    // parses the source and runs the generator with the current preferences
+    private static InMemoryFileSystemAccess generate(String source) throws IOException {
+        final XtextResourceSet rs = injector.getInstance(XtextResourceSet.class);
+        final Resource r = rs.createResource(URI.createURI("test.bon"));
+        r.load(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), null);
+        EcoreUtil.resolveAll(rs);
+        assertTrue(r.getErrors().isEmpty(), () -> "Syntax errors: " + r.getErrors());
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+        injector.getInstance(BonScriptGenerator.class).doGenerate(r, fsa, new GeneratorContext());
+        return fsa;
+    }
+
+    // the generated Java source of a class of package test
+    private static String javaSource(InMemoryFileSystemAccess fsa, String name) {
+        final String filename = JAVA_FOLDER + name + ".java";
+        assertTrue(fsa.isFile(filename), () -> filename + " has not been generated");
+        return fsa.readTextFile(filename).toString();
+    }
+
+    private static void assertContains(String source, String expected) {
+        assertTrue(source.contains(expected), () -> "Expected <" + expected + "> in:\n" + source);
+    }
+
+    private static void assertNotContains(String source, String unexpected) {
+        assertFalse(source.contains(unexpected), () -> "Unexpected <" + unexpected + "> in:\n" + source);
+    }
+
+    private static final String WIDE = "package test {\n    class Wide {\n        int a;\n        int b;\n        int c;\n    }\n}\n";
+
+    @Test
+    public void testMethodSplit() throws IOException {
+        final String unsplit = javaSource(generate(WIDE), "Wide");
+        assertNotContains(unsplit, "serializeSub$0");
+
+        BonScriptPreferences.currentPrefs.methodSplitMaxFields = 2;
+        final String split = javaSource(generate(WIDE), "Wide");
+        for (String method : new String [] { "serializeSub$", "deserialize$", "equalsSub$", "validate$" }) {
+            assertContains(split, method + "0(");
+            assertContains(split, method + "1(");
+            assertNotContains(split, method + "2(");
+        }
+    }
+
+    private static final String HIERARCHY = "package test {\n    class Base {\n        Unicode(20) name;\n    }\n"
+      + "    class Derived extends test.Base {\n        int count;\n    }\n}\n";
+
+    @Test
+    public void testViews() throws IOException {
+        assertFalse(generate(HIERARCHY).isFile(JAVA_FOLDER + "DerivedView.java"));
+
+        BonScriptPreferences.currentPrefs.compactViews = true;
+        final String view = javaSource(generate(HIERARCHY), "DerivedView");
+        assertContains(view, "public final class DerivedView {");
+        assertContains(view, "public String getName() throws MessageParserException {");
+        assertContains(view, "public int getCount() throws MessageParserException {");
+        assertContains(view, "_p.eatParentSeparator();");      // before the first field of the subclass
+    }
+
+    @Test
+    public void testFixedLayout() throws IOException {
+        final InMemoryFileSystemAccess fsa = generate("package test {\n    class Rec fixedLayout {\n        required int id;\n"
+          + "        optional Ascii(8) code;\n        required long amount;\n    }\n}\n");
+        final String layout = javaSource(fsa, "RecLayout");
+        assertContains(layout, "public static final int RECORD_SIZE = 21;");     // 4 + (1 + 8) + 8
+        assertContains(layout, "public static final int OFFSET_id = 0;");
+        assertContains(layout, "public static final int OFFSET_code = 4;");     // the null indicator precedes the optional field
+        assertContains(layout, "public static final int OFFSET_amount = 13;");
+        assertContains(layout, "return getAscii(_buf, _pos + OFFSET_code + 1, 8);");
+        assertContains(layout, "public static Rec read(ByteBuffer [] _segments, long _record) {");
+    }
+
+    @Test
+    public void testPrimitiveLists() throws IOException {
+        final InMemoryFileSystemAccess fsa = generate("package test {\n    class Plain {\n        int x;\n    }\n"
+          + "    class Values {\n        int List<> primitive ids;\n        double List<> primitive amounts;\n    }\n}\n");
+        final String values = javaSource(fsa, "Values");
+        assertContains(values, "import com.google.common.primitives.ImmutableDoubleArray;");
+        assertContains(values, "import com.google.common.primitives.ImmutableIntArray;");
+        assertNotContains(values, "ImmutableLongArray");
+        assertContains(values, "final ImmutableIntArray.Builder _b = ImmutableIntArray.builder(_length);");
+        assertContains(values, "_w.startArray(meta$$ids, ids.length(), 0);");
+        assertNotContains(javaSource(fsa, "Plain"), "com.google.common.primitives");
+    }
+
+    @Test
+    public void testIndexedAccess() throws IOException {
+        assertNotContains(javaSource(generate(HIERARCHY), "Derived"), "ret$FieldCount");
+
+        BonScriptPreferences.currentPrefs.indexedAccess = true;
+        final String derived = javaSource(generate(HIERARCHY), "Derived");
+        assertContains(derived, "return 2;");                      // the field count includes the inherited field
+        assertContains(derived, "switch (_index - 1) {");           // the own fields follow the inherited one
+        assertContains(derived, "count = (Integer)_value;");
+        assertContains(derived, "return super.ret$Field(_index);");
+        assertContains(derived, "public int ret$IntField(int _index) {");
+    }
+
+    private static final String HAZELCAST = "package test {\n    class Ser DataSer {\n        int id;\n        Unicode(20) name;\n    }\n"
+      + "    class Cmp Compact {\n        int id;\n        Unicode(20) name;\n    }\n}\n";
+
+    @Test
+    public void testHazelcastDirectIO() throws IOException {
+        final String generic = javaSource(generate(HAZELCAST), "Ser");
+        assertContains(generic, "HazelcastComposer.serialize(this, _out, false);");
+        assertContains(generic, "HazelcastParser.deserialize(this, _in);");
+
+        BonScriptPreferences.currentPrefs.hazelcastDirectIO = true;
+        final InMemoryFileSystemAccess fsa = generate(HAZELCAST);
+        final String direct = javaSource(fsa, "Ser");
+        assertNotContains(direct, "HazelcastComposer.serialize");
+        assertContains(direct, "_out.writeInt(id);");
+        assertContains(direct, "_out.writeString(name);");
+        assertContains(direct, "id = _in.readInt();");
+        assertContains(direct, "name = _in.readString();");
+
+        final String compact = javaSource(fsa, "CmpCompactSerializer");
+        assertContains(compact, "public final class CmpCompactSerializer implements CompactSerializer<Cmp> {");
+        assertContains(compact, "_out.writeInt32(\"id\", _obj.getId());");
+        assertContains(compact, "_obj.setName(_in.readString(\"name\"));");
+    }
+
+    private static final String EXTERNALIZABLE = "package test {\n    class Person Ext {\n        int id;\n        Unicode(20) name;\n"
+      + "        Unicode(20) List<> tags;\n    }\n}\n";
+
+    @Test
+    public void testExternalizeDirectIO() throws IOException {
+        final String generic = javaSource(generate(EXTERNALIZABLE), "Person");
+        assertContains(generic, "ExternalizableComposer.serialize(this, _out);");
+        assertContains(generic, "ExternalizableParser.deserialize(this, _in);");
+
+        BonScriptPreferences.currentPrefs.externalizeDirectIO = true;
+        final String direct = javaSource(generate(EXTERNALIZABLE), "Person");
+        assertNotContains(direct, "ExternalizableComposer.serialize");
+        assertContains(direct, "_out.writeInt(id);");
+        assertContains(direct, "ext$WriteString(_out, name);");
+        assertContains(direct, "_out.writeInt(tags.size());");
+        assertContains(direct, "id = _in.readInt();");
+        assertContains(direct, "name = ext$ReadString(_in);");
+        assertContains(direct, "tags = new ArrayList<String>(_length);");
+    }
+
+    @Test
+    public void testEstimatedSize() throws IOException {
+        assertNotContains(javaSource(generate(HIERARCHY), "Base"), "ret$EstimatedSize");
+
+        BonScriptPreferences.currentPrefs.estimatedSize = true;
+        final InMemoryFileSystemAccess fsa = generate(HIERARCHY);
+        final String base = javaSource(fsa, "Base");
+        assertContains(base, "int _size = ret$PQON().length() + (_compact ? 4 : 8);");
+        assertContains(base, "_size += (name == null ? 1 : 3 * name.length() + 3);");     // compact format, UTF-8 upper bound
+        assertContains(base, "_size += (name == null ? 1 : 3 * name.length() + 1);");     // text format
+        final String derived = javaSource(fsa, "Derived");
+        assertContains(derived, "int _size = super.ret$EstimatedSize(_compact);");
+        assertContains(derived, "_size += 5;");        // compact int
+        assertContains(derived, "_size += 13;");       // parent separator and text int
+    }
+
+    // the contents of all generated text files, by file name
+    private static Map<String, String> allFiles(InMemoryFileSystemAccess fsa) {
+        final Map<String, String> result = new TreeMap<String, String>();
+        for (Map.Entry<String, CharSequence> e : fsa.getTextFiles().entrySet())
+            result.put(e.getKey(), e.getValue().toString());
+        return result;
+    }
+
+    @Test
+    public void testParallelGeneration() throws IOException {
+        final StringBuilder model = new StringBuilder("package test {\n    class Base {\n        Unicode(20) name;\n    }\n");
+        for (int n = 0; n < 20; ++n)
+            model.append("    class Derived" + n + " extends test.Base {\n        int count;\n        (test.Base...) ref;\n    }\n");
+        model.append("}\n");
+        BonScriptPreferences.currentPrefs.compactViews = true;
+        BonScriptPreferences.currentPrefs.estimatedSize = true;
+        final Map<String, String> sequential = allFiles(generate(model.toString()));
+
+        BonScriptPreferences.currentPrefs.generatorThreads = 4;
+        final Map<String, String> parallel = allFiles(generate(model.toString()));
+        assertEquals(sequential.keySet(), parallel.keySet());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testLazyMeta() throws IOException {
+        final InMemoryFileSystemAccess fsa = generate("package test {\n    class Eager {\n        int id;\n    }\n"
+          + "    class Lazy lazyMeta {\n        int id;\n    }\n}\n");
+        final String eager = javaSource(fsa, "Eager");
+        assertNotContains(eager, "meta$Holder");
+        assertContains(eager, "return my$MetaData;");
+
+        final String lazy = javaSource(fsa, "Lazy");
+        assertContains(lazy, "private static final class meta$Holder {");
+        assertContains(lazy, "public static ObjectReference meta$$this() {");
+        assertContains(lazy, "return meta$Holder.my$MetaData;");
+    }
+}
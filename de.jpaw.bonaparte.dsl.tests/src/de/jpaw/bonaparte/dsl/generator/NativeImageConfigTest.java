@@ -0,0 +1,108 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package de.jpaw.bonaparte.dsl.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.xtext.generator.InMemoryFileSystemAccess;
+import org.junit.jupiter.api.Test;
+
+public class NativeImageConfigTest {
+    private static final String DIRECTORY = "resources/META-INF/native-image/";
+
+    private static NativeImageConfig sample() {
+        final NativeImageConfig cfg = new NativeImageConfig("my.bundle", "com.example.pojos");
+        cfg.addClass("com.example.pojos.Person", NativeImageConfig.ALL_MEMBERS);
+        cfg.addClass("com.example.pojos.package-info", NativeImageConfig.LOOKUP);
+        cfg.addClass("com.example.pojos.Adapter", NativeImageConfig.CONSTRUCTORS);
+        cfg.addResource("META-INF/services/de.jpaw.bonaparte.core.BonaPortableFactory");
+        cfg.addSerializable("com.example.pojos.Person");
+        return cfg;
+    }
+
+    @Test
+    public void testReflectConfig() {
+        assertEquals("[\n"
+          + "  { \"name\": \"com.example.pojos.Adapter\", \"allDeclaredConstructors\": true },\n"
+          + "  { \"name\": \"com.example.pojos.Person\", \"allDeclaredConstructors\": true, \"allDeclaredMethods\": true, \"allDeclaredFields\": true },\n"
+          + "  { \"name\": \"com.example.pojos.package-info\" }\n"
+          + "]\n", sample().reflectConfig());
+    }
+
+    @Test
+    public void testResourceConfig() {
+        assertEquals("{\n  \"resources\": {\n    \"includes\": [\n"
+          + "      { \"pattern\": \"\\\\QMETA-INF/services/de.jpaw.bonaparte.core.BonaPortableFactory\\\\E\" }\n"
+          + "    ]\n  }\n}\n", sample().resourceConfig());
+    }
+
+    @Test
+    public void testSerializationConfig() {
+        assertEquals("{\n  \"types\": [\n    { \"name\": \"com.example.pojos.Person\" }\n  ]\n}\n", sample().serializationConfig());
+    }
+
+    @Test
+    public void testEscaping() {
+        final NativeImageConfig cfg = new NativeImageConfig(null, "p");
+        cfg.addClass("a\"b\\c", NativeImageConfig.LOOKUP);
+        assertEquals("[\n  { \"name\": \"a\\\"b\\\\c\" }\n]\n", cfg.reflectConfig());
+    }
+
+    @Test
+    public void testEmpty() {
+        final NativeImageConfig cfg = new NativeImageConfig(null, "p");
+        assertTrue(cfg.isEmpty());
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+        final GenerationContext ctx = new GenerationContext(1);
+        final GenerationContext.FileBatch files = ctx.newBatch();
+        cfg.addTo(files, null);
+        assertEquals(0, files.size());
+        cfg.addSerializable("p.A");
+        assertFalse(cfg.isEmpty());
+        cfg.addTo(files, null);
+        files.write(fsa);
+        assertEquals(1, fsa.getAllFiles().size());
+        assertTrue(fsa.isFile(DIRECTORY + NativeImageConfig.DEFAULT_GROUP + "/p/serialization-config.json"));
+    }
+
+    @Test
+    public void testWrittenFiles() {
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+        final GenerationContext.FileBatch files = new GenerationContext(1).newBatch();
+        final NativeImageConfig cfg = sample();
+        cfg.addTo(files, null);
+        new NativeImageConfig("my.bundle", "com.example.pojos", "-jpa").addTo(files, null);      // empty, writes nothing
+        files.write(fsa);
+        final String dir = DIRECTORY + "my.bundle/com.example.pojos/";
+        assertEquals(3, fsa.getAllFiles().size());
+        assertEquals(cfg.reflectConfig(), fsa.readTextFile(dir + "reflect-config.json").toString());
+        assertEquals(cfg.resourceConfig(), fsa.readTextFile(dir + "resource-config.json").toString());
+        assertEquals(cfg.serializationConfig(), fsa.readTextFile(dir + "serialization-config.json").toString());
+    }
+
+    @Test
+    public void testSuffix() {
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+        final GenerationContext.FileBatch files = new GenerationContext(1).newBatch();
+        final NativeImageConfig cfg = new NativeImageConfig("my.bundle", "com.example.pojos", "-jpa");
+        cfg.addClass("com.example.pojos.PersonEntity", NativeImageConfig.ALL_MEMBERS);
+        cfg.addTo(files, null);
+        files.write(fsa);
+        assertTrue(fsa.isFile(DIRECTORY + "my.bundle/com.example.pojos-jpa/reflect-config.json"));
+    }
+}
@@ -0,0 +1,151 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package de.jpaw.bonaparte.dsl.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+public class SimplePatternTest {
+    private static final String ALPHABET = "aAz0_-.";
+
+    // checks a string the way the generated code does: greedy, element by element, without backtracking
+    private static boolean greedyMatches(List<SimplePattern.Element> elements, String s) {
+        int p = 0;
+        for (SimplePattern.Element e : elements) {
+            int n = 0;
+            while (p < s.length() && (e.maxCount == SimplePattern.UNBOUNDED || n < e.maxCount) && accepts(e, s.charAt(p))) {
+                ++p;
+                ++n;
+            }
+            if (n < e.minCount)
+                return false;
+        }
+        return p == s.length();
+    }
+
+    private static boolean accepts(SimplePattern.Element e, char c) {
+        for (int [] r : e.ranges)
+            if (c >= r[0] && c <= r[1])
+                return true;
+        return false;
+    }
+
+    // all strings over the alphabet up to the specified length
+    private static List<String> samples(int maxLength) {
+        final List<String> result = new ArrayList<String>();
+        result.add("");
+        int from = 0;
+        for (int len = 1; len <= maxLength; ++len) {
+            final int to = result.size();
+            for (int i = from; i < to; ++i)
+                for (char c : ALPHABET.toCharArray())
+                    result.add(result.get(i) + c);
+            from = to;
+        }
+        return result;
+    }
+
+    private static void assertSameAsRegex(String regexp) {
+        final List<SimplePattern.Element> elements = SimplePattern.parse(regexp);
+        assertNotNull(elements, regexp + " should be simple");
+        final Pattern pattern = Pattern.compile(regexp);
+        for (String s : samples(5))
+            assertEquals(pattern.matcher(s).matches(), greedyMatches(elements, s), regexp + " applied to \"" + s + "\"");
+    }
+
+    @Test
+    public void testElements() {
+        final List<SimplePattern.Element> elements = SimplePattern.parse("a[0-9_]{2,4}\\.z*");
+        assertNotNull(elements);
+        assertEquals(4, elements.size());
+        assertEquals('a', elements.get(0).singleChar());
+        assertEquals(2, elements.get(1).minCount);
+        assertEquals(4, elements.get(1).maxCount);
+        assertEquals(2, elements.get(1).ranges.size());
+        assertEquals(-1, elements.get(1).singleChar());
+        assertEquals('.', elements.get(2).singleChar());
+        assertEquals(0, elements.get(3).minCount);
+        assertEquals(SimplePattern.UNBOUNDED, elements.get(3).maxCount);
+    }
+
+    @Test
+    public void testShorthandClasses() {
+        final List<SimplePattern.Element> elements = SimplePattern.parse("\\d\\w+");
+        assertNotNull(elements);
+        assertEquals(1, elements.get(0).ranges.size());
+        assertEquals(4, elements.get(1).ranges.size());
+        assertEquals(1, elements.get(1).minCount);
+        assertEquals(SimplePattern.UNBOUNDED, elements.get(1).maxCount);
+    }
+
+    @Test
+    public void testZeroRepetitionsAreDropped() {
+        assertEquals(1, SimplePattern.parse("ab{0}").size());
+    }
+
+    @Test
+    public void testUnsupportedSyntax() {
+        assertNull(SimplePattern.parse(null));
+        assertNull(SimplePattern.parse(""));
+        assertNull(SimplePattern.parse("(ab)+"));
+        assertNull(SimplePattern.parse("a|b"));
+        assertNull(SimplePattern.parse("^a$"));
+        assertNull(SimplePattern.parse("a.c"));
+        assertNull(SimplePattern.parse("[^a]"));
+        assertNull(SimplePattern.parse("[a-z&&[^b]]"));
+        assertNull(SimplePattern.parse("a*?"));
+        assertNull(SimplePattern.parse("a++"));
+        assertNull(SimplePattern.parse("a{3,2}"));
+        assertNull(SimplePattern.parse("a{2"));
+        assertNull(SimplePattern.parse("[a-z"));
+        assertNull(SimplePattern.parse("[z-a]"));
+        assertNull(SimplePattern.parse("\\s"));
+        assertNull(SimplePattern.parse("\\1"));
+        assertNull(SimplePattern.parse("\u00e4"));
+    }
+
+    @Test
+    public void testPatternsRequiringBacktracking() {
+        assertNull(SimplePattern.parse("a*a"));
+        assertNull(SimplePattern.parse("[a-z]+z"));
+        assertNull(SimplePattern.parse("\\w*_"));
+        assertNull(SimplePattern.parse("a?-?a"));
+        assertNull(SimplePattern.parse("0{1,3}\\d"));
+    }
+
+    @Test
+    public void testSameResultAsRegex() {
+        assertSameAsRegex("a");
+        assertSameAsRegex("aA0");
+        assertSameAsRegex("a*");
+        assertSameAsRegex("a+z?");
+        assertSameAsRegex("[a-z]{2,3}");
+        assertSameAsRegex("[aA]{2}0*");
+        assertSameAsRegex("\\d+\\.\\d{1,2}");
+        assertSameAsRegex("A?a*z+");
+        assertSameAsRegex("[A-Za-z]\\w{0,3}");
+        assertSameAsRegex("a*-?_+\\.?0");
+        assertSameAsRegex("[\\-.]+a");
+        assertSameAsRegex("z{2,}");
+    }
+}
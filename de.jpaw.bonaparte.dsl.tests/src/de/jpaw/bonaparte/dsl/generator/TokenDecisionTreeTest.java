@@ -0,0 +1,92 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package de.jpaw.bonaparte.dsl.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenDecisionTreeTest {
+    private static final String PROBE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_-";
+
+    // every token is found, every other string of the same length which differs in one character is not
+    private static void assertLookup(String... tokens) {
+        final List<String> list = Arrays.asList(tokens);
+        final SortedMap<Integer, TokenDecisionTree.Node> trees = TokenDecisionTree.build(list);
+        for (int i = 0; i < tokens.length; ++i) {
+            final String token = tokens[i];
+            assertEquals(i, TokenDecisionTree.lookup(trees, list, token), "token " + token);
+            for (int p = 0; p < token.length(); ++p) {
+                for (char c : PROBE_CHARS.toCharArray()) {
+                    final String probe = token.substring(0, p) + c + token.substring(p + 1);
+                    assertEquals(list.indexOf(probe), TokenDecisionTree.lookup(trees, list, probe), "probe " + probe);
+                }
+            }
+            assertEquals(list.indexOf(token + "A"), TokenDecisionTree.lookup(trees, list, token + "A"), "probe " + token + "A");
+            if (!token.isEmpty())
+                assertEquals(list.indexOf(token.substring(1)), TokenDecisionTree.lookup(trees, list, token.substring(1)), "probe " + token.substring(1));
+        }
+    }
+
+    @Test
+    public void testSingleToken() {
+        final SortedMap<Integer, TokenDecisionTree.Node> trees = TokenDecisionTree.build(Arrays.asList("ABC"));
+        assertEquals(1, trees.size());
+        final TokenDecisionTree.Node leaf = trees.get(3);
+        assertTrue(leaf.isLeaf());
+        assertEquals(0, leaf.token);
+        assertEquals(Arrays.asList(0, 1, 2), leaf.remaining);
+        assertLookup("ABC");
+    }
+
+    @Test
+    public void testMostSelectivePosition() {
+        // the first position does not separate the tokens, the second one does
+        final SortedMap<Integer, TokenDecisionTree.Node> trees = TokenDecisionTree.build(Arrays.asList("XA", "XB", "XC"));
+        final TokenDecisionTree.Node root = trees.get(2);
+        assertEquals(1, root.position);
+        assertEquals(3, root.branches.size());
+        for (TokenDecisionTree.Node leaf : root.branches.values())
+            assertEquals(Arrays.asList(0), leaf.remaining);
+    }
+
+    @Test
+    public void testCurrencies() {
+        assertLookup("EUR", "USD", "GBP", "CHF", "JPY", "SEK", "NOK", "DKK", "USN", "EUX");
+    }
+
+    @Test
+    public void testDifferentLengths() {
+        assertLookup("", "A", "AB", "ABC", "ABD", "ACD", "BCD", "ABCDEFGH", "ABCDEFGX");
+    }
+
+    @Test
+    public void testCommonPrefixes() {
+        assertLookup("STATE_OPEN", "STATE_DONE", "STATE_HOLD", "STATE_OPN2", "STATE_OPN3");
+    }
+
+    @Test
+    public void testUnknownLength() {
+        final List<String> tokens = Arrays.asList("A", "BC");
+        assertEquals(-1, TokenDecisionTree.lookup(TokenDecisionTree.build(tokens), tokens, "DEF"));
+        assertEquals(-1, TokenDecisionTree.lookup(TokenDecisionTree.build(tokens), tokens, ""));
+    }
+}
@@ -74,6 +74,17 @@ public class BonScriptConfiguration extends LanguageRootPreferencePage {
         addField(new BooleanFieldEditor("DateTime", "Use JSR310 date / time API instead of joda (requires Java8)", compositeO));
         addField(new BooleanFieldEditor("XMLOut", "Suppress generation of JAXB annotations", compositeO));
         addField(new BooleanFieldEditor("Jakarta", "Generate NEW jakarta package prefixes", compositeO));
+        addField(new IntegerFieldEditor("MethodSplitLimit", "Split generated methods above this estimated bytecode size (0 = never)", compositeO, 6));
+        addField(new IntegerFieldEditor("MethodSplitMaxFields", "Split generated methods above this number of fields (0 = never)", compositeO, 6));
+        addField(new BooleanFieldEditor("CompactViews", "Create lazy View classes for the compact binary format", compositeO));
+        addField(new BooleanFieldEditor("JmhBenchmarks", "Create JMH benchmark sources (subfolder jmh)", compositeO));
+        addField(new BooleanFieldEditor("SampleFactories", "Create random sample factories (ret$Sample)", compositeO));
+        addField(new BooleanFieldEditor("NativeImage", "Create GraalVM native-image metadata (reflection, resources)", compositeO));
+        addField(new BooleanFieldEditor("IndexedAccess", "Create reflection free field access by index (ret$Field)", compositeO));
+        addField(new BooleanFieldEditor("FoldingPlans", "Create precompiled folding plans (compileFolding)", compositeO));
+        addField(new BooleanFieldEditor("FusedTreeWalk", "Create a fused tree walk for String and object converters", compositeO));
+        addField(new BooleanFieldEditor("EstimatedSize", "Create serialized size estimates (ret$EstimatedSize)", compositeO));
+        addField(new IntegerFieldEditor("GeneratorThreads", "Number of threads for code generation (0 = all processors)", compositeO, 3));
         outputGroup.pack();
 
         // blank, to fill the second column
@@ -94,6 +105,8 @@ public class BonScriptConfiguration extends LanguageRootPreferencePage {
         addField(new BooleanFieldEditor("HazelcastId", "IdentifiedDataSerializable (Hazelcast3)", compositeH));
         addField(new BooleanFieldEditor("HazelcastPo", "Portable (Hazelcast3)", compositeH));
         addField(new IntegerFieldEditor("FactoryId", "Hazelcast3 default factoryId", compositeH, 10));
+        addField(new BooleanFieldEditor("HazelcastDirectIO", "Direct field IO for Hazelcast (changes the wire format)", compositeH));
+        addField(new BooleanFieldEditor("ExternalizeDirectIO", "Direct field IO for Externalizable (changes the serialized form)", compositeH));
         hazelGroup.pack();
 
         // blank, to fill the second column
@@ -135,10 +148,23 @@ public class BonScriptConfiguration extends LanguageRootPreferencePage {
         store.setDefault("HazelcastId",         defaults.defaultHazelcastId);
         store.setDefault("HazelcastPo",         defaults.defaultHazelcastPo);
         store.setDefault("FactoryId",           defaults.defaulthazelcastFactoryId);
+        store.setDefault("HazelcastDirectIO",   defaults.hazelcastDirectIO);
+        store.setDefault("ExternalizeDirectIO", defaults.externalizeDirectIO);
         store.setDefault("xsdDefault",          defaults.xsdDefault);
         store.setDefault("xsdRootSeparateFile", defaults.xsdRootSeparateFile);
         store.setDefault("xsdBundleSubfolders", defaults.xsdBundleSubfolders);
         store.setDefault("xsdExtensions",       defaults.xsdExtensions);
+        store.setDefault("MethodSplitLimit",    defaults.methodSplitLimit);
+        store.setDefault("MethodSplitMaxFields", defaults.methodSplitMaxFields);
+        store.setDefault("CompactViews",        defaults.compactViews);
+        store.setDefault("JmhBenchmarks",       defaults.jmhBenchmarks);
+        store.setDefault("SampleFactories",     defaults.sampleFactories);
+        store.setDefault("NativeImage",         defaults.nativeImage);
+        store.setDefault("IndexedAccess",       defaults.indexedAccess);
+        store.setDefault("FoldingPlans",        defaults.foldingPlans);
+        store.setDefault("FusedTreeWalk",       defaults.fusedTreeWalk);
+        store.setDefault("EstimatedSize",       defaults.estimatedSize);
+        store.setDefault("GeneratorThreads",    defaults.generatorThreads);
 
         BonScriptPreferences currentSettings = new BonScriptPreferences();
         currentSettings.warnByte                    = store.getBoolean("WarnByte");
@@ -152,10 +178,23 @@ public class BonScriptConfiguration extends LanguageRootPreferencePage {
         currentSettings.defaultHazelcastId          = store.getBoolean("HazelcastId");
         currentSettings.defaultHazelcastPo          = store.getBoolean("HazelcastPo");
         currentSettings.defaulthazelcastFactoryId   = store.getInt("FactoryId");
+        currentSettings.hazelcastDirectIO           = store.getBoolean("HazelcastDirectIO");
+        currentSettings.externalizeDirectIO         = store.getBoolean("ExternalizeDirectIO");
         currentSettings.xsdDefault                  = store.getBoolean("xsdDefault");
         currentSettings.xsdRootSeparateFile         = store.getBoolean("xsdRootSeparateFile");
         currentSettings.xsdBundleSubfolders         = store.getBoolean("xsdBundleSubfolders");
         currentSettings.xsdExtensions               = store.getBoolean("xsdExtensions");
+        currentSettings.methodSplitLimit            = store.getInt("MethodSplitLimit");
+        currentSettings.methodSplitMaxFields        = store.getInt("MethodSplitMaxFields");
+        currentSettings.compactViews                = store.getBoolean("CompactViews");
+        currentSettings.jmhBenchmarks               = store.getBoolean("JmhBenchmarks");
+        currentSettings.sampleFactories             = store.getBoolean("SampleFactories");
+        currentSettings.nativeImage                 = store.getBoolean("NativeImage");
+        currentSettings.indexedAccess               = store.getBoolean("IndexedAccess");
+        currentSettings.foldingPlans                = store.getBoolean("FoldingPlans");
+        currentSettings.fusedTreeWalk               = store.getBoolean("FusedTreeWalk");
+        currentSettings.estimatedSize               = store.getBoolean("EstimatedSize");
+        currentSettings.generatorThreads            = store.getInt("GeneratorThreads");
         BonScriptPreferences.currentPrefs  = currentSettings;
 
         store.addPropertyChangeListener(new IPropertyChangeListener() {
@@ -195,6 +234,12 @@ public class BonScriptConfiguration extends LanguageRootPreferencePage {
                   case "FactoryId":
                       BonScriptPreferences.currentPrefs.defaulthazelcastFactoryId = toInt(event.getNewValue());
                       break;
+                  case "HazelcastDirectIO":
+                      BonScriptPreferences.currentPrefs.hazelcastDirectIO   = toBool(event.getNewValue());
+                      break;
+                  case "ExternalizeDirectIO":
+                      BonScriptPreferences.currentPrefs.externalizeDirectIO = toBool(event.getNewValue());
+                      break;
                   case "xsdDefault":
                       BonScriptPreferences.currentPrefs.xsdDefault          = toBool(event.getNewValue());
                       break;
@@ -207,6 +252,39 @@ public class BonScriptConfiguration extends LanguageRootPreferencePage {
                   case "xsdExtensions":
                       BonScriptPreferences.currentPrefs.xsdExtensions       = toBool(event.getNewValue());
                       break;
+                  case "MethodSplitLimit":
+                      BonScriptPreferences.currentPrefs.methodSplitLimit    = toInt(event.getNewValue());
+                      break;
+                  case "MethodSplitMaxFields":
+                      BonScriptPreferences.currentPrefs.methodSplitMaxFields = toInt(event.getNewValue());
+                      break;
+                  case "CompactViews":
+                      BonScriptPreferences.currentPrefs.compactViews        = toBool(event.getNewValue());
+                      break;
+                  case "JmhBenchmarks":
+                      BonScriptPreferences.currentPrefs.jmhBenchmarks       = toBool(event.getNewValue());
+                      break;
+                  case "SampleFactories":
+                      BonScriptPreferences.currentPrefs.sampleFactories     = toBool(event.getNewValue());
+                      break;
+                  case "NativeImage":
+                      BonScriptPreferences.currentPrefs.nativeImage         = toBool(event.getNewValue());
+                      break;
+                  case "IndexedAccess":
+                      BonScriptPreferences.currentPrefs.indexedAccess       = toBool(event.getNewValue());
+                      break;
+                  case "FoldingPlans":
+                      BonScriptPreferences.currentPrefs.foldingPlans        = toBool(event.getNewValue());
+                      break;
+                  case "FusedTreeWalk":
+                      BonScriptPreferences.currentPrefs.fusedTreeWalk       = toBool(event.getNewValue());
+                      break;
+                  case "EstimatedSize":
+                      BonScriptPreferences.currentPrefs.estimatedSize       = toBool(event.getNewValue());
+                      break;
+                  case "GeneratorThreads":
+                      BonScriptPreferences.currentPrefs.generatorThreads    = toInt(event.getNewValue());
+                      break;
                   }
                 }
               });
@@ -49,12 +49,28 @@ public class BonScriptPreferences {
     static private final boolean defaultHazelcastIdDefault      = configReader.getProp("HazelcastId", false);
     static private final boolean defaultHazelcastPoDefault      = configReader.getProp("HazelcastPo", false);
     static private final int defaulthazelcastFactoryIdDefault   = configReader.getProp("FactoryId", 26);
+    static private final boolean hazelcastDirectIODefault       = configReader.getProp("HazelcastDirectIO", false); // per field writeData / readData instead of the generic composer (changes the wire format)
+    static private final boolean externalizeDirectIODefault     = configReader.getProp("ExternalizeDirectIO", false); // per field writeExternal / readExternal instead of the generic composer (changes the serialized form)
 
     static private final boolean defaultXsdDefault              = configReader.getProp("xsdDefault", false);
     static private final boolean defaultXsdRootSeparateFile     = configReader.getProp("xsdRootSeparateFile", true);
     static private final boolean defaultXsdBundleSubfolders     = configReader.getProp("xsdBundleSubfolders", false);
     static private final boolean defaultXsdExtensions           = configReader.getProp("xsdExtensions", false);
 
+    static private final int methodSplitLimitDefault            = configReader.getProp("MethodSplitLimit", 0);       // estimated bytecode bytes per generated method, 0 = no limit (for example 6000)
+    static private final int methodSplitMaxFieldsDefault        = configReader.getProp("MethodSplitMaxFields", 0);   // max fields per generated method, 0 = no limit
+    static private final boolean compactViewsDefault            = configReader.getProp("CompactViews", false);      // create lazy <Class>View flyweights for the compact format
+    static private final boolean jmhBenchmarksDefault           = configReader.getProp("JmhBenchmarks", false);     // create JMH benchmark sources in subfolder jmh
+    static private final boolean sampleFactoriesDefault         = configReader.getProp("SampleFactories", false);   // create ret$Sample random instance factories (also done for JmhBenchmarks)
+    static private final int generatorThreadsDefault            = configReader.getProp("GeneratorThreads", 1);      // threads for template expansion, 0 = number of processors
+    static private final boolean fingerprintCacheDefault        = configReader.getProp("FingerprintCache", false);  // skip unchanged output files
+    static private final boolean nativeImageDefault             = configReader.getProp("NativeImage", false);       // create GraalVM native-image metadata in resources/META-INF/native-image
+    static private final boolean indexedAccessDefault           = configReader.getProp("IndexedAccess", false);     // create ret$Field / put$Field access by field index
+    static private final boolean foldingPlansDefault            = configReader.getProp("FoldingPlans", false);      // create compileFolding() and foldedOutput with precompiled plans
+    static private final boolean fusedTreeWalkDefault           = configReader.getProp("FusedTreeWalk", false);     // create treeWalk(String converter, object converter, descend)
+    static private final boolean estimatedSizeDefault           = configReader.getProp("EstimatedSize", false);     // create ret$EstimatedSize(boolean compact)
+    static private final String metricsDefault                  = configReader.getProp("Metrics", "");              // write generator metrics: json, csv or empty (disabled)
+
     public boolean warnByte                 = warnByteDefault;
     public boolean warnFloat                = warnFloatDefault;
     public boolean doDebugOut               = doDebugOutDefault;
@@ -66,12 +82,28 @@ public class BonScriptPreferences {
     public boolean defaultHazelcastId       = defaultHazelcastIdDefault;
     public boolean defaultHazelcastPo       = defaultHazelcastPoDefault;
     public int defaulthazelcastFactoryId    = defaulthazelcastFactoryIdDefault;
+    public boolean hazelcastDirectIO        = hazelcastDirectIODefault;
+    public boolean externalizeDirectIO      = externalizeDirectIODefault;
 
     public boolean xsdDefault               = defaultXsdDefault;
     public boolean xsdRootSeparateFile      = defaultXsdRootSeparateFile;
     public boolean xsdBundleSubfolders      = defaultXsdBundleSubfolders;
     public boolean xsdExtensions            = defaultXsdExtensions;
 
+    public int methodSplitLimit             = methodSplitLimitDefault;
+    public int methodSplitMaxFields         = methodSplitMaxFieldsDefault;
+    public boolean compactViews             = compactViewsDefault;
+    public boolean jmhBenchmarks            = jmhBenchmarksDefault;
+    public boolean sampleFactories          = sampleFactoriesDefault;
+    public int generatorThreads             = generatorThreadsDefault;
+    public boolean fingerprintCache         = fingerprintCacheDefault;
+    public String metrics                   = metricsDefault;
+    public boolean estimatedSize            = estimatedSizeDefault;
+    public boolean fusedTreeWalk            = fusedTreeWalkDefault;
+    public boolean foldingPlans             = foldingPlansDefault;
+    public boolean indexedAccess            = indexedAccessDefault;
+    public boolean nativeImage              = nativeImageDefault;
+
     public static BonScriptPreferences currentPrefs = new BonScriptPreferences
 
     def public static String getDateTimePackage() {
@@ -101,4 +133,8 @@ public class BonScriptPreferences {
     def public static getNoXML() {
         return currentPrefs.noXML
     }
+    // the JMH benchmarks use the sample factories
+    def public static boolean getWithSamples() {
+        return currentPrefs.sampleFactories || currentPrefs.jmhBenchmarks
+    }
 }
@@ -17,16 +17,21 @@
 package de.jpaw.bonaparte.dsl.generator
 
 import de.jpaw.bonaparte.dsl.BonScriptPreferences
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.DataType
 import de.jpaw.bonaparte.dsl.generator.debug.DebugBonScriptGeneratorMain
 import de.jpaw.bonaparte.dsl.generator.java.JavaBonScriptGeneratorMain
+import de.jpaw.bonaparte.dsl.generator.java.JavaSample
 import de.jpaw.bonaparte.dsl.generator.xsd.XsdBonScriptGeneratorMain
 import java.util.concurrent.atomic.AtomicInteger
 import jakarta.inject.Inject
 import org.apache.log4j.Logger
 import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.util.EcoreUtil
 import org.eclipse.xtext.generator.AbstractGenerator
 import org.eclipse.xtext.generator.IFileSystemAccess2
 import org.eclipse.xtext.generator.IGeneratorContext
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsProvider
 
 class BonScriptGenerator extends AbstractGenerator {
     static final Logger LOGGER = Logger.getLogger(BonScriptGenerator)
@@ -38,6 +43,7 @@ class BonScriptGenerator extends AbstractGenerator {
     @Inject DebugBonScriptGeneratorMain generatorDebug
     @Inject JavaBonScriptGeneratorMain generatorJava
     @Inject XsdBonScriptGeneratorMain generatorXsd
+    @Inject ResourceDescriptionsProvider resourceDescriptionsProvider
 
     def private String filterInfo() {
         "@" + localId + ": "
@@ -48,24 +54,74 @@ class BonScriptGenerator extends AbstractGenerator {
         LOGGER.info("BonScriptGenerator constructed for " + jakartaPrefix + ". " + filterInfo)
     }
 
+    /** Loads all BonScript resources of the index into the resource set, if a sample factory of the resource chooses among the subclasses
+     * of a referenced class, which otherwise would depend on the resources which happen to be loaded.
+     * This is done once per resource set, i.e. once per build, unless the builder removes resources from it.
+     */
+    def private void loadIndexedResources(Resource resource) {
+        val resourceSet = resource.resourceSet
+        if (resourceSet === null)
+            return;
+        val d = resource.allContents.filter(ClassDefinition).findFirst[JavaSample::needsSubclasses(it)]
+        if (d === null)
+            return;
+        val index = ModelIndex::of(d)
+        if (index.isIndexLoaded)
+            return;
+        for (desc : resourceDescriptionsProvider.getResourceDescriptions(resourceSet).allResourceDescriptions)
+            if (desc.URI.fileExtension == "bon")
+                resourceSet.getResource(desc.URI, true)
+        index.setIndexLoaded
+    }
+
+    /** Prepares the model for parallel template expansion: the templates must only read the model.
+     * Resolving proxies and computing the data type extensions both modify the model, therefore they are done before, for all resources
+     * of the resource set: templates also evaluate the fields of referenced classes, of superclasses and of subclasses in other resources.
+     * The generation context rejects the computation of further data type extensions while templates are expanded in parallel.
+     */
+    def private void prepareParallel(Resource resource) {
+        val resourceSet = resource.resourceSet
+        EcoreUtil.resolveAll(resourceSet ?: resource)       // loads all referenced resources
+        val resources = if (resourceSet !== null) resourceSet.resources.toList else #[ resource ]
+        for (r : resources)
+            for (dt : r.allContents.filter(DataType).toIterable)
+                DataTypeExtension::get(dt)
+    }
+
     override void doGenerate(Resource resource, IFileSystemAccess2 fsa, IGeneratorContext unused) {
 
         try {
-            if (BonScriptPreferences.currentPrefs.doDebugOut) {
-                LOGGER.info(filterInfo + "start code output: Debug dump for " + resource.URI.toString);
-                generatorDebug.doGenerate(resource, fsa)
-            }
+            // every generation run has its own context, which holds the data type cache
+            GeneratorMetrics.format = BonScriptPreferences.currentPrefs.metrics
+            val start = System.nanoTime
+            val ctx = new GenerationContext(BonScriptPreferences.currentPrefs.generatorThreads)
+            if (BonScriptPreferences.currentPrefs.fingerprintCache)
+                ctx.fingerprints = new FingerprintStore(fsa, resource, BonScriptGenerator, BonScriptPreferences.currentPrefs)
+            ctx.run [
+                if (BonScriptPreferences.withSamples)
+                    loadIndexedResources(resource)
+                if (ctx.isParallel)
+                    prepareParallel(resource)
+
+                if (BonScriptPreferences.currentPrefs.doDebugOut) {
+                    LOGGER.info(filterInfo + "start code output: Debug dump for " + resource.URI.toString);
+                    generatorDebug.doGenerate(resource, fsa)
+                }
 
-            LOGGER.info(filterInfo + "start code output: Java output for " + resource.URI.toString);
-            generatorJava.doGenerate(resource, fsa, unused)
+                LOGGER.info(filterInfo + "start code output: Java output for " + resource.URI.toString);
+                generatorJava.doGenerate(resource, fsa, unused)
 
-            if (!BonScriptPreferences.getNoXML) {
-                LOGGER.info(filterInfo + "start XSD creation for " + resource.URI.toString);
-                generatorXsd.doGenerate(resource, fsa, unused)
-            }
+                if (!BonScriptPreferences.getNoXML) {
+                    LOGGER.info(filterInfo + "start XSD creation for " + resource.URI.toString);
+                    generatorXsd.doGenerate(resource, fsa, unused)
+                }
+            ]
+            ctx.fingerprints?.save
+            GeneratorMetrics.record("resource " + resource.URI.lastSegment, System.nanoTime - start, ctx.outputBytes)
+            GeneratorMetrics.dump(fsa)      // totals so far, the builder has no end of build callback
 
             LOGGER.info(filterInfo + "start cleanup");
-            DataTypeExtension::clear()
+            DataTypeExtension::clear()      // the default context, which may have been used by the validator
 
         } catch (Exception e) {
             LOGGER.error("Exception " + e.message)
@@ -0,0 +1,115 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+
+import de.jpaw.bonaparte.dsl.bonScript.DataType;
+
+/** Resolved data types which are shared by all generation contexts, the Java, XSD and BDDL generators as well as the validators.
+ * Typedef packages which are imported by many source files are therefore resolved once, instead of once per generated resource.
+ *
+ * Entries are grouped by the URI of the resource which contains the DataType. An entry refers to model objects, and is therefore valid
+ * only as long as the resource and all resources it depends on (typedefs, enums, xenums and referenced classes) have not been
+ * reloaded or reparsed. This is checked by the identity of the resource and of its parse result.
+ * Within a valid group, the DataType itself is the key, which is equivalent to its URI fragment, but avoids computing fragments per lookup.
+ */
+public final class DataTypeCache {
+    private static final Map<URI, ResourceEntry> ENTRIES = new ConcurrentHashMap<URI, ResourceEntry>(200);
+    private static volatile ResourceSet lastResourceSet = null;     // used to evict entries of abandoned resource sets
+
+    private DataTypeCache() {
+    }
+
+    /** The resolved data types of a single resource, and the state of the resources they have been computed from. */
+    private static final class ResourceEntry {
+        private final Resource resource;
+        private final ResourceDependencies dependencies = new ResourceDependencies();
+        private final Map<DataType, DataTypeExtension> dataTypes = new ConcurrentHashMap<DataType, DataTypeExtension>(100);
+
+        private ResourceEntry(Resource resource) {
+            this.resource = resource;
+            dependencies.add(resource);
+        }
+
+        private boolean isCurrent() {
+            return dependencies.isCurrent();
+        }
+    }
+
+    // removes all entries which refer to resources which have been unloaded or removed from their resource set
+    private static void evictStale() {
+        for (Iterator<ResourceEntry> i = ENTRIES.values().iterator(); i.hasNext(); )
+            if (!i.next().isCurrent())
+                i.remove();
+    }
+
+    // returns the current entry of a resource, or null if none exists
+    private static ResourceEntry entryOf(Resource r, boolean create) {
+        if (r == null || r.getURI() == null)
+            return null;
+        final ResourceSet rs = r.getResourceSet();
+        if (rs != lastResourceSet) {
+            lastResourceSet = rs;
+            evictStale();
+        }
+        ResourceEntry e = ENTRIES.get(r.getURI());
+        if (e != null && (e.resource != r || !e.isCurrent())) {
+            ENTRIES.remove(r.getURI(), e);
+            e = null;
+        }
+        if (e == null && create) {
+            e = new ResourceEntry(r);
+            final ResourceEntry other = ENTRIES.putIfAbsent(r.getURI(), e);
+            if (other != null)
+                e = other.resource == r ? other : e;
+        }
+        return e;
+    }
+
+    /** Returns the shared resolution of a data type, or null if it has not been resolved yet or is outdated. */
+    static DataTypeExtension get(DataType key) {
+        final ResourceEntry e = entryOf(key.eResource(), false);
+        return e == null ? null : e.dataTypes.get(key);
+    }
+
+    /** Publishes a completely resolved data type. */
+    static void put(DataType key, DataTypeExtension resolved) {
+        final ResourceEntry e = entryOf(key.eResource(), true);
+        if (e == null)
+            return;                 // not contained in a resource, will not be shared
+        e.dependencies.addReferencedBy(key);     // typedefs, enums and xenums (including their base types), classes
+        e.dataTypes.putIfAbsent(key, resolved);
+    }
+
+    /** Discards all shared entries. */
+    public static void clear() {
+        ENTRIES.clear();
+        lastResourceSet = null;
+    }
+
+    /** Returns the number of resources with shared entries. */
+    public static int size() {
+        return ENTRIES.size();
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Set;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -75,9 +76,6 @@ public class DataTypeExtension {
         "7", "8", "NanoUnits", "10", "11", "PicoUnits", "13", "14", "FemtoUnits"
     );
 
-    // a lookup to resolve typedefs. Also collects preprocessed information about a data type
-    static private Map<DataType,DataTypeExtension> map = new HashMap<DataType,DataTypeExtension>(200);
-
     // a lookup to determine the Java data type to use for a given grammar type.
     // (LANGUAGE SPECIFIC: JAVA)
     static protected Map<String,DataCategory> dataCategory = new HashMap<String, DataCategory>(32);
@@ -160,7 +158,7 @@ public class DataTypeExtension {
 
 
     // member variables
-    private boolean currentlyVisited = false;
+    private volatile boolean currentlyVisited = false;   // volatile: the typedef resolution publishes the complete entry by resetting it
     public ElementaryDataType elementaryDataType;   // primitive type, enum, unspecified object or boxed type
     public ClassDefinition objectDataType;          // explicit class reference (possibly with generics parameters)
     public ClassDefinition secondaryObjectDataType; // explicit secondary class reference (possibly with generics parameters)
@@ -187,8 +185,9 @@ public class DataTypeExtension {
     public boolean enumHasUnicodeTokens = false;    // for an alpha enum: set to true if at least one of the tokens is not ASCII. Used for SQL DDL type selection (varchar / nvarchar)
     public DataCategory category = DataCategory.MISC;
 
+    /** Discards the cached information of the current generation context. Resolutions shared via DataTypeCache are kept. */
     static public void clear() {
-        map.clear();
+        GenerationContext.current().clear();
     }
 
     static private void mergeFieldSpecsWithDefaultsForObjects(DataTypeExtension r, DataType key) throws Exception {
@@ -365,6 +364,19 @@ public class DataTypeExtension {
     }
 
     static public DataTypeExtension get(DataType key) throws Exception {
+        final GenerationContext ctx = GenerationContext.current();
+        final DataTypeExtension cached = ctx.dataTypes.get(key);
+        if (cached != null && !cached.currentlyVisited)
+            return cached;      // fast path without locking, the common case
+        // entries are created under lock, because their computation modifies the model (type names) and recurses for typedefs
+        synchronized (ctx) {
+            if (ctx.isExpandingInParallel() && !ctx.dataTypes.containsKey(key) && DataTypeCache.get(key) == null)
+                throw new IllegalStateException("Data type " + EcoreUtil.getURI(key) + " has not been prepared for parallel code generation");
+            return get(ctx.dataTypes, key);
+        }
+    }
+
+    static private DataTypeExtension get(Map<DataType,DataTypeExtension> map, DataType key) throws Exception {
         // retrieve the DataTypeExtension class for the given key (auto-create it if not yet existing)
         DataTypeExtension r = map.get(key);
         if (r != null) {
@@ -373,6 +385,12 @@ public class DataTypeExtension {
                 throw new Exception("recursive typedefs around " + r.typedef.getName());
             return r;
         }
+        // resolved before, by another generation context or the validator?
+        r = DataTypeCache.get(key);
+        if (r != null) {
+            map.put(key, r);
+            return r;
+        }
         // does not exist, create a new one!
         r = new DataTypeExtension();
         r.elementaryDataType = key.getElementaryDataType();
@@ -537,6 +555,7 @@ public class DataTypeExtension {
             // just simply store it (elementary data type or object reference)
             map.put(key, r);
         }
+        DataTypeCache.put(key, r);
         return r;
     }
 
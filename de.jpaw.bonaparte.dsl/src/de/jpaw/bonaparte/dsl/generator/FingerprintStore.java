@@ -0,0 +1,241 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+
+/** Persisted fingerprints of generated files, which allow to skip the expansion of templates whose inputs did not change,
+ * and to leave files untouched whose content did not change. Intended for batch builds (Maven / Gradle), where the output folder is kept
+ * between builds. Builders which delete the derived files that have not been generated again (the Eclipse builder) must still see every file:
+ * for those, skipped and unchanged files are passed to the file system access with their existing contents, which it does not write again.
+ *
+ * A fingerprint covers the generator version, the preferences, and the source text of the contributing model elements.
+ * The unit of source text is a top level element of the model (a package), together with all packages it references, directly or indirectly.
+ * Referenced elements without source text (for example Java types) contribute their URI only.
+ * The store is kept per source resource and generator, in a text file below the output folder.
+ */
+public class FingerprintStore {
+    private static final Logger LOGGER = Logger.getLogger(FingerprintStore.class);
+    public static final String FOLDER = ".bonaparte-fingerprints/";
+
+    private final IFileSystemAccess2 fsa;
+    private final String storeFilename;
+    private final String version;                           // generator version and settings, null if the generator version is unknown
+    private final boolean registerRetained;                 // pass retained files to the file system access, which tracks the generated files
+    private final Map<String, String> previous = new HashMap<String, String>();
+    private final Map<String, String> current = new TreeMap<String, String>();
+    private final Map<EObject, String> unitDigests = new HashMap<EObject, String>();
+    private final Map<EObject, String> closureDigests = new HashMap<EObject, String>();
+    private int skipped = 0;
+    private int unchanged = 0;
+    private int written = 0;
+
+    /** Opens the store of a resource. The generator class identifies the generator (its code location is part of the version),
+     * the settings are the preference objects whose public fields affect the output. */
+    public FingerprintStore(IFileSystemAccess2 fsa, Resource resource, Class<?> generator, Object... settings) {
+        this(fsa, resource, generator, versionOf(generator, settings));
+    }
+
+    // with an explicit version, which is null if the generator version is unknown. Used by tests, whose code is not loaded from jars.
+    // Only the standalone file system access writes files without keeping track of them.
+    FingerprintStore(IFileSystemAccess2 fsa, Resource resource, Class<?> generator, String version) {
+        this(fsa, resource, generator, version, !(fsa instanceof JavaIoFileSystemAccess));
+    }
+
+    FingerprintStore(IFileSystemAccess2 fsa, Resource resource, Class<?> generator, String version, boolean registerRetained) {
+        this.fsa = fsa;
+        this.registerRetained = registerRetained;
+        this.storeFilename = FOLDER + resource.getURI().trimFileExtension().lastSegment()
+          + "-" + digest(resource.getURI().toString()).substring(0, 12) + "-" + generator.getSimpleName() + ".txt";
+        this.version = version;
+        if (version == null)
+            LOGGER.info("Generator version unknown, templates will always be expanded");
+        if (fsa.isFile(storeFilename)) {
+            for (String line : fsa.readTextFile(storeFilename).toString().split("\n")) {
+                final int space = line.indexOf(' ');
+                if (space > 0)
+                    previous.put(line.substring(space + 1).trim(), line.substring(0, space));
+            }
+        }
+    }
+
+    private static String digest(String data) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            final byte [] hash = md.digest(data.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder sb = new StringBuilder(64);
+            for (byte b : hash)
+                sb.append(String.format("%02x", b & 0xff));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);      // SHA-256 is provided by every JRE
+        }
+    }
+
+    // the generator code changes whenever its jar changes. Code loaded from folders (development workspaces) has no reliable version.
+    private static String codeVersion(Class<?> cls) {
+        try {
+            final URL location = cls.getProtectionDomain().getCodeSource().getLocation();
+            final File file = new File(location.toURI());
+            if (!file.isFile())
+                return null;
+            return file.getName() + ":" + file.length() + ":" + file.lastModified() + ";";
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String versionOf(Class<?> generator, Object... settings) {
+        final String codeVersion = codeVersion(FingerprintStore.class);
+        final String generatorVersion = codeVersion(generator);
+        return codeVersion == null || generatorVersion == null ? null : codeVersion + generatorVersion + settingsOf(settings);
+    }
+
+    // the public instance fields of the preference objects
+    private static String settingsOf(Object... settings) {
+        final StringBuilder sb = new StringBuilder(1000);
+        for (Object s : settings) {
+            sb.append(s.getClass().getName()).append('{');
+            for (Field f : s.getClass().getFields()) {
+                if (!Modifier.isStatic(f.getModifiers())) {
+                    try {
+                        sb.append(f.getName()).append('=').append(f.get(s)).append(';');
+                    } catch (IllegalAccessException e) {
+                        // public fields are accessible
+                    }
+                }
+            }
+            sb.append('}');
+        }
+        return sb.toString();
+    }
+
+    // the top level element of the model (package) which contains an object
+    private static EObject unitOf(EObject e) {
+        while (e.eContainer() != null && e.eContainer().eContainer() != null)
+            e = e.eContainer();
+        return e;
+    }
+
+    private String unitDigest(EObject unit) {
+        String d = unitDigests.get(unit);
+        if (d == null) {
+            final ICompositeNode node = NodeModelUtils.getNode(unit);
+            d = node != null ? digest(EcoreUtil.getURI(unit) + "\n" + node.getText()) : EcoreUtil.getURI(unit).toString();
+            unitDigests.put(unit, d);
+        }
+        return d;
+    }
+
+    // the source text of a unit and all units it references
+    private String closureDigest(EObject start) {
+        String d = closureDigests.get(start);
+        if (d == null) {
+            final Set<EObject> visited = new HashSet<EObject>();
+            final Set<String> digests = new TreeSet<String>();      // sorted, the order of traversal is irrelevant
+            final Deque<EObject> todo = new ArrayDeque<EObject>();
+            visited.add(start);
+            todo.add(start);
+            while (!todo.isEmpty()) {
+                final EObject unit = todo.poll();
+                digests.add(unitDigest(unit));
+                if (NodeModelUtils.getNode(unit) == null)
+                    continue;               // external element, its references are not followed
+                unit.eAllContents().forEachRemaining(e -> {
+                    for (EObject ref : e.eCrossReferences()) {
+                        final EObject refUnit = unitOf(ref);
+                        if (visited.add(refUnit))
+                            todo.add(refUnit);
+                    }
+                });
+            }
+            d = digest(String.join(",", digests));
+            closureDigests.put(start, d);
+        }
+        return d;
+    }
+
+    /** Computes the fingerprint of a file generated from the specified model elements, or returns null if none can be computed. */
+    public String fingerprint(Iterable<? extends EObject> elements) {
+        if (version == null)
+            return null;
+        final Set<String> digests = new TreeSet<String>();
+        for (EObject e : elements)
+            if (e != null)
+                digests.add(closureDigest(unitOf(e)));
+        return digest(version + String.join(",", digests));
+    }
+
+    /** Returns true if the file exists and has been generated from the same inputs. The file is then retained. */
+    public boolean isCurrent(String filename, String fingerprint) {
+        if (fingerprint == null || !fingerprint.equals(previous.get(filename)) || !fsa.isFile(filename))
+            return false;
+        current.put(filename, fingerprint);
+        if (registerRetained)
+            fsa.generateFile(filename, fsa.readTextFile(filename));
+        ++skipped;
+        return true;
+    }
+
+    /** Writes a file, unless it exists with identical contents. */
+    public void generateFile(String filename, String fingerprint, CharSequence contents) {
+        if (fingerprint != null)
+            current.put(filename, fingerprint);
+        if (fsa.isFile(filename) && fsa.readTextFile(filename).toString().contentEquals(contents)) {
+            if (registerRetained)
+                fsa.generateFile(filename, contents);
+            ++unchanged;
+            return;
+        }
+        fsa.generateFile(filename, contents);
+        ++written;
+    }
+
+    /** Writes the fingerprints of all files of this run. Files which have not been generated in this run are dropped. */
+    public void save() {
+        LOGGER.info(storeFilename + ": " + skipped + " files skipped, " + unchanged + " unchanged, " + written + " written");
+        if (current.equals(previous) && !registerRetained)
+            return;
+        final StringBuilder sb = new StringBuilder(100 * current.size());
+        for (Map.Entry<String, String> e : current.entrySet())
+            sb.append(e.getValue()).append(' ').append(e.getKey()).append('\n');
+        fsa.generateFile(storeFilename, sb);
+    }
+}
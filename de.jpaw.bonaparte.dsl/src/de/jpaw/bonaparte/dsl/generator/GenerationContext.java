@@ -0,0 +1,198 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+
+import de.jpaw.bonaparte.dsl.bonScript.DataType;
+
+/** State of a single code generation run, which formerly was held in static fields.
+ * The context is bound to the generating thread by run(), and to the worker threads for the duration of every task.
+ * Code which runs outside of any generation run (for example the validator) uses a shared default context.
+ *
+ * Templates are expanded in parallel if the parallelism is greater than 1. The EMF model must not be modified while templates are expanded,
+ * therefore all proxies must be resolved and the data type extensions of all resources must be computed before. DataTypeExtension.get()
+ * throws an IllegalStateException if a data type which has not been prepared is requested during parallel expansion. Files are always written by the thread which invoked FileBatch.write(), in the order
+ * they were added, which results in the same output as serial generation.
+ *
+ * If a FingerprintStore is attached, files whose fingerprint did not change are neither expanded nor written.
+ */
+public class GenerationContext {
+    private static final GenerationContext DEFAULT = new GenerationContext(1);
+    private static final ThreadLocal<GenerationContext> CURRENT = new ThreadLocal<GenerationContext>();
+
+    /** The cache of DataTypeExtension. Entries are created under the lock of the context, but can be read without locking. */
+    final Map<DataType, DataTypeExtension> dataTypes = new ConcurrentHashMap<DataType, DataTypeExtension>(200);
+    private final int parallelism;
+    private FingerprintStore fingerprints;                  // null if the fingerprint cache is not used
+    private long outputBytes = 0L;                          // characters written, updated by the writing thread only
+    private volatile boolean expandingInParallel = false;   // true while templates are expanded by the worker threads
+
+    /** Creates a new context. A parallelism of 0 or less selects the number of available processors. */
+    public GenerationContext(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Returns the context bound to the current thread, or the default context. */
+    public static GenerationContext current() {
+        final GenerationContext ctx = CURRENT.get();
+        return ctx != null ? ctx : DEFAULT;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isParallel() {
+        return parallelism > 1;
+    }
+
+    /** Returns true while templates are expanded in parallel. The model must not be modified then. */
+    public boolean isExpandingInParallel() {
+        return expandingInParallel;
+    }
+
+    /** Returns the number of characters of all files written in this context. */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public FingerprintStore getFingerprints() {
+        return fingerprints;
+    }
+
+    public void setFingerprints(FingerprintStore fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    /** Returns the fingerprint of a file generated from the specified model elements, or null if the fingerprint cache is not used. */
+    public String fingerprint(EObject... elements) {
+        return fingerprint(Arrays.asList(elements));
+    }
+
+    public String fingerprint(Iterable<? extends EObject> elements) {
+        return fingerprints == null ? null : fingerprints.fingerprint(elements);
+    }
+
+    /** Runs some code with this context bound to the current thread. */
+    public void run(Runnable task) {
+        final GenerationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            if (previous == null)
+                CURRENT.remove();
+            else
+                CURRENT.set(previous);
+        }
+    }
+
+    /** Expands a template with this context bound to the current thread. */
+    private String expand(Supplier<? extends CharSequence> template) {
+        final String[] result = new String[1];
+        run(() -> result[0] = template.get().toString());
+        return result[0];
+    }
+
+    /** Discards the cached data type information. */
+    public void clear() {
+        dataTypes.clear();
+    }
+
+    /** Creates a new, empty batch of files. */
+    public FileBatch newBatch() {
+        return new FileBatch();
+    }
+
+    /** A list of files to generate, with their templates. The templates are expanded by write(). */
+    public class FileBatch {
+        private final List<String> filenames = new ArrayList<String>();
+        private final List<String> fingerprintList = new ArrayList<String>();
+        private final List<Supplier<? extends CharSequence>> templates = new ArrayList<Supplier<? extends CharSequence>>();
+
+        private FileBatch() {
+        }
+
+        public void add(String filename, Supplier<? extends CharSequence> template) {
+            add(filename, null, template);
+        }
+
+        /** Adds a file with the fingerprint of its inputs. If the fingerprint is unchanged since the previous run, the template is not expanded. */
+        public void add(String filename, String fingerprint, Supplier<? extends CharSequence> template) {
+            if (fingerprints != null && fingerprints.isCurrent(filename, fingerprint))
+                return;
+            filenames.add(filename);
+            fingerprintList.add(fingerprint);
+            templates.add(template);
+        }
+
+        public int size() {
+            return filenames.size();
+        }
+
+        private void generateFile(IFileSystemAccess2 fsa, int i, String contents) {
+            outputBytes += contents.length();
+            if (fingerprints != null)
+                fingerprints.generateFile(filenames.get(i), fingerprintList.get(i), contents);
+            else
+                fsa.generateFile(filenames.get(i), contents);
+        }
+
+        /** Expands all templates (in parallel, if the context allows it) and writes the files in the order they were added. */
+        public void write(IFileSystemAccess2 fsa) {
+            if (!isParallel() || templates.size() <= 1) {
+                for (int i = 0; i < templates.size(); ++i)
+                    generateFile(fsa, i, expand(templates.get(i)));
+                return;
+            }
+            final ForkJoinPool pool = new ForkJoinPool(parallelism);
+            expandingInParallel = true;
+            try {
+                final List<Future<String>> results = new ArrayList<Future<String>>(templates.size());
+                for (final Supplier<? extends CharSequence> template : templates)
+                    results.add(pool.submit(() -> expand(template)));
+                for (int i = 0; i < results.size(); ++i)
+                    generateFile(fsa, i, results.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Code generation interrupted", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException)cause;
+                if (cause instanceof Error)
+                    throw (Error)cause;
+                throw new RuntimeException(cause);
+            } finally {
+                expandingInParallel = false;
+                pool.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+
+/** Wall time, invocation count and output size per template method and per resource, collected over all generation runs of the JVM.
+ * Times are inclusive: the time of a template contains the time of the templates it invokes.
+ * Collection is enabled by the preference Metrics ("json" or "csv"). When disabled, measure() only invokes the template.
+ */
+public final class GeneratorMetrics {
+    public static final String FILENAME = "metrics/generator-metrics.";
+
+    private static volatile String format = null;       // null if disabled
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<String, Counter>(100);
+
+    private static final class Counter {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+    }
+
+    private GeneratorMetrics() {
+    }
+
+    /** Enables collection in the specified format ("json" or "csv"), or disables it for null or any other value. */
+    public static void setFormat(String newFormat) {
+        format = "json".equalsIgnoreCase(newFormat) || "csv".equalsIgnoreCase(newFormat) ? newFormat.toLowerCase() : null;
+    }
+
+    public static boolean isEnabled() {
+        return format != null;
+    }
+
+    /** Expands a template and records its time and output size under the specified name. */
+    public static <T extends CharSequence> T measure(String name, Supplier<T> template) {
+        if (format == null)
+            return template.get();
+        final long start = System.nanoTime();
+        final T result = template.get();
+        record(name, System.nanoTime() - start, result == null ? 0 : result.length());
+        return result;
+    }
+
+    /** Records a single invocation. */
+    public static void record(String name, long nanos, long bytes) {
+        if (format == null)
+            return;
+        final Counter c = COUNTERS.computeIfAbsent(name, k -> new Counter());
+        c.count.increment();
+        c.nanos.add(nanos);
+        c.bytes.add(bytes);
+    }
+
+    public static void reset() {
+        COUNTERS.clear();
+    }
+
+    private static String jsonQuote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String csvQuote(String s) {
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    /** Writes all counters collected so far, sorted by descending time, to metrics/generator-metrics.json or .csv. */
+    public static void dump(IFileSystemAccess2 fsa) {
+        final String currentFormat = format;
+        if (currentFormat == null)
+            return;
+        // snapshot of the counters: name, count, micros, bytes
+        final List<Object []> rows = new ArrayList<Object []>(COUNTERS.size());
+        for (Map.Entry<String, Counter> e : COUNTERS.entrySet())
+            rows.add(new Object [] { e.getKey(), e.getValue().count.sum(), e.getValue().nanos.sum() / 1000L, e.getValue().bytes.sum() });
+        rows.sort((a, b) -> Long.compare((Long)b[2], (Long)a[2]));
+        final StringBuilder sb = new StringBuilder(100 + 80 * rows.size());
+        if ("json".equals(currentFormat)) {
+            sb.append("[\n");
+            for (int i = 0; i < rows.size(); ++i) {
+                final Object [] r = rows.get(i);
+                sb.append("  { \"name\": ").append(jsonQuote((String)r[0])).append(", \"count\": ").append(r[1])
+                  .append(", \"micros\": ").append(r[2]).append(", \"bytes\": ").append(r[3]).append(i < rows.size() - 1 ? " },\n" : " }\n");
+            }
+            sb.append("]\n");
+        } else {
+            sb.append("name,count,micros,bytes\n");
+            for (Object [] r : rows)
+                sb.append(csvQuote((String)r[0])).append(',').append(r[1]).append(',').append(r[2]).append(',').append(r[3]).append('\n');
+        }
+        fsa.generateFile(FILENAME + currentFormat, sb);
+    }
+}
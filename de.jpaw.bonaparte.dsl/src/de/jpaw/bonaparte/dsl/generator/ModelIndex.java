@@ -0,0 +1,230 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition;
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition;
+
+/** Information derived from the class hierarchy, which generators and validators would otherwise compute by walking the model repeatedly:
+ * the fields of a class including those of its superclasses, the imports required by a class and its superclasses,
+ * and the subclasses of a class within the resource set (for references with orSuperClass).
+ *
+ * There is one index per resource set, which is attached to it as an adapter. Information about a class is computed on first use and kept
+ * as long as the resources of the class, of its superclasses and of the types they reference have not been reloaded or reparsed.
+ * The subclass relation is rebuilt if any resource changed, but only changed resources are scanned again.
+ * Cyclic inheritance (which is reported by the validator) is tolerated: the hierarchy then ends before the first repeated class.
+ */
+public final class ModelIndex extends AdapterImpl {
+
+    /** Derived information about a single class. */
+    public static final class ClassInfo {
+        private final ResourceDependencies dependencies = new ResourceDependencies();
+        private final List<ClassDefinition> hierarchy;          // the class and its superclasses, starting with the class itself
+        private final List<FieldDefinition> allFields;          // fields of the root class first, then of the subclasses
+        private volatile int requiredFieldCount = -1;
+        private volatile Map<String, String> imports = null;
+
+        private ClassInfo(ClassDefinition d) {
+            final List<ClassDefinition> chain = new ArrayList<ClassDefinition>();
+            final Set<ClassDefinition> seen = new HashSet<ClassDefinition>();
+            for (ClassDefinition cd = d; cd != null && seen.add(cd); cd = XUtil.getParent(cd)) {
+                chain.add(cd);
+                dependencies.addReferencedBy(cd);
+            }
+            final List<FieldDefinition> fields = new ArrayList<FieldDefinition>();
+            for (int i = chain.size() - 1; i >= 0; --i)
+                fields.addAll(chain.get(i).getFields());
+            hierarchy = Collections.unmodifiableList(chain);
+            allFields = Collections.unmodifiableList(fields);
+        }
+
+        public List<ClassDefinition> getHierarchy() {
+            return hierarchy;
+        }
+
+        public List<FieldDefinition> getAllFields() {
+            return allFields;
+        }
+
+        /** Returns the number of fields of the class and its superclasses which cannot be null. */
+        public int getRequiredFieldCount() {
+            int n = requiredFieldCount;
+            if (n < 0) {
+                n = 0;
+                for (FieldDefinition f : allFields)
+                    if (XUtil.cannotBeNull(f))
+                        ++n;
+                requiredFieldCount = n;
+            }
+            return n;
+        }
+
+        /** Returns the imports (simple name => package name) required by the class and its superclasses, or null if not yet computed. */
+        public Map<String, String> getImports() {
+            return imports;
+        }
+
+        /** Stores the imports, which are computed by the Java generator. */
+        public void setImports(Map<String, String> imports) {
+            this.imports = Collections.unmodifiableMap(imports);
+        }
+    }
+
+    // the classes of a single resource, and the parse result they have been taken from
+    private static final class ResourceClasses {
+        private final Object stamp;
+        private final List<ClassDefinition> classes = new ArrayList<ClassDefinition>();
+
+        private ResourceClasses(Resource r) {
+            stamp = ResourceDependencies.stampOf(r);
+            r.getAllContents().forEachRemaining(o -> {
+                if (o instanceof ClassDefinition)
+                    classes.add((ClassDefinition)o);
+            });
+        }
+    }
+
+    private final ResourceSet resourceSet;          // null for objects outside of any resource set
+    private final Map<ClassDefinition, ClassInfo> classInfos = new ConcurrentHashMap<ClassDefinition, ClassInfo>(500);
+    private volatile int purgeThreshold = 500;      // outdated entries are removed when the number of entries exceeds this
+    private Map<Resource, ResourceClasses> resourceClasses = new HashMap<Resource, ResourceClasses>();
+    private Map<ClassDefinition, List<ClassDefinition>> directSubclasses = null;       // null if outdated
+    private final Map<ClassDefinition, List<ClassDefinition>> allSubclasses = new HashMap<ClassDefinition, List<ClassDefinition>>();
+    private int indexedResourceCount = -1;          // number of resources after all resources of the Xtext index have been loaded, -1 if not yet
+
+    private ModelIndex(ResourceSet resourceSet) {
+        this.resourceSet = resourceSet;
+    }
+
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == ModelIndex.class;
+    }
+
+    /** Returns the index of the resource set which contains the object. */
+    public static ModelIndex of(EObject e) {
+        final Resource r = e.eResource();
+        final ResourceSet rs = r == null ? null : r.getResourceSet();
+        if (rs == null)
+            return new ModelIndex(null);            // nothing to share, the information is computed for this use only
+        synchronized (ModelIndex.class) {
+            ModelIndex index = (ModelIndex)EcoreUtil.getExistingAdapter(rs, ModelIndex.class);
+            if (index == null) {
+                index = new ModelIndex(rs);
+                rs.eAdapters().add(index);
+            }
+            return index;
+        }
+    }
+
+    /** Returns the derived information of a class. */
+    public ClassInfo classInfo(ClassDefinition d) {
+        ClassInfo info = classInfos.get(d);
+        if (info == null || !info.dependencies.isCurrent()) {
+            info = new ClassInfo(d);
+            if (classInfos.put(d, info) == null && classInfos.size() > purgeThreshold)
+                purge();
+        }
+        return info;
+    }
+
+    // reparsing creates new model objects, the entries of the old ones are removed from time to time
+    private synchronized void purge() {
+        classInfos.values().removeIf(info -> !info.dependencies.isCurrent());
+        purgeThreshold = Math.max(500, 2 * classInfos.size());
+    }
+
+    /** Shorthand for ModelIndex.of(d).classInfo(d). */
+    public static ClassInfo get(ClassDefinition d) {
+        return of(d).classInfo(d);
+    }
+
+    // rescans all resources which changed, and drops the subclass relation if any did
+    private void refreshClasses() {
+        final Map<Resource, ResourceClasses> current = new HashMap<Resource, ResourceClasses>(2 * resourceSet.getResources().size());
+        boolean changed = resourceClasses.size() != resourceSet.getResources().size();
+        for (Resource r : resourceSet.getResources()) {
+            ResourceClasses rc = resourceClasses.get(r);
+            if (rc == null || rc.stamp != ResourceDependencies.stampOf(r)) {
+                rc = new ResourceClasses(r);
+                changed = true;
+            }
+            current.put(r, rc);
+        }
+        resourceClasses = current;
+        if (changed) {
+            directSubclasses = null;
+            allSubclasses.clear();
+        }
+    }
+
+    /** Returns true if all resources of the Xtext index have been loaded into the resource set, and no resource has been removed since. */
+    public synchronized boolean isIndexLoaded() {
+        return resourceSet != null && indexedResourceCount >= 0 && resourceSet.getResources().size() >= indexedResourceCount;
+    }
+
+    /** Records that all resources of the Xtext index have been loaded into the resource set. */
+    public synchronized void setIndexLoaded() {
+        if (resourceSet != null)
+            indexedResourceCount = resourceSet.getResources().size();
+    }
+
+    /** Returns all direct and indirect subclasses of a class within the resource set, in no specific order. */
+    public synchronized List<ClassDefinition> subclassesOf(ClassDefinition d) {
+        if (resourceSet == null)
+            return Collections.emptyList();
+        refreshClasses();
+        if (directSubclasses == null) {
+            directSubclasses = new HashMap<ClassDefinition, List<ClassDefinition>>();
+            for (ResourceClasses rc : resourceClasses.values())
+                for (ClassDefinition c : rc.classes) {
+                    final ClassDefinition parent = XUtil.getParent(c);
+                    if (parent != null)
+                        directSubclasses.computeIfAbsent(parent, k -> new ArrayList<ClassDefinition>()).add(c);
+                }
+        }
+        List<ClassDefinition> result = allSubclasses.get(d);
+        if (result == null) {
+            final Set<ClassDefinition> seen = new HashSet<ClassDefinition>();
+            final List<ClassDefinition> todo = new ArrayList<ClassDefinition>();
+            seen.add(d);
+            todo.add(d);
+            for (int i = 0; i < todo.size(); ++i)
+                for (ClassDefinition c : directSubclasses.getOrDefault(todo.get(i), Collections.emptyList()))
+                    if (seen.add(c))
+                        todo.add(c);
+            result = Collections.unmodifiableList(todo.subList(1, todo.size()));
+            allSubclasses.put(d, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/** Collects the reflection, resource and serialization metadata which GraalVM native-image requires for the generated classes of one package,
+ * and writes it as reflect-config.json, resource-config.json and serialization-config.json into
+ * resources/META-INF/native-image/(group)/(java package)/, where native-image finds it on the class path.
+ * The group is the bundle of the package, or "bonaparte" if none is specified. One directory per package allows every resource to write
+ * its own files, without merging the output of several resources. BDDL packages may use the same Java package as a bonaparte package,
+ * therefore the JPA generator appends a suffix to the directory name.
+ */
+public final class NativeImageConfig {
+    public static final String DEFAULT_GROUP = "bonaparte";
+
+    /** Reflection access for classes which are only instantiated: service providers, JAXB adapters, converters. */
+    public static final String CONSTRUCTORS = "\"allDeclaredConstructors\": true";
+    /** Reflection access for classes whose members are accessed as well: DTOs, enums, entities. */
+    public static final String ALL_MEMBERS = "\"allDeclaredConstructors\": true, \"allDeclaredMethods\": true, \"allDeclaredFields\": true";
+    /** Class lookup only, for example package-info, which is loaded by JAXB to read the package annotations. */
+    public static final String LOOKUP = null;
+
+    private final String directory;
+    private final Map<String, String> reflection = new TreeMap<String, String>();     // class name => access options
+    private final Set<String> resources = new TreeSet<String>();
+    private final Set<String> serialization = new TreeSet<String>();
+
+    public NativeImageConfig(String bundle, String javaPackage) {
+        this(bundle, javaPackage, "");
+    }
+
+    public NativeImageConfig(String bundle, String javaPackage, String suffix) {
+        directory = "resources/META-INF/native-image/" + (bundle != null ? bundle : DEFAULT_GROUP) + "/" + javaPackage + suffix + "/";
+    }
+
+    /** Registers a class for reflection. The options are one of the constants CONSTRUCTORS, ALL_MEMBERS or LOOKUP. */
+    public void addClass(String className, String options) {
+        reflection.put(className, options);
+    }
+
+    /** Registers a resource which is loaded from the class path, by its path name (without leading slash). */
+    public void addResource(String path) {
+        resources.add(path);
+    }
+
+    /** Registers a class for Java serialization (Serializable or Externalizable). */
+    public void addSerializable(String className) {
+        serialization.add(className);
+    }
+
+    public boolean isEmpty() {
+        return reflection.isEmpty() && resources.isEmpty() && serialization.isEmpty();
+    }
+
+    private static String quoted(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    public String reflectConfig() {
+        final StringBuilder sb = new StringBuilder(100 * reflection.size() + 10);
+        sb.append("[");
+        String separator = "\n";
+        for (Map.Entry<String, String> e : reflection.entrySet()) {
+            sb.append(separator).append("  { \"name\": ").append(quoted(e.getKey()));
+            if (e.getValue() != null)
+                sb.append(", ").append(e.getValue());
+            sb.append(" }");
+            separator = ",\n";
+        }
+        return sb.append("\n]\n").toString();
+    }
+
+    public String resourceConfig() {
+        final StringBuilder sb = new StringBuilder(60 * resources.size() + 50);
+        sb.append("{\n  \"resources\": {\n    \"includes\": [");
+        String separator = "\n";
+        for (String path : resources) {
+            sb.append(separator).append("      { \"pattern\": ").append(quoted("\\Q" + path + "\\E")).append(" }");
+            separator = ",\n";
+        }
+        return sb.append("\n    ]\n  }\n}\n").toString();
+    }
+
+    public String serializationConfig() {
+        final StringBuilder sb = new StringBuilder(60 * serialization.size() + 30);
+        sb.append("{\n  \"types\": [");
+        String separator = "\n";
+        for (String className : serialization) {
+            sb.append(separator).append("    { \"name\": ").append(quoted(className)).append(" }");
+            separator = ",\n";
+        }
+        return sb.append("\n  ]\n}\n").toString();
+    }
+
+    /** Adds the configuration files to a batch. Files without entries are not written. */
+    public void addTo(GenerationContext.FileBatch files, String fingerprint) {
+        if (!reflection.isEmpty())
+            files.add(directory + "reflect-config.json", fingerprint, this::reflectConfig);
+        if (!resources.isEmpty())
+            files.add(directory + "resource-config.json", fingerprint, this::resourceConfig);
+        if (!serialization.isEmpty())
+            files.add(directory + "serialization-config.json", fingerprint, this::serializationConfig);
+    }
+}
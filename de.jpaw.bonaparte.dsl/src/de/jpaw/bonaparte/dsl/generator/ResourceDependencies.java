@@ -0,0 +1,75 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.resource.XtextResource;
+
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition;
+
+/** The resources which some derived information has been computed from, together with their state at that time.
+ * The information is outdated once one of the resources has been unloaded, removed from its resource set, or reparsed.
+ */
+final class ResourceDependencies {
+    private final Map<Resource, Object> stamps = new ConcurrentHashMap<Resource, Object>();     // resource => parse result
+
+    // changes whenever the resource is reparsed, also for partial parsing in the editor
+    static Object stampOf(Resource r) {
+        final Object parseResult = r instanceof XtextResource ? ((XtextResource)r).getParseResult() : null;
+        return parseResult != null ? parseResult : r;
+    }
+
+    void add(Resource r) {
+        if (r != null)
+            stamps.putIfAbsent(r, stampOf(r));
+    }
+
+    /** Adds the resources of an object and of all objects it references, directly or indirectly.
+     * Referenced classes contribute their own resource, their references are not followed. */
+    void addReferencedBy(EObject start) {
+        final Set<EObject> visited = new HashSet<EObject>();
+        final Deque<EObject> todo = new ArrayDeque<EObject>();
+        todo.add(start);
+        while (!todo.isEmpty()) {
+            final EObject o = todo.poll();
+            if (!visited.add(o))
+                continue;
+            add(o.eResource());
+            if (o != start && o instanceof ClassDefinition)
+                continue;
+            todo.addAll(o.eCrossReferences());
+            o.eAllContents().forEachRemaining(c -> todo.addAll(c.eCrossReferences()));
+        }
+    }
+
+    boolean isCurrent() {
+        for (Map.Entry<Resource, Object> dep : stamps.entrySet()) {
+            final Resource r = dep.getKey();
+            if (r.getResourceSet() == null || !r.isLoaded() || stampOf(r) != dep.getValue())
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,263 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Recognizes simple regular expressions, which can be checked by generated character loops instead of java.util.regex.Pattern.
+ * Supported are sequences of literal characters and character classes (ASCII only, with ranges, \d and \w), each optionally
+ * followed by one of the greedy quantifiers ?, *, +, {n}, {n,} or {n,m}.
+ * Groups, alternatives, anchors, negated classes and reluctant or possessive quantifiers are not supported.
+ *
+ * The generated code matches greedily and never backtracks. Therefore a pattern is only accepted if backtracking can never be required,
+ * which is the case if the characters of every variable length element are disjoint from those of all following elements,
+ * up to and including the next mandatory one.
+ */
+public class SimplePattern {
+    public static final int UNBOUNDED = -1;
+
+    /** A character class (or single character) with repetition bounds. */
+    public static class Element {
+        public final List<int []> ranges;   // inclusive ranges of accepted characters
+        public final int minCount;
+        public final int maxCount;          // or UNBOUNDED
+
+        Element(List<int []> ranges, int minCount, int maxCount) {
+            this.ranges = ranges;
+            this.minCount = minCount;
+            this.maxCount = maxCount;
+        }
+
+        /** Returns the character if this element matches exactly one fixed character, else -1. */
+        public int singleChar() {
+            if (minCount == 1 && maxCount == 1 && ranges.size() == 1 && ranges.get(0)[0] == ranges.get(0)[1])
+                return ranges.get(0)[0];
+            return -1;
+        }
+
+        boolean overlaps(Element other) {
+            for (int [] a : ranges)
+                for (int [] b : other.ranges)
+                    if (a[0] <= b[1] && b[0] <= a[1])
+                        return true;
+            return false;
+        }
+    }
+
+    private final String regexp;
+    private int pos = 0;
+
+    private SimplePattern(String regexp) {
+        this.regexp = regexp;
+    }
+
+    /** Returns the elements of the pattern, or null if the pattern is not simple, and must be checked by java.util.regex.Pattern. */
+    public static List<Element> parse(String regexp) {
+        if (regexp == null || regexp.isEmpty())
+            return null;
+        final List<Element> elements = new SimplePattern(regexp).parseSequence();
+        if (elements == null)
+            return null;
+        // verify that greedy matching without backtracking is exact
+        for (int i = 0; i < elements.size(); ++i) {
+            final Element e = elements.get(i);
+            if (e.minCount != e.maxCount) {
+                for (int j = i + 1; j < elements.size(); ++j) {
+                    final Element f = elements.get(j);
+                    if (e.overlaps(f))
+                        return null;
+                    if (f.minCount > 0)
+                        break;
+                }
+            }
+        }
+        return elements;
+    }
+
+    private List<Element> parseSequence() {
+        final List<Element> result = new ArrayList<Element>();
+        while (pos < regexp.length()) {
+            final List<int []> ranges = parseAtom();
+            if (ranges == null)
+                return null;
+            final Element e = parseQuantifier(ranges);
+            if (e == null)
+                return null;
+            if (e.maxCount != 0)
+                result.add(e);
+        }
+        return result;
+    }
+
+    // parses a single character, escape or character class
+    private List<int []> parseAtom() {
+        final char c = regexp.charAt(pos++);
+        final List<int []> ranges = new ArrayList<int []>();
+        switch (c) {
+        case '[':
+            return parseClass();
+        case '\\':
+            return parseEscape(ranges) ? ranges : null;
+        case '(':
+        case ')':
+        case '|':
+        case '^':
+        case '$':
+        case '.':
+        case '?':
+        case '*':
+        case '+':
+        case '{':
+        case '}':
+        case ']':
+            return null;
+        default:
+            if (c >= 0x80 || c < 0x20)
+                return null;
+            ranges.add(new int [] { c, c });
+            return ranges;
+        }
+    }
+
+    // parses the contents of [...], the opening bracket has been consumed
+    private List<int []> parseClass() {
+        final List<int []> ranges = new ArrayList<int []>();
+        if (pos < regexp.length() && regexp.charAt(pos) == '^')
+            return null;                    // negation
+        while (pos < regexp.length()) {
+            final char c = regexp.charAt(pos++);
+            if (c == ']')
+                return ranges.isEmpty() ? null : ranges;
+            int from;
+            if (c == '\\') {
+                if (pos < regexp.length() && !Character.isLetterOrDigit(regexp.charAt(pos))) {
+                    from = regexp.charAt(pos++);
+                } else {
+                    if (!parseEscape(ranges))
+                        return null;
+                    continue;               // shorthand classes can not start a range
+                }
+            } else if (c == '[' || c == '&' || c >= 0x80 || c < 0x20) {
+                return null;                // nested classes and intersections
+            } else {
+                from = c;
+            }
+            if (pos + 1 < regexp.length() && regexp.charAt(pos) == '-' && regexp.charAt(pos + 1) != ']') {
+                // a range
+                pos++;
+                int to = regexp.charAt(pos++);
+                if (to == '\\') {
+                    if (pos >= regexp.length() || Character.isLetterOrDigit(regexp.charAt(pos)))
+                        return null;
+                    to = regexp.charAt(pos++);
+                } else if (to == '[' || to >= 0x80 || to < 0x20) {
+                    return null;
+                }
+                if (to < from)
+                    return null;
+                ranges.add(new int [] { from, to });
+            } else {
+                ranges.add(new int [] { from, from });
+            }
+        }
+        return null;                        // unterminated
+    }
+
+    // parses an escape sequence, the backslash has been consumed
+    private boolean parseEscape(List<int []> ranges) {
+        if (pos >= regexp.length())
+            return false;
+        final char c = regexp.charAt(pos++);
+        switch (c) {
+        case 'd':
+            ranges.add(new int [] { '0', '9' });
+            return true;
+        case 'w':
+            ranges.add(new int [] { '0', '9' });
+            ranges.add(new int [] { 'A', 'Z' });
+            ranges.add(new int [] { '_', '_' });
+            ranges.add(new int [] { 'a', 'z' });
+            return true;
+        default:
+            if (Character.isLetterOrDigit(c) || c >= 0x80 || c < 0x20)
+                return false;               // other classes, back references, control characters
+            ranges.add(new int [] { c, c });   // escaped special character
+            return true;
+        }
+    }
+
+    private Element parseQuantifier(List<int []> ranges) {
+        if (pos >= regexp.length())
+            return new Element(ranges, 1, 1);
+        final char c = regexp.charAt(pos);
+        int min = 1;
+        int max = 1;
+        switch (c) {
+        case '?':
+            pos++;
+            min = 0;
+            break;
+        case '*':
+            pos++;
+            min = 0;
+            max = UNBOUNDED;
+            break;
+        case '+':
+            pos++;
+            max = UNBOUNDED;
+            break;
+        case '{':
+            pos++;
+            min = parseNumber();
+            if (min < 0 || pos >= regexp.length())
+                return null;
+            if (regexp.charAt(pos) == '}') {
+                max = min;
+            } else if (regexp.charAt(pos) == ',') {
+                pos++;
+                if (pos < regexp.length() && regexp.charAt(pos) == '}') {
+                    max = UNBOUNDED;
+                } else {
+                    max = parseNumber();
+                    if (max < min)
+                        return null;
+                }
+            } else {
+                return null;
+            }
+            if (pos >= regexp.length() || regexp.charAt(pos) != '}')
+                return null;
+            pos++;
+            break;
+        default:
+            return new Element(ranges, 1, 1);
+        }
+        // reluctant and possessive quantifiers are not supported
+        if (pos < regexp.length() && (regexp.charAt(pos) == '?' || regexp.charAt(pos) == '+'))
+            return null;
+        return new Element(ranges, min, max);
+    }
+
+    private int parseNumber() {
+        int result = 0;
+        final int start = pos;
+        while (pos < regexp.length() && regexp.charAt(pos) >= '0' && regexp.charAt(pos) <= '9' && pos - start < 6)
+            result = result * 10 + (regexp.charAt(pos++) - '0');
+        return pos == start ? -1 : result;
+    }
+}
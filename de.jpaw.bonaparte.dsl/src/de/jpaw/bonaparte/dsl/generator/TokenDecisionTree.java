@@ -0,0 +1,111 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package de.jpaw.bonaparte.dsl.generator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/** Decision tree for the lookup of enum tokens without a String instance, as generated by JavaEnum.
+ * The tokens are separated by their length first. Within a length, every node switches on the character position which separates the
+ * remaining candidates best, until a single candidate remains. Its characters at the positions which have not been tested yet
+ * must then be compared.
+ */
+public class TokenDecisionTree {
+    public static final int LEAF = -1;
+
+    /** A node of the tree: either a switch on a character position, or a leaf with a single candidate. */
+    public static class Node {
+        public final int position;                  // the position to switch on, or LEAF
+        public final Map<Character, Node> branches; // the subtrees per character, in order of the tokens (switch nodes only)
+        public final int token;                     // the index of the candidate (leaves only)
+        public final List<Integer> remaining;       // the positions to compare with the candidate (leaves only)
+
+        private Node(int position, Map<Character, Node> branches, int token, List<Integer> remaining) {
+            this.position = position;
+            this.branches = branches;
+            this.token = token;
+            this.remaining = remaining;
+        }
+
+        public boolean isLeaf() {
+            return position == LEAF;
+        }
+    }
+
+    private TokenDecisionTree() {
+    }
+
+    /** Builds the decision trees for a list of tokens, per token length in ascending order. Leaves refer to the index of the token in the list. */
+    public static SortedMap<Integer, Node> build(List<String> tokens) {
+        final SortedMap<Integer, List<Integer>> byLength = new TreeMap<Integer, List<Integer>>();
+        for (int i = 0; i < tokens.size(); ++i)
+            byLength.computeIfAbsent(tokens.get(i).length(), len -> new ArrayList<Integer>()).add(i);
+        final SortedMap<Integer, Node> trees = new TreeMap<Integer, Node>();
+        for (Map.Entry<Integer, List<Integer>> e : byLength.entrySet()) {
+            final List<Integer> positions = new ArrayList<Integer>(e.getKey());
+            for (int p = 0; p < e.getKey(); ++p)
+                positions.add(p);
+            trees.put(e.getKey(), decide(tokens, e.getValue(), positions));
+        }
+        return trees;
+    }
+
+    private static Node decide(List<String> tokens, List<Integer> candidates, List<Integer> positions) {
+        if (candidates.size() == 1 || positions.isEmpty())      // no positions left only happens for duplicate tokens
+            return new Node(LEAF, null, candidates.get(0), positions);
+        // select the position with the most distinct characters
+        int best = positions.get(0);
+        int bestCount = 0;
+        for (Integer p : positions) {
+            final Set<Character> chars = new HashSet<Character>();
+            for (Integer i : candidates)
+                chars.add(tokens.get(i).charAt(p));
+            if (chars.size() > bestCount) {
+                best = p;
+                bestCount = chars.size();
+            }
+        }
+        final List<Integer> remaining = new ArrayList<Integer>(positions);
+        remaining.remove(Integer.valueOf(best));
+        final Map<Character, List<Integer>> groups = new LinkedHashMap<Character, List<Integer>>();
+        for (Integer i : candidates)
+            groups.computeIfAbsent(tokens.get(i).charAt(best), c -> new ArrayList<Integer>()).add(i);
+        final Map<Character, Node> branches = new LinkedHashMap<Character, Node>();
+        for (Map.Entry<Character, List<Integer>> g : groups.entrySet())
+            branches.put(g.getKey(), decide(tokens, g.getValue(), remaining));
+        return new Node(best, branches, -1, null);
+    }
+
+    /** Returns the index of the token which matches the parameter, or -1 if none does. Evaluates the trees in the same way as the generated code. */
+    public static int lookup(SortedMap<Integer, Node> trees, List<String> tokens, CharSequence s) {
+        Node node = trees.get(s.length());
+        while (node != null && !node.isLeaf())
+            node = node.branches.get(s.charAt(node.position));
+        if (node == null)
+            return -1;
+        final String token = tokens.get(node.token);
+        for (Integer p : node.remaining)
+            if (s.charAt(p) != token.charAt(p))
+                return -1;
+        return node.token;
+    }
+}
@@ -118,6 +118,15 @@ class XUtil {
         return d.doCacheHash || parentCacheHash(d.parent)
     }
 
+    /** Returns true if the object reuse methods reset() and deserializeInto() should be created for a class.
+     * The setting is inherited by subclasses, because they must override both methods.
+     */
+    def public static boolean isReuse(ClassDefinition d) {
+        if (d === null)
+            return false
+        return d.doReuse || getPackage(d).doReuse || isReuse(d.parent)
+    }
+
     def public static getRelevantXmlAccess(ClassDefinition d) {
         var XXmlAccess t = d.xmlAccess?.x ?: getPackage(d).xmlAccess?.x ?: null     // default to no XMLAccess annotations
         return if (t == XXmlAccess::NOXML || BonScriptPreferences.getNoXML) null else t
@@ -250,7 +259,7 @@ class XUtil {
     }
 
     def public static indexedName(FieldDefinition i) {
-        if (i.isList !== null || i.isSet !== null) "_i" else if (i.isMap !== null) "_i.getValue()" else if (i.isArray !== null) i.name + "[_i]" else i.name
+        if (i.isPrimitiveList) i.name + ".get(_i)" else if (i.isList !== null || i.isSet !== null) "_i" else if (i.isMap !== null) "_i.getValue()" else if (i.isArray !== null) i.name + "[_i]" else i.name
     }
 
 //    def public static int mapIndexID(MapModifier i) {
@@ -276,6 +285,8 @@ class XUtil {
         val check = if (withNullCheck) '''if («i.name» != null) ''';
         if (i.isArray !== null)
             return '''«check»for (int _i = 0; _i < «i.name».length; ++_i) '''
+        if (i.isPrimitiveList)
+            return '''«check»for (int _i = 0; _i < «i.name».length(); ++_i) '''
         if (i.isList !== null || i.isSet !== null)
             return '''«check»for («JavaDataTypeNoName(i, true)» _i : «i.name») '''
         if (i.isMap !== null)
@@ -322,8 +333,43 @@ class XUtil {
         d.doBeanNames?.x ?: getPackage(d).doBeanNames?.x ?: XBeanNames::BEAN_AND_SIMPLE_NAMES  // default to creation of no bean validation annotations
     }
 
+    /** Returns true for a List of int, long or double elements, which is stored in a primitive specialized container instead of a List of boxed values. */
+    def public static boolean isPrimitiveList(FieldDefinition i) {
+        return i.isList !== null && i.isList.primitive
+    }
+
+    /** Returns the name of the (immutable) container class of a primitive list (ImmutableIntArray, ImmutableLongArray or ImmutableDoubleArray), or null if the element type is not supported. */
+    def public static primitiveListType(FieldDefinition i) {
+        switch (DataTypeExtension::get(i.datatype).elementaryDataType?.name?.toLowerCase) {
+            case 'int':     return "ImmutableIntArray"
+            case 'integer': return "ImmutableIntArray"
+            case 'long':    return "ImmutableLongArray"
+            case 'double':  return "ImmutableDoubleArray"
+        }
+        return null
+    }
+
+    /** Returns the container classes of primitive lists which the source of a class refers to, in order to import only those.
+     * These are the types of its own fields, and those of inherited fields if the all-arguments constructor is created.
+     */
+    def public static List<String> primitiveListTypesOf(ClassDefinition d) {
+        val fields = if (d.isNoAllFieldsConstructor) d.fields else d.allFields
+        return fields.filter[isPrimitiveList].map[primitiveListType].filterNull.toSet.sort
+    }
+
+    /** Returns the name of the parser method which reads a single element of a primitive list. */
+    def public static primitiveListReader(FieldDefinition i) {
+        switch (i.primitiveListType) {
+            case "ImmutableIntArray":   return "readPrimitiveInteger"
+            case "ImmutableLongArray":  return "readPrimitiveLong"
+            default:                    return "readPrimitiveDouble"
+        }
+    }
+
     def public static aggregateOf(FieldDefinition i, String dataClass) {
-         if (i.isArray !== null)
+        if (i.isPrimitiveList)
+            i.primitiveListType
+        else if (i.isArray !== null)
             dataClass + "[]"
         else if (i.isSet !== null)
             "Set<" + dataClass + ">"
@@ -444,6 +490,17 @@ class XUtil {
             return c.isMap.maxcount
         0
     }
+    def public static int aggregateMinSize(FieldDefinition c) {
+        if (c.isArray !== null)
+            return c.isArray.mincount
+        if (c.isList !== null)
+            return c.isList.mincount
+        if (c.isSet !== null)
+            return c.isSet.mincount
+        if (c.isMap !== null)
+            return c.isMap.mincount
+        0
+    }
 
     def public static getFieldVisibility(ClassDefinition d, FieldDefinition i) {
         (i.visibility ?: d.defaults?.visibility ?: getPackage(d).defaults?.visibility)?.x ?: XVisibility::DEFAULT
@@ -467,6 +524,9 @@ class XUtil {
         import java.util.regex.Pattern;
         import java.util.regex.Matcher;
         import java.util.UUID;
+        «IF BonScriptPreferences.withSamples»
+            import java.util.SplittableRandom;
+        «ENDIF»
         import java.util.HashSet;
         import java.util.LinkedHashSet;
         import java.util.Set;
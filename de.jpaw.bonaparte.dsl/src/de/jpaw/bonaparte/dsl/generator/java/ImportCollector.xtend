@@ -8,6 +8,7 @@ import de.jpaw.bonaparte.dsl.bonScript.XEnumDefinition
 import de.jpaw.bonaparte.dsl.bonScript.XEnumSetDefinition
 import de.jpaw.bonaparte.dsl.generator.DataCategory
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import de.jpaw.bonaparte.dsl.generator.ModelIndex
 import de.jpaw.bonaparte.dsl.generator.XUtil
 import java.util.HashMap
 import java.util.Map
@@ -70,6 +71,25 @@ class ImportCollector {
     def void recurseImports(ClassDefinition d, boolean recurseFields) {
         if (d === null)
             return;
+        if (!recurseFields) {
+            addOwnImports(d)
+            return
+        }
+        // the imports of a class and its superclasses are collected once per class and kept in the model index
+        val info = ModelIndex::get(d)
+        var hierarchyImports = info.imports
+        if (hierarchyImports === null) {
+            val collector = new ImportCollector(null)
+            for (cd : info.hierarchy)
+                collector.addOwnImports(cd)
+            info.imports = collector.requiredImports
+            hierarchyImports = info.imports
+        }
+        for (e : hierarchyImports.entrySet)
+            addImport(e.value, e.key)       // merging yields the same result as collecting the imports here
+    }
+
+    def private void addOwnImports(ClassDefinition d) {
         // collect all imports for this class (make sure we don't duplicate any)
         for (i : d.fields) {
             val ref = DataTypeExtension::get(i.datatype)
@@ -117,8 +137,6 @@ class ImportCollector {
 
         // finally, possibly the parent object
         addImport(d.extendsClass)
-        if (recurseFields && d.extendsClass !== null && d.extendsClass.classRef !== null)
-            recurseImports(d.extendsClass.classRef, true)
     }
 
 
@@ -0,0 +1,213 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+
+import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Creates JMH benchmark classes «Class»Benchmark in the separate source tree jmh/, which measure the generated serialization,
+ * deserialization, equals, hashCode, validation and cloning code of a class. The benchmarks use a sample instance created by ret$Sample.
+ * The jmh tree is meant to be compiled by a separate module, which depends on the generated classes, bonaparte-core and jmh-core.
+ */
+class JavaBenchmark {
+
+    /** Returns the file name of a benchmark source, relative to the output folder. */
+    def static getBenchmarkFilename(ClassDefinition d) {
+        return "jmh/" + getBonPackageName(d).replaceAll("\\.", "/") + "/" + d.name + "Benchmark.java"
+    }
+
+    /** Returns true if a benchmark is created for the class. Benchmarks require the sample factory. */
+    def static boolean needsBenchmark(ClassDefinition d) {
+        return JavaSample::hasSample(d)
+    }
+
+    def static writeBenchmark(ClassDefinition d) {
+        val imports = new ImportCollector(getBonPackageName(d))
+        imports.recurseImports(d, true)
+        imports.addImport(d)
+        val doExt = JavaExternalize::doExternalize(d)
+        return '''
+        // This source has been automatically created by the bonaparte DSL. Do not modify, changes will be lost.
+        // The bonaparte DSL is open source, licensed under Apache License, Version 2.0. It is based on Eclipse Xtext2.
+        // The sources for bonaparte-DSL can be obtained at www.github.com/jpaw/bonaparte-dsl.git
+        package «getBonPackageName(d)»;
+
+        «writeDefaultImports»
+        «IF doExt»
+            import java.io.ByteArrayInputStream;
+            import java.io.ByteArrayOutputStream;
+            import java.io.ObjectInputStream;
+            import java.io.ObjectOutputStream;
+        «ENDIF»
+        import java.util.concurrent.TimeUnit;
+        import org.openjdk.jmh.annotations.Benchmark;
+        import org.openjdk.jmh.annotations.BenchmarkMode;
+        import org.openjdk.jmh.annotations.Fork;
+        import org.openjdk.jmh.annotations.Measurement;
+        import org.openjdk.jmh.annotations.Mode;
+        import org.openjdk.jmh.annotations.OutputTimeUnit;
+        import org.openjdk.jmh.annotations.Scope;
+        import org.openjdk.jmh.annotations.Setup;
+        import org.openjdk.jmh.annotations.State;
+        import org.openjdk.jmh.annotations.Warmup;
+        import «bonaparteInterfacesPackage».BonaPortable;
+        import «bonaparteInterfacesPackage».ByteArrayComposer;
+        import «bonaparteInterfacesPackage».ByteArrayParser;
+        import «bonaparteInterfacesPackage».CompactByteArrayComposer;
+        import «bonaparteInterfacesPackage».CompactByteArrayParser;
+        import «bonaparteInterfacesPackage».StringBuilderComposer;
+        import «bonaparteInterfacesPackage».StringBuilderParser;
+        «imports.createImports»
+
+        /** JMH benchmarks for the generated code of «d.name». */
+        @State(Scope.Thread)
+        @BenchmarkMode(Mode.AverageTime)
+        @OutputTimeUnit(TimeUnit.NANOSECONDS)
+        @Warmup(iterations = 3, time = 1)
+        @Measurement(iterations = 5, time = 1)
+        @Fork(1)
+        public class «d.name»Benchmark {
+            private static final long SEED = 42L;
+            private static final int DEPTH = 2;        // levels of nested objects in the sample
+            private «d.name» sample;
+            private «d.name» copy;
+            private final StringBuilder textBuffer = new StringBuilder(4000);
+            private final StringBuilderComposer textComposer = new StringBuilderComposer(textBuffer);
+            private final ByteArrayComposer byteComposer = new ByteArrayComposer();
+            private final CompactByteArrayComposer compactComposer = new CompactByteArrayComposer();
+            private String text;
+            private byte [] bytes;
+            private byte [] compact;
+            «IF doExt»
+                private byte [] external;
+            «ENDIF»
+
+            /** Creates a populated instance. Every call returns an equal object, because the random generator uses a fixed seed. */
+            public static «d.name» createSample() {
+                return «d.name».ret$Sample(new SplittableRandom(SEED), DEPTH);
+            }
+
+            @Setup
+            public void setup() throws Exception {
+                sample = createSample();
+                copy = createSample();
+                textComposer.reset();
+                textComposer.writeRecord(sample);
+                text = textBuffer.toString();
+                byteComposer.reset();
+                byteComposer.writeRecord(sample);
+                bytes = byteComposer.getBytes();
+                compactComposer.reset();
+                compactComposer.writeRecord(sample);
+                compact = compactComposer.getBytes();
+                «IF doExt»
+                    external = externalize(sample);
+                «ENDIF»
+                sample.validate();      // fails the run if the sample does not satisfy the constraints of the class, the benchmark would measure the exception only
+            }
+
+            @Benchmark
+            public int serializeText() throws Exception {
+                textComposer.reset();
+                textComposer.writeRecord(sample);
+                return textBuffer.length();
+            }
+
+            @Benchmark
+            public BonaPortable deserializeText() throws Exception {
+                return new StringBuilderParser(text, 0, text.length()).readRecord();
+            }
+
+            @Benchmark
+            public int serializeBytes() throws Exception {
+                byteComposer.reset();
+                byteComposer.writeRecord(sample);
+                return byteComposer.getLength();
+            }
+
+            @Benchmark
+            public BonaPortable deserializeBytes() throws Exception {
+                return new ByteArrayParser(bytes, 0, bytes.length).readRecord();
+            }
+
+            @Benchmark
+            public int serializeCompact() throws Exception {
+                compactComposer.reset();
+                compactComposer.writeRecord(sample);
+                return compactComposer.getLength();
+            }
+
+            @Benchmark
+            public BonaPortable deserializeCompact() throws Exception {
+                return new CompactByteArrayParser(compact, 0, compact.length).readRecord();
+            }
+            «IF doExt»
+
+                private static byte [] externalize(Object _obj) throws Exception {
+                    final ByteArrayOutputStream _baos = new ByteArrayOutputStream(1000);
+                    try (ObjectOutputStream _out = new ObjectOutputStream(_baos)) {
+                        _out.writeObject(_obj);
+                    }
+                    return _baos.toByteArray();
+                }
+
+                @Benchmark
+                public byte [] serializeExternal() throws Exception {
+                    return externalize(sample);
+                }
+
+                @Benchmark
+                public Object deserializeExternal() throws Exception {
+                    try (ObjectInputStream _in = new ObjectInputStream(new ByteArrayInputStream(external))) {
+                        return _in.readObject();
+                    }
+                }
+            «ENDIF»
+
+            @Benchmark
+            public boolean equalsCopy() {
+                return sample.equals(copy);
+            }
+
+            @Benchmark
+            public int hashCodeSample() {
+                return sample.hashCode();
+            }
+
+            @Benchmark
+            public void validate() throws Exception {
+                sample.validate();
+            }
+            «IF d.isFreezable»
+
+                @Benchmark
+                public «d.name» frozenClone() throws Exception {
+                    return sample.ret$FrozenClone();
+                }
+            «ENDIF»
+
+            @Benchmark
+            public «d.name» mutableClone() throws Exception {
+                return sample.ret$MutableClone(true, true);
+            }
+        }
+        '''
+    }
+}
@@ -26,21 +26,22 @@ import de.jpaw.bonaparte.dsl.bonScript.PackageDefinition
 import de.jpaw.bonaparte.dsl.bonScript.XBeanValidation
 import de.jpaw.bonaparte.dsl.bonScript.XEnumDefinition
 import de.jpaw.bonaparte.dsl.bonScript.XEnumSetDefinition
-import de.jpaw.bonaparte.dsl.bonScript.XExternalizable
 import de.jpaw.bonaparte.dsl.bonScript.XHazelcast
 import de.jpaw.bonaparte.dsl.bonScript.XVisibility
 import de.jpaw.bonaparte.dsl.bonScript.XXmlAccess
 import de.jpaw.bonaparte.dsl.bonScript.XXmlFormDefault
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import de.jpaw.bonaparte.dsl.generator.GenerationContext
+import de.jpaw.bonaparte.dsl.generator.NativeImageConfig
 import java.util.ArrayList
-import java.util.HashMap
 import java.util.List
-import java.util.Map
 import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.xtext.generator.AbstractGenerator
 import org.eclipse.xtext.generator.IFileSystemAccess2
 import org.eclipse.xtext.generator.IGeneratorContext
 
+import static de.jpaw.bonaparte.dsl.generator.GeneratorMetrics.*
+
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 import static extension de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
 
@@ -48,8 +49,6 @@ import static extension de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
 class JavaBonScriptGeneratorMain extends AbstractGenerator {
     static boolean AUTO_XML_ADAPTER_FOR_ABSTRACT_EMPTY_CLASSES = false
 
-    var Map<String, String> requiredImports = new HashMap<String, String>()
-
     // create the filename to store a generated java class source in. Assumes subdirectory ./java
     def private static getJavaFilename(String pkg, String name) {
         return "java/" + pkg.replaceAll("\\.", "/") + "/" + name + ".java"
@@ -74,47 +73,62 @@ class JavaBonScriptGeneratorMain extends AbstractGenerator {
         val jakartaPrefix = if (BonScriptPreferences.currentPrefs.jakartaOutput) "jakarta" else "javax"
         val timePackage = if (needJoda) "org.joda.time" else "java.time"
 
-        requiredImports.clear()  // clear hash for this new class output
+        val ctx = GenerationContext.current
+        val files = ctx.newBatch    // templates are expanded in parallel, if the context allows it
         for (d : resource.allContents.toIterable.filter(typeof(EnumSetDefinition)))
-            fsa.generateFile(getJavaFilename(getBonPackageName(d), d.name), JavaEnumSet::writeEnumSetDefinition(d, timePackage));
+            files.add(getJavaFilename(getBonPackageName(d), d.name), ctx.fingerprint(d)) [| measure("writeEnumSetDefinition") [| JavaEnumSet::writeEnumSetDefinition(d, timePackage) ]]
         for (d : resource.allContents.toIterable.filter(typeof(XEnumSetDefinition)))
-            fsa.generateFile(getJavaFilename(getBonPackageName(d), d.name), JavaXEnumSet::writeXEnumSetDefinition(d, timePackage));
+            files.add(getJavaFilename(getBonPackageName(d), d.name), ctx.fingerprint(d)) [| measure("writeXEnumSetDefinition") [| JavaXEnumSet::writeXEnumSetDefinition(d, timePackage) ]]
         for (d : resource.allContents.toIterable.filter(typeof(EnumDefinition)))
-            fsa.generateFile(getJavaFilename(getBonPackageName(d), d.name), JavaEnum::writeEnumDefinition(d, timePackage));
+            files.add(getJavaFilename(getBonPackageName(d), d.name), ctx.fingerprint(d)) [| measure("writeEnumDefinition") [| JavaEnum::writeEnumDefinition(d, timePackage) ]]
         for (d : resource.allContents.toIterable.filter(typeof(XEnumDefinition))) {
-            fsa.generateFile(getJavaFilename(getBonPackageName(d), d.name), JavaXEnum::writeXEnumDefinition(d, timePackage));
+            files.add(getJavaFilename(getBonPackageName(d), d.name), ctx.fingerprint(d)) [| measure("writeXEnumDefinition") [| JavaXEnum::writeXEnumDefinition(d, timePackage) ]]
             if (d.getRelevantXmlAccess !== null && !d.abstract && d.extendsXenum === null) {
                 print('''output of xml adapter for «d.name»''')
-                fsa.generateFile(getJavaFilename(getBonPackageName(d), d.name + "XmlAdapter"), JavaXEnum::writeXEnumTypeAdapter(d, jakartaPrefix));
+                files.add(getJavaFilename(getBonPackageName(d), d.name + "XmlAdapter"), ctx.fingerprint(d)) [| measure("writeXEnumTypeAdapter") [| JavaXEnum::writeXEnumTypeAdapter(d, jakartaPrefix) ]]
             }
         }
-        for (d : resource.allContents.toIterable.filter(typeof(ClassDefinition)).filter[!noJava])
-            fsa.generateFile(getJavaFilename(getBonPackageName(d), d.name), d.writeClassDefinition(jakartaPrefix));
+        for (d : resource.allContents.toIterable.filter(typeof(ClassDefinition)).filter[!noJava]) {
+            // the sample factory refers to subclasses, which are not referenced by the class itself
+            val fingerprint = if (ctx.fingerprints !== null) ctx.fingerprint(JavaSample::sampleDependencies(d) + #[ d ])
+            files.add(getJavaFilename(getBonPackageName(d), d.name), fingerprint) [| measure("writeClassDefinition") [| d.writeClassDefinition(jakartaPrefix) ]]
+            if (BonScriptPreferences.currentPrefs.compactViews && JavaView::needsView(d))
+                files.add(getJavaFilename(getBonPackageName(d), d.name + "View"), fingerprint) [| measure("writeView") [| JavaView::writeView(d) ]]
+            if (d.fixedLayout)
+                files.add(getJavaFilename(getBonPackageName(d), d.name + "Layout"), fingerprint) [| measure("writeLayout") [| JavaFixedLayout::writeLayout(d) ]]
+            if (JavaHazelSupport::getHazelSupport(d) == XHazelcast.COMPACT && JavaHazelSupport::canCompact(d))
+                files.add(getJavaFilename(getBonPackageName(d), d.name + "CompactSerializer"), fingerprint) [| measure("writeCompactSerializer") [| JavaHazelSupport::writeCompactSerializer(d) ]]
+            if (BonScriptPreferences.currentPrefs.jmhBenchmarks && JavaBenchmark::needsBenchmark(d))
+                files.add(JavaBenchmark::getBenchmarkFilename(d), fingerprint) [| measure("writeBenchmark") [| JavaBenchmark::writeBenchmark(d) ]]
+        }
         for (d : resource.allContents.toIterable.filter(typeof(PackageDefinition))) {
             // get a list of all classes which have an XML tag
-            var List<ClassDefinition> classList = new ArrayList<ClassDefinition>()
+            val List<ClassDefinition> classList = new ArrayList<ClassDefinition>()
             for (cl : d.classes)
                 if (!cl.isAbstract && cl.getRelevantXmlAccess !== null)
                     classList.add(cl)
-            var List<XEnumDefinition> xenumList = new ArrayList<XEnumDefinition>()
+            val List<XEnumDefinition> xenumList = new ArrayList<XEnumDefinition>()
             for (xl : d.xenums)
                 if (!xl.isAbstract && xl.getRelevantXmlAccess !== null)
                     xenumList.add(xl)
             if (classList.size > 0 || xenumList.size > 0)
-                fsa.generateFile(getJaxbResourceFilename(getBonPackageName(d)), '''
+                files.add(getJaxbResourceFilename(getBonPackageName(d)), ctx.fingerprint(d)) [| '''
                 «FOR cl : classList»
                     «cl.name»
                 «ENDFOR»
                 «FOR xl : xenumList»
                     «xl.name»
                 «ENDFOR»
-                ''')
+                ''' ]
 
             // also, write a package-info.java file, if javadoc on package level exists or if XML bindings are used
-            if (d.javadoc !== null || !(d.xmlAccess?.x == XXmlAccess::NONE || d.xmlAccess?.x == XXmlAccess::NOXML)) {
+            val withPackageInfo = d.javadoc !== null || !(d.xmlAccess?.x == XXmlAccess::NONE || d.xmlAccess?.x == XXmlAccess::NOXML)
+            if (BonScriptPreferences.currentPrefs.nativeImage)
+                d.nativeImageConfig(classList.size > 0 || xenumList.size > 0, withPackageInfo).addTo(files, ctx.fingerprint(d))
+            if (withPackageInfo) {
                 val xmlElementFormDefault = d.xmlElementFormDefault?.x ?: XXmlFormDefault.QUALIFIED  // no null possible, due to backwards compatibility unspecified means QUALIFIED
                 val xmlAttributeFormDefault = d.xmlAttributeFormDefault?.x
-                fsa.generateFile(getJavaFilename(getBonPackageName(d), "package-info"), '''
+                files.add(getJavaFilename(getBonPackageName(d), "package-info"), ctx.fingerprint(d)) [| '''
                     // This source has been automatically created by the bonaparte DSL. Do not modify, changes will be lost.
                     // The bonaparte DSL is open source, licensed under Apache License, Version 2.0. It is based on Eclipse Xtext2.
                     // The sources for bonaparte-DSL can be obtained at www.github.com/jpaw/bonaparte-dsl.git
@@ -159,10 +173,40 @@ class JavaBonScriptGeneratorMain extends AbstractGenerator {
                         import de.jpaw.xml.jaxb.LocalTimeAdapter;
                         import de.jpaw.xml.jaxb.LocalDateTimeAdapter;
                     «ENDIF»
-                ''')
+                ''' ]
             }
         }
-        requiredImports.clear()  // cleanup, we don't know how long this object will live
+        files.write(fsa)
+    }
+
+    // reflection, resource and serialization metadata of a package for GraalVM native-image
+    def private static nativeImageConfig(PackageDefinition d, boolean withJaxbIndex, boolean withPackageInfo) {
+        val pkg = getBonPackageName(d)
+        val config = new NativeImageConfig(d.bundle, pkg)
+        for (cl : d.classes.filter[!noJava]) {
+            config.addClass(pkg + "." + cl.name, NativeImageConfig::ALL_MEMBERS)
+            config.addClass(pkg + "." + cl.name + "$BClass", NativeImageConfig::ALL_MEMBERS)
+            if (JavaExternalize::doExternalize(cl) && !cl.abstract)
+                config.addSerializable(pkg + "." + cl.name)
+            if (JavaHazelSupport::getHazelSupport(cl) == XHazelcast.COMPACT && JavaHazelSupport::canCompact(cl))
+                config.addClass(pkg + "." + cl.name + "CompactSerializer", NativeImageConfig::CONSTRUCTORS)
+        }
+        for (e : d.enums)
+            config.addClass(pkg + "." + e.name, NativeImageConfig::ALL_MEMBERS)
+        for (e : d.enumSets)
+            config.addClass(pkg + "." + e.name, NativeImageConfig::ALL_MEMBERS)
+        for (e : d.xenums) {
+            config.addClass(pkg + "." + e.name, NativeImageConfig::ALL_MEMBERS)      // registered with XEnumFactory by class
+            if (e.getRelevantXmlAccess !== null && !e.abstract && e.extendsXenum === null)
+                config.addClass(pkg + "." + e.name + "XmlAdapter", NativeImageConfig::CONSTRUCTORS)
+        }
+        for (e : d.xenumSets)
+            config.addClass(pkg + "." + e.name, NativeImageConfig::ALL_MEMBERS)
+        if (withJaxbIndex)
+            config.addResource(pkg.replaceAll("\\.", "/") + "/jaxb.index")
+        if (withPackageInfo)
+            config.addClass(pkg + ".package-info", NativeImageConfig::LOOKUP)
+        return config
     }
 
     def private static writeRef(ClassDefinition d) '''
@@ -217,15 +261,6 @@ class JavaBonScriptGeneratorMain extends AbstractGenerator {
                 recurseMethods(d.extendsClass, false)
     }  */
 
-    // decision classes for the package level settings
-    def private static getExternalizable(ClassDefinition d) {
-        val XExternalizable t = d.isExternalizable?.x ?: getPackage(d).isExternalizable?.x ?: BonScriptPreferences.getExternalizable
-        return t !== null && t != XExternalizable::NOEXT
-    }
-    // decision classes for the package level settings
-    def private static getHazelSupport(ClassDefinition d) {
-        return d.doHazelcast?.x ?: getPackage(d).doHazelcast?.x ?: BonScriptPreferences.getHazelSupport
-    }
     def private static getBeanValidation(ClassDefinition d) {
         var XBeanValidation t = d.doBeanValidation?.x ?: getPackage(d).doBeanValidation?.x ?: XBeanValidation::NOBEAN_VAL  // default to creation of no bean validation annotations
         return t !== null && t != XBeanValidation::NOBEAN_VAL
@@ -280,14 +315,15 @@ class JavaBonScriptGeneratorMain extends AbstractGenerator {
         val xmlNonAttributeFields = if (withXml) d.fields.filter[!properties.hasProperty(PROP_ATTRIBUTE)].toList
 
         // val xmlTransient = if (xmlAccess !== null && !BonScriptPreferences.getNoXML) "@XmlTransient"
-        val doExt       = d.externalizable
-        val doHazel     = d.hazelSupport
+        val doExt       = JavaExternalize::doExternalize(d)
+        val doHazel     = JavaHazelSupport::getHazelSupport(d)
         val doBeanVal   = d.beanValidation
         val myKey       = d.recursePkClass
         imports.addImport(myKey)
         imports.addImport(d.pkClass)
         imports.addImport(d.trackingClass)
         val activeColumn = d.fields.filter[properties.hasProperty(PROP_ACTIVE)].head
+        val fieldChunks = JavaMethodSplitter.splitFields(d)    // avoid methods exceeding the JIT limit for wide classes
 
         if (d.orderedByList !== null)
             d.checkOrderedByList()
@@ -324,6 +360,9 @@ class JavaBonScriptGeneratorMain extends AbstractGenerator {
         import com.google.common.collect.ImmutableList;
         import com.google.common.collect.ImmutableSet;
         import com.google.common.collect.ImmutableMap;
+        «FOR t : d.primitiveListTypesOf»
+            import com.google.common.primitives.«t»;
+        «ENDFOR»
         «IF myKey !== null»
             import de.jpaw.bonaparte.annotation.RelatedKey;
         «ENDIF»
@@ -383,31 +422,41 @@ class JavaBonScriptGeneratorMain extends AbstractGenerator {
           implements «d.refExtension»«d.intComparable»«IF doExt», Externalizable«ENDIF»«intHazel(doHazel)»«interfaceOut(d.implementsInterfaceList)» {
             private static final long serialVersionUID = «getSerialUID(d)»L;
 
-            «JavaRtti::writeRtti(d)»
-            «JavaMeta::writeMetaData(d)»
-            «JavaFrozen::writeFreezingCode(d)»
+            «measure("writeRtti") [| JavaRtti::writeRtti(d) ]»
+            «measure("writeMetaData") [| JavaMeta::writeMetaData(d) ]»
+            «measure("writeFreezingCode") [| JavaFrozen::writeFreezingCode(d) ]»
             «FOR i:d.fields»
-                «writeOneField(i, d, doBeanVal, jakartaPrefix)»
+                «measure("writeOneField") [| writeOneField(i, d, doBeanVal, jakartaPrefix) ]»
             «ENDFOR»
-            «JavaFieldsGettersSetters::writeGettersSetters(d)»
-            «JavaValidate::writePatterns(d)»
-            «JavaSerialize::writeSerialize(d)»
-            «JavaSerialize::writeFoldedSerialize(d)»
-            «JavaDeserialize::writeDeserialize(d)»
-            «JavaValidate::writeValidationCode(d)»
-            «JavaCompare::writeHash(d)»
-            «JavaCompare::writeComparisonCode(d)»
+            «measure("writeGettersSetters") [| JavaFieldsGettersSetters::writeGettersSetters(d) ]»
+            «measure("writePatterns") [| JavaValidate::writePatterns(d) ]»
+            «measure("writeSerialize") [| JavaSerialize::writeSerialize(d, fieldChunks) ]»
+            «measure("writeFoldedSerialize") [| JavaSerialize::writeFoldedSerialize(d) ]»
+            «measure("writeDeserialize") [| JavaDeserialize::writeDeserialize(d, fieldChunks) ]»
+            «IF d.isReuse»
+                «measure("writeReuse") [| JavaDeserialize::writeReuse(d, fieldChunks) ]»
+            «ENDIF»
+            «measure("writeValidationCode") [| JavaValidate::writeValidationCode(d, fieldChunks) ]»
+            «measure("writeHash") [| JavaCompare::writeHash(d) ]»
+            «measure("writeComparisonCode") [| JavaCompare::writeComparisonCode(d, fieldChunks) ]»
             «IF d.orderedByList !== null»
-                «JavaCompare::writeComparable(d)»
+                «measure("writeComparable") [| JavaCompare::writeComparable(d) ]»
             «ENDIF»
             «IF doExt»
-                «JavaExternalize::writeExternalize(d)»
+                «measure("writeExternalize") [| JavaExternalize::writeExternalize(d) ]»
+            «ENDIF»
+            «measure("writeHazelIO") [| JavaHazelSupport::writeHazelIO(d, doHazel) ]»
+            «measure("writeTreeWalkerCode") [| JavaTreeWalker::writeTreeWalkerCode(d) ]»
+            «IF BonScriptPreferences.currentPrefs.indexedAccess»
+                «measure("writeIndexedAccess") [| JavaIndexedAccess::writeIndexedAccess(d) ]»
+            «ENDIF»
+            «measure("writeSample") [| JavaSample::writeSample(d) ]»
+            «IF BonScriptPreferences.currentPrefs.estimatedSize»
+                «measure("writeEstimatedSize") [| JavaEstimatedSize::writeEstimatedSize(d) ]»
             «ENDIF»
-            «JavaHazelSupport::writeHazelIO(d, doHazel)»
-            «JavaTreeWalker::writeTreeWalkerCode(d)»
-            «JavaConstructor::writeConstructorCode(d)»
+            «measure("writeConstructorCode") [| JavaConstructor::writeConstructorCode(d) ]»
             «IF writeXmlAdapter»
-                «Jaxb::writeDefaultAdapter(d)»
+                «measure("writeDefaultAdapter") [| Jaxb::writeDefaultAdapter(d) ]»
             «ENDIF»
 
             «d.writeRef»
@@ -23,6 +23,7 @@ import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
 import de.jpaw.bonaparte.dsl.generator.DataCategory
 import org.apache.log4j.Logger
 import java.util.Map
+import java.util.List
 import de.jpaw.bonaparte.dsl.bonScript.XXmlAccess
 
 class JavaCompare {
@@ -140,7 +141,9 @@ class JavaCompare {
 
     def public static writeHash(FieldDefinition i, DataTypeExtension ref) {
         if (ref.isPrimitive) {
-            if (i.isArray !== null)
+            if (i.isPrimitiveList)
+                return '''(«i.name» == null ? 0 : «i.name».hashCode())'''  // value based, without boxing
+            else if (i.isArray !== null)
                 return '''(«i.name» == null ? 0 : Arrays.hashCode(«i.name»))'''
             else {
                 // isMap, isSet and isList cannot be true, they don't work with primitives...
@@ -150,6 +153,8 @@ class JavaCompare {
         } else {
             if (i.isArray !== null)
                 return '''(«i.name» == null ? 0 : Arrays.deepHashCode(«i.name»))'''
+            else if (i.isPrimitiveList)
+                return '''(«i.name» == null ? 0 : «i.name».hashCode())'''  // value based, without boxing
             else if (i.aggregate)
                 return '''(«i.name» == null ? 0 : «i.name».hashCode())'''  // List, Map and Set have a usable implementation
             else {
@@ -199,7 +204,18 @@ class JavaCompare {
 
         '''
 
-    def public static writeComparisonCode(ClassDefinition d) '''
+    def private static writeEqualsFields(ClassDefinition d, List<FieldDefinition> fields) '''
+        «FOR i:fields»
+            «IF i.aggregate»
+                && ((«i.name» == null && _that.«i.name» == null) || («i.name» != null && _that.«i.name» != null && xCompareSub$«i.name»(_that)))
+            «ELSE»
+                && «writeCompareStuff(i, i.name, "_that." + i.name, "")»
+            «ENDIF»
+        «ENDFOR»
+    '''
+
+    // chunks: the fields of this class, split into groups in order to avoid huge methods (see JavaMethodSplitter)
+    def public static writeComparisonCode(ClassDefinition d, List<List<FieldDefinition>> chunks) '''
         // see http://www.artima.com/lejava/articles/equality.html for all the pitfalls with equals()...
         @Override
         public boolean equals(Object _that) {
@@ -220,15 +236,25 @@ class JavaCompare {
             «ELSE»
                 return true
             «ENDIF»
-            «FOR i:d.fields»
-                «IF i.aggregate»
-                    && ((«i.name» == null && _that.«i.name» == null) || («i.name» != null && _that.«i.name» != null && xCompareSub$«i.name»(_that)))
-                «ELSE»
-                    && «writeCompareStuff(i, i.name, "_that." + i.name, "")»
-                «ENDIF»
-            «ENDFOR»
+            «IF chunks.size <= 1»
+                «d.writeEqualsFields(d.fields)»
+            «ELSE»
+                «FOR n : 0 ..< chunks.size»
+                    && equalsSub$«n»(_that)
+                «ENDFOR»
+            «ENDIF»
             ;
         }
+        «IF chunks.size > 1»
+            «FOR n : 0 ..< chunks.size»
+
+                private boolean equalsSub$«n»(«d.name»«genericDef2StringAsParams(d.genericParameters)» _that) {
+                    return true
+                    «d.writeEqualsFields(chunks.get(n))»
+                    ;
+                }
+            «ENDFOR»
+        «ENDIF»
         «FOR i:d.fields»
             «IF i.isArray !== null»
                 private boolean xCompareSub$«i.name»(«d.name»«genericDef2StringAsParams(d.genericParameters)» _that) {
@@ -241,7 +267,12 @@ class JavaCompare {
                     return true;
                 }
             «ENDIF»
-            «IF i.isList !== null»
+            «IF i.isPrimitiveList»
+                private boolean xCompareSub$«i.name»(«d.name»«genericDef2StringAsParams(d.genericParameters)» _that) {
+                    // both «i.name» and _that «i.name» are known to be not null
+                    return «i.name».equals(_that.«i.name»);   // value based comparison of the primitive elements, consistent with hashCode()
+                }
+            «ELSEIF i.isList !== null»
                 private boolean xCompareSub$«i.name»(«d.name»«genericDef2StringAsParams(d.genericParameters)» _that) {
                     // both «i.name» and _that «i.name» are known to be not null
                     if («i.name».size() != _that.«i.name».size())
@@ -20,10 +20,10 @@ import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
 import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.generator.Delimiter
 import de.jpaw.bonaparte.dsl.generator.Generics
+import de.jpaw.bonaparte.dsl.generator.ModelIndex
 
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 import java.util.List
-import java.util.ArrayList
 
 /* DISCLAIMER: Validation is work in progress. Neither direct validation nor JSR 303 annotations are complete */
 
@@ -55,22 +55,12 @@ class JavaConstructor {
     '''
 
     def private static int countAllFields(ClassDefinition d, boolean onlyRequired) {
-        var int sum = if (onlyRequired)
-            d.fields.filter[cannotBeNull].size
-        else
-            d.fields.size
-        if (d.extendsClass !== null && d.extendsClass.classRef !== null)
-            sum = sum + countAllFields(d.extendsClass.classRef, onlyRequired)
-        return sum
+        val info = ModelIndex::get(d)
+        return if (onlyRequired) info.requiredFieldCount else info.allFields.size
     }
 
     def public static List<FieldDefinition> fieldsOfMeAndSuperClasses(ClassDefinition d) {
-        if (d.extendsClass?.classRef === null)
-            return d.fields
-        val result = new ArrayList<FieldDefinition>()
-        result.addAll(d.extendsClass?.classRef.fieldsOfMeAndSuperClasses)
-        result.addAll(d.fields)
-        return result
+        return ModelIndex::get(d).allFields
     }
 
     def public static writeConstructorCode(ClassDefinition d) '''
@@ -21,6 +21,7 @@ import de.jpaw.bonaparte.dsl.bonScript.ClassReference
 import de.jpaw.bonaparte.dsl.bonScript.ElementaryDataType
 import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import java.util.List
 
 import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
 
@@ -128,81 +129,225 @@ class JavaDeserialize {
         makeRead2(d, i, null)
     }
 
-    def public static writeDeserialize(ClassDefinition d) '''
+    // reuse: refill existing collections instead of allocating new ones (object reuse mode)
+    def public static writeDeserializeFields(ClassDefinition d, List<FieldDefinition> fields, boolean reuse) '''
+        «FOR i:fields»
+            «IF (resolveElem(i.datatype) !== null) && (resolveElem(i.datatype).enumType !== null || resolveElem(i.datatype).xenumType !== null)»
+                try {  // for possible enum factory Exceptions
+            «ENDIF»
+            «IF i.isArray !== null»
+                _length = _p.parseArrayStart(meta$$«i.name», 0);
+                if (_length < 0) {
+                    «i.name» = null;
+                } else {
+                    «IF reuse && i.isArray.maxcount <= 0»
+                        if («i.name» == null || «i.name».length != _length)
+                    «ENDIF»
+                    «IF resolveElem(i.datatype) !== null && getJavaDataType(i.datatype).equals("byte []")»
+                        «i.name» = new byte [«if (i.isArray.maxcount > 0) i.isArray.maxcount else "_length"»][];  // Java weirdness: dimension swapped to first pair of brackets!
+                    «ELSE»
+                        «i.name» = new «if (resolveElem(i.datatype) !== null) getJavaDataType(i.datatype) else DataTypeExtension::get(i.datatype).javaType»[«if (i.isArray.maxcount > 0) i.isArray.maxcount else "_length"»];
+                    «ENDIF»
+                    for (int _i = 0; _i < _length; ++_i)
+                        «i.name»[_i] = «makeRead2(d, i)»;
+                    _p.parseArrayEnd();
+                }
+            «ELSEIF i.isPrimitiveList»
+                _length = _p.parseArrayStart(meta$$«i.name», 0);
+                if (_length < 0) {
+                    «i.name» = null;
+                } else {
+                    final «i.primitiveListType».Builder _b = «i.primitiveListType».builder(_length);
+                    for (int _i = 0; _i < _length; ++_i)
+                        _b.add(_p.«i.primitiveListReader»(meta$$«i.name»));
+                    «i.name» = _b.build();
+                    _p.parseArrayEnd();
+                }
+            «ELSEIF i.isList !== null»
+                _length = _p.parseArrayStart(meta$$«i.name», 0);
+                if (_length < 0) {
+                    «i.name» = null;
+                } else {
+                    «IF reuse»
+                        if («i.name» instanceof ArrayList)
+                            «i.name».clear();     // other implementations may be immutable
+                        else
+                            «i.name» = new ArrayList<«JavaDataTypeNoName(i, true)»>(_length);
+                    «ELSE»
+                        «i.name» = new ArrayList<«JavaDataTypeNoName(i, true)»>(_length);
+                    «ENDIF»
+                    for (int _i = 0; _i < _length; ++_i)
+                        «i.name».add(«makeRead2(d, i)»);
+                    _p.parseArrayEnd();
+                }
+            «ELSEIF i.isSet !== null»
+                _length = _p.parseArrayStart(meta$$«i.name», 0);
+                if (_length < 0) {
+                    «i.name» = null;
+                } else {
+                    «IF reuse»
+                        if («i.name» instanceof HashSet)
+                            «i.name».clear();     // other implementations may be immutable
+                        else
+                            «i.name» = new HashSet<«JavaDataTypeNoName(i, true)»>(_length);
+                    «ELSE»
+                        «i.name» = new HashSet<«JavaDataTypeNoName(i, true)»>(_length);
+                    «ENDIF»
+                    for (int _i = 0; _i < _length; ++_i)
+                        «i.name».add(«makeRead2(d, i)»);
+                    _p.parseArrayEnd();
+                }
+            «ELSEIF i.isMap !== null»
+                _length = _p.parseMapStart(meta$$«i.name»);
+                if (_length < 0) {
+                    «i.name» = null;
+                } else {
+                    «IF reuse»
+                        if («i.name» instanceof HashMap)
+                            «i.name».clear();     // other implementations may be immutable
+                        else
+                            «i.name» = new HashMap<«i.isMap.indexType», «JavaDataTypeNoName(i, true)»>(_length);
+                    «ELSE»
+                        «i.name» = new HashMap<«i.isMap.indexType», «JavaDataTypeNoName(i, true)»>(_length);
+                    «ENDIF»
+                    for (int _i = 0; _i < _length; ++_i) {
+                        «IF i.isMap.indexType == "String"»
+                            «i.isMap.indexType» _key = _p.readString(StaticMeta.MAP_INDEX_META_STRING);
+                        «ELSE»
+                            «i.isMap.indexType» _key = _p.read«i.isMap.indexType»(StaticMeta.MAP_INDEX_META_«i.isMap.indexType.toUpperCase»);
+                        «ENDIF»
+                        «i.name».put(_key, «makeRead2(d, i)»);
+                    }
+                    _p.parseArrayEnd();
+                }
+            «ELSE»
+                «i.name» = «makeRead2(d, i)»;
+            «ENDIF»
+            «IF (resolveElem(i.datatype) !== null) && (resolveElem(i.datatype).enumType !== null || resolveElem(i.datatype).xenumType !== null)»
+                 } catch (IllegalArgumentException e) {
+                     // convert type of exception to the only one allowed (as indicated by interface generics parameter).
+                     // Enrich with additional data useful to locate the error, if exception type allows.
+                     throw _p.enumExceptionConverter(e);
+                 }
+            «ENDIF»
+        «ENDFOR»
+    '''
+
+    // chunks: the fields of this class, split into groups in order to avoid huge methods (see JavaMethodSplitter)
+    def public static writeDeserialize(ClassDefinition d, List<List<FieldDefinition>> chunks) '''
             @Override
             public <_E extends Exception> void deserialize(MessageParser<_E> _p) throws _E {
-                int _length;
+                «IF chunks.size <= 1»
+                    int _length;
+                «ENDIF»
                 «IF d.extendsClass !== null»
                     super.deserialize(_p);
                     _p.eatParentSeparator();
                 «ENDIF»
                 _p.setClassName(_PARTIALLY_QUALIFIED_CLASS_NAME);  // just for debug info
-                «FOR i:d.fields»
-                    «IF (resolveElem(i.datatype) !== null) && (resolveElem(i.datatype).enumType !== null || resolveElem(i.datatype).xenumType !== null)»
-                        try {  // for possible enum factory Exceptions
-                    «ENDIF»
-                    «IF i.isArray !== null»
-                        _length = _p.parseArrayStart(meta$$«i.name», 0);
-                        if (_length < 0) {
-                            «i.name» = null;
-                        } else {
-                            «IF resolveElem(i.datatype) !== null && getJavaDataType(i.datatype).equals("byte []")»
-                                «i.name» = new byte [«if (i.isArray.maxcount > 0) i.isArray.maxcount else "_length"»][];  // Java weirdness: dimension swapped to first pair of brackets!
-                            «ELSE»
-                                «i.name» = new «if (resolveElem(i.datatype) !== null) getJavaDataType(i.datatype) else DataTypeExtension::get(i.datatype).javaType»[«if (i.isArray.maxcount > 0) i.isArray.maxcount else "_length"»];
-                            «ENDIF»
-                            for (int _i = 0; _i < _length; ++_i)
-                                «i.name»[_i] = «makeRead2(d, i)»;
-                            _p.parseArrayEnd();
-                        }
-                    «ELSEIF i.isList !== null»
-                        _length = _p.parseArrayStart(meta$$«i.name», 0);
-                        if (_length < 0) {
-                            «i.name» = null;
-                        } else {
-                            «i.name» = new ArrayList<«JavaDataTypeNoName(i, true)»>(_length);
-                            for (int _i = 0; _i < _length; ++_i)
-                                «i.name».add(«makeRead2(d, i)»);
-                            _p.parseArrayEnd();
-                        }
-                    «ELSEIF i.isSet !== null»
-                        _length = _p.parseArrayStart(meta$$«i.name», 0);
-                        if (_length < 0) {
-                            «i.name» = null;
-                        } else {
-                            «i.name» = new HashSet<«JavaDataTypeNoName(i, true)»>(_length);
-                            for (int _i = 0; _i < _length; ++_i)
-                                «i.name».add(«makeRead2(d, i)»);
-                            _p.parseArrayEnd();
-                        }
-                    «ELSEIF i.isMap !== null»
-                        _length = _p.parseMapStart(meta$$«i.name»);
-                        if (_length < 0) {
-                            «i.name» = null;
-                        } else {
-                            «i.name» = new HashMap<«i.isMap.indexType», «JavaDataTypeNoName(i, true)»>(_length);
-                            for (int _i = 0; _i < _length; ++_i) {
-                                «IF i.isMap.indexType == "String"»
-                                    «i.isMap.indexType» _key = _p.readString(StaticMeta.MAP_INDEX_META_STRING);
-                                «ELSE»
-                                    «i.isMap.indexType» _key = _p.read«i.isMap.indexType»(StaticMeta.MAP_INDEX_META_«i.isMap.indexType.toUpperCase»);
-                                «ENDIF»
-                                «i.name».put(_key, «makeRead2(d, i)»);
-                            }
-                            _p.parseArrayEnd();
-                        }
-                    «ELSE»
-                        «i.name» = «makeRead2(d, i)»;
-                    «ENDIF»
-                    «IF (resolveElem(i.datatype) !== null) && (resolveElem(i.datatype).enumType !== null || resolveElem(i.datatype).xenumType !== null)»
-                         } catch (IllegalArgumentException e) {
-                             // convert type of exception to the only one allowed (as indicated by interface generics parameter).
-                             // Enrich with additional data useful to locate the error, if exception type allows.
-                             throw _p.enumExceptionConverter(e);
-                         }
-                    «ENDIF»
-                «ENDFOR»
+                «IF chunks.size <= 1»
+                    «d.writeDeserializeFields(d.fields, false)»
+                «ELSE»
+                    «FOR n : 0 ..< chunks.size»
+                        deserialize$«n»(_p);
+                    «ENDFOR»
+                «ENDIF»
             }
+            «IF chunks.size > 1»
+                «FOR n : 0 ..< chunks.size»
+
+                    private <_E extends Exception> void deserialize$«n»(MessageParser<_E> _p) throws _E {
+                        int _length;
+                        «d.writeDeserializeFields(chunks.get(n), false)»
+                    }
+                «ENDFOR»
+            «ENDIF»
     '''
 
+
+    // the collection type which is created by deserialize(). Other implementations (for example immutable ones) are not cleared in reuse mode
+    def private static mutableCollectionType(FieldDefinition i) {
+        if (i.isList !== null)
+            return "ArrayList"
+        if (i.isSet !== null)
+            return "HashSet"
+        return "HashMap"
+    }
+
+    def private static writeResetField(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        if (i.isPrimitiveList)
+            return '''«i.name» = null;'''     // immutable container, cannot be cleared
+        if (i.isList !== null || i.isSet !== null || i.isMap !== null)
+            return '''
+                if («i.name» instanceof «i.mutableCollectionType»)
+                    «i.name».clear();
+                else
+                    «i.name» = null;     // may be immutable
+            '''
+        val defaultValue = JavaFieldsGettersSetters.writeDefaultValue(i, ref, i.aggregate).toString
+        if (defaultValue.length > 0)
+            return '''«i.name»«defaultValue»;'''
+        if (ref.isPrimitive && !i.aggregate)
+            return '''«i.name» = «IF ref.javaType == "boolean"»false«ELSE»0«ENDIF»;'''
+        return '''«i.name» = null;'''
+    }
+
+    // object reuse mode: reset() and deserializeInto(), which refill the existing instance and its collections
+    def public static writeReuse(ClassDefinition d, List<List<FieldDefinition>> chunks) '''
+
+        /** Resets all fields of this instance to their initial values, in order to reuse it for a subsequent deserializeInto().
+         * Lists, Sets and Maps of the types created by deserialize() are cleared, but kept, in order to retain their capacity. Other collections
+         * (which may be immutable) are set to null.
+         */
+        «IF d.extendsClass !== null»
+        @Override
+        «ENDIF»
+        public void reset() {
+            «IF d.extendsClass !== null»
+                super.reset();
+            «ELSE»
+                verify$Not$Frozen();
+            «ENDIF»
+            «FOR i:d.fields»
+                «i.writeResetField»
+            «ENDFOR»
+        }
+
+        /** Deserializes the next object into this instance. Other than deserialize(), existing ArrayLists, HashSets, HashMaps and arrays of matching size
+         * are refilled instead of allocating new ones. Other collections, for example immutable ones, are replaced.
+         * Nested objects are still provided by the parser.
+         */
+        «IF d.extendsClass !== null»
+        @Override
+        «ENDIF»
+        public <_E extends Exception> void deserializeInto(MessageParser<_E> _p) throws _E {
+            «IF chunks.size <= 1»
+                int _length;
+            «ENDIF»
+            «IF d.extendsClass !== null»
+                super.deserializeInto(_p);
+                _p.eatParentSeparator();
+            «ELSE»
+                verify$Not$Frozen();
+            «ENDIF»
+            _p.setClassName(_PARTIALLY_QUALIFIED_CLASS_NAME);  // just for debug info
+            «IF chunks.size <= 1»
+                «d.writeDeserializeFields(d.fields, true)»
+            «ELSE»
+                «FOR n : 0 ..< chunks.size»
+                    deserializeInto$«n»(_p);
+                «ENDFOR»
+            «ENDIF»
+        }
+        «IF chunks.size > 1»
+            «FOR n : 0 ..< chunks.size»
+
+                private <_E extends Exception> void deserializeInto$«n»(MessageParser<_E> _p) throws _E {
+                    int _length;
+                    «d.writeDeserializeFields(chunks.get(n), true)»
+                }
+            «ENDFOR»
+        «ENDIF»
+    '''
 }
@@ -16,9 +16,12 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.bonScript.EnumAlphaValueDefinition
 import de.jpaw.bonaparte.dsl.bonScript.EnumDefinition
 import de.jpaw.bonaparte.dsl.bonScript.PackageDefinition
 import de.jpaw.bonaparte.dsl.BonScriptPreferences
+import de.jpaw.bonaparte.dsl.generator.TokenDecisionTree
+import java.util.List
 
 import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
 
@@ -54,6 +57,9 @@ class JavaEnum {
         import de.jpaw.bonaparte.enums.«myInterface»;
         import de.jpaw.util.EnumIterator;
         import java.util.Iterator;
+        «IF BonScriptPreferences.withSamples»
+            import java.util.SplittableRandom;
+        «ENDIF»
 
         «d.javadoc»
         «IF d.isDeprecated || (d.eContainer as PackageDefinition).isDeprecated»
@@ -99,6 +105,8 @@ class JavaEnum {
                     return null;
                 }
 
+                «d.writeTokenLookup»
+
                 // static method to return the instance with the null token, or null if no such exists
                 public static «d.name» getNullToken() {
                     return «d.avalues.findFirst[token == ""]?.name ?: "null"»;
@@ -130,6 +138,12 @@ class JavaEnum {
                     throw new IllegalArgumentException("Enum «d.name» has no instance for ordinal " + Integer.toString(_ord));
                 return _ALL_VALUES[_ord];
             }
+            «IF BonScriptPreferences.withSamples»
+                /** Returns a random instance, for test data generation. */
+                public static «d.name» ret$Sample(SplittableRandom _rnd) {
+                    return _ALL_VALUES[_rnd.nextInt(_ALL_VALUES.length)];
+                }
+            «ENDIF»
             /** Returns an iterator which traverses all enum instances. */
             public static Iterator<«d.name»> iterator() {
                 return new EnumIterator<«d.name»>(_ALL_VALUES);
@@ -149,6 +163,98 @@ class JavaEnum {
         '''
     }
 
+    // a character constant, for comparisons and case labels
+    def private static charConstant(char c) {
+        if (Character.isLetterOrDigit(c) && c < 0x80)
+            return "'" + c + "'"
+        return "0x" + Integer.toHexString(c)
+    }
+
+    /** Writes a node of the decision tree over tokens of identical length (see TokenDecisionTree).
+     * charAt is the expression to read a character, with %d as placeholder for the position.
+     * Returns a pair of the code and a flag which is true if the code always returns.
+     */
+    def private static Pair<CharSequence, Boolean> decide(TokenDecisionTree.Node node, List<EnumAlphaValueDefinition> values, String charAt) {
+        if (node.isLeaf) {
+            val v = values.get(node.token)
+            if (node.remaining.empty)
+                return '''return «v.name»;''' -> true
+            return '''
+                if («node.remaining.map[String.format(charAt, it) + " == " + v.token.charAt(it).charConstant].join(" && ")»)
+                    return «v.name»;
+            ''' -> false
+        }
+        return '''
+            switch («String.format(charAt, node.position)») {
+            «FOR b : node.branches.entrySet»
+                case «b.key.charValue.charConstant»:
+                    «caseBody(decide(b.value, values, charAt))»
+            «ENDFOR»
+            }
+        ''' -> false
+    }
+
+    def private static caseBody(Pair<CharSequence, Boolean> sub) '''
+        «sub.key»
+        «IF !sub.value»
+            break;
+        «ENDIF»
+    '''
+
+    def private static writeLengthSwitch(EnumDefinition d, String lengthExpr, String charAt) {
+        val trees = TokenDecisionTree::build(d.avalues.map[token])
+        return '''
+            switch («lengthExpr») {
+            «FOR t : trees.entrySet»
+                case «t.key»:
+                    «caseBody(decide(t.value, d.avalues, charAt))»
+            «ENDFOR»
+            }
+            return null;
+        '''
+    }
+
+    // token lookup without a String instance. Tokens are compared by a decision tree on length and characters, as generated by decide()
+    def private static writeTokenLookup(EnumDefinition d) {
+        val isAscii = d.avalues.forall[token.chars.allMatch[it < 0x80]]
+        return '''
+            /** Returns the instance for a token, or null if the token is null or unknown. Does not require a String. */
+            public static «d.name» lookup(CharSequence _token) {
+                if (_token == null)
+                    return null;
+                «d.writeLengthSwitch("_token.length()", "_token.charAt(%d)")»
+            }
+
+            /** Returns the instance for a token provided as UTF-8 bytes, or null if the token is unknown. */
+            public static «d.name» lookup(byte [] _buf, int _off, int _len) {
+                «IF isAscii»
+                    «d.writeLengthSwitch("_len", "_buf[_off + %d]")»
+                «ELSE»
+                    return lookup(new String(_buf, _off, _len, java.nio.charset.StandardCharsets.UTF_8));
+                «ENDIF»
+            }
+
+            /** Factory method for tokens which are not available as String, for example in a parser buffer.
+              * Null is passed through, a non-null parameter will return a non-null response. */
+            public static «d.name» factory(CharSequence _token) {
+                if (_token == null)
+                    return null;
+                final «d.name» _result = lookup(_token);
+                if (_result == null)
+                    throw new IllegalArgumentException("Enum «d.name» has no token " + _token + "!");
+                return _result;
+            }
+
+            /** Factory method for tokens provided as UTF-8 bytes. Returns a non-null response. */
+            public static «d.name» factory(byte [] _buf, int _off, int _len) {
+                final «d.name» _result = lookup(_buf, _off, _len);
+                if (_result == null)
+                    throw new IllegalArgumentException("Enum «d.name» has no token " + new String(_buf, _off, _len, java.nio.charset.StandardCharsets.UTF_8) + "!");
+                return _result;
+            }
+        '''
+    }
+
     def private static writeEnumMetaData(EnumDefinition d) {
         val isAlphaEnum = d.isAlphaEnum
         val myPackage = d.package
@@ -16,6 +16,7 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.bonScript.EnumSetDefinition
 import de.jpaw.bonaparte.dsl.bonScript.PackageDefinition
 
@@ -42,6 +43,10 @@ class JavaEnumSet {
         package «getBonPackageName(d)»;
 
         import java.util.Iterator;
+        «IF BonScriptPreferences.withSamples»
+            import java.util.Arrays;
+            import java.util.SplittableRandom;
+        «ENDIF»
         import «timePackage».Instant;
 
         import de.jpaw.enums.Abstract«nameComponent»EnumSet;
@@ -97,6 +102,18 @@ class JavaEnumSet {
                 return _bitmap == null ? null : new «d.name»(_bitmap);
             }
 
+            «IF BonScriptPreferences.withSamples»
+                /** Returns a set with a random selection of instances, for test data generation. */
+                public static «d.name» ret$Sample(SplittableRandom _rnd) {
+                    final «eName» [] _chosen = new «eName» [NUMBER_OF_INSTANCES];
+                    int _n = 0;
+                    for («eName» _e : VALUES)
+                        if (_rnd.nextBoolean())
+                            _chosen[_n++] = _e;
+                    return ofTokens(Arrays.copyOf(_chosen, _n));
+                }
+            «ENDIF»
+
             @Override
             public «d.name» ret$MutableClone(boolean deepCopy, boolean unfreezeCollections) {
                 return new «d.name»(getBitmap());
@@ -0,0 +1,170 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import de.jpaw.bonaparte.dsl.generator.DataCategory
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Creates ret$EstimatedSize(boolean compact), which estimates the number of bytes which the serialized form of an object occupies,
+ * in the text format (StringBuilderComposer / ByteArrayComposer) or in the compact binary format (CompactByteArrayComposer).
+ * Fields of fixed size contribute a constant computed from the field definition, strings, binary data, aggregates and nested objects
+ * are evaluated at runtime. The estimate is intended to be an upper bound for typical data, in order to size composer buffers once.
+ */
+class JavaEstimatedSize {
+    static final int NULL_SIZE = 1                  // null field: one character or byte
+    static final int UNKNOWN_SIZE = 64              // for types which provide no size information (JSON, generic objects, external types)
+    static final int AGGREGATE_OVERHEAD = 8         // start, count and end of an aggregate
+
+    /** Returns the size of a non-null value including the field terminator (text format), or -1 if the size depends on the value. */
+    def private static int fixedSize(DataTypeExtension ref, boolean compact) {
+        val e = ref.elementaryDataType
+        if (e === null)
+            return -1
+        switch (ref.category) {
+        case DataCategory.ENUM:         return if (compact) 2 else 4        // the ordinal
+        case DataCategory.ENUMALPHA:    return ref.enumMaxTokenLength + (if (compact) 3 else 1)
+        case DataCategory.XENUM:        return ref.enumMaxTokenLength + (if (compact) 3 else 1)
+        case DataCategory.ENUMSET:      return if (compact) 9 else 21       // numeric bitmap, or token string of moderate size
+        case DataCategory.XENUMSET:     return e.length + (if (compact) 3 else 1)
+        default: {}
+        }
+        switch (e.name.toLowerCase) {
+        case 'boolean':     if (compact) 1 else 2
+        case 'byte':        if (compact) 2 else 5
+        case 'short':       if (compact) 3 else 7
+        case 'int':         if (compact) 5 else 12
+        case 'integer':     if (compact) 5 else 12
+        case 'long':        if (compact) 9 else 21
+        case 'char':        if (compact) 3 else 4
+        case 'character':   if (compact) 3 else 4
+        case 'float':       if (compact) 5 else 16
+        case 'double':      if (compact) 9 else 25
+        case 'number':      if (compact) e.length / 2 + 3 else e.length + 2
+        case 'decimal':     if (compact) e.length / 2 + 4 else e.length + 3
+        case 'fixedpoint':  if (compact) 9 else e.length + 3
+        case 'uuid':        if (compact) 17 else 37
+        case 'day':         if (compact) 5 else 9
+        case 'time':        if (compact) 6 else 13
+        case 'timestamp':   if (compact) 11 else 22
+        case 'instant':     if (compact) 11 else 21
+        default:            -1
+        }
+    }
+
+    /** Returns an expression for the size of a non-null value of variable size. */
+    def private static CharSequence variableSize(DataTypeExtension ref, String v, boolean compact) {
+        val e = ref.elementaryDataType
+        if (ref.category == DataCategory.OBJECT) {
+            if (ref.objectDataType !== null && ref.objectDataType.externalType === null && ref.genericsRef === null && !ref.isJsonField)
+                return '''«v».ret$EstimatedSize(«compact»)'''
+            return '''«UNKNOWN_SIZE»'''
+        }
+        val factor = if (e?.name?.toLowerCase == "unicode") 3 else 1      // UTF-8 upper bound
+        switch (ref.javaType) {
+        case "String":      '''«IF factor > 1»«factor» * «ENDIF»«v».length() + «IF compact»3«ELSE»1«ENDIF»'''
+        case "byte []":     if (compact) '''«v».length + 5''' else '''(«v».length + 2) / 3 * 4 + 1'''      // base64 in text format
+        case "ByteArray":   if (compact) '''«v».length() + 5''' else '''(«v».length() + 2) / 3 * 4 + 1'''
+        default:            '''«UNKNOWN_SIZE»'''
+        }
+    }
+
+    // size of a map key, which is never null
+    def private static CharSequence keySize(FieldDefinition i, String k, boolean compact) {
+        switch (i.isMap.indexType) {
+        case "String":  '''«k».length() + «IF compact»3«ELSE»1«ENDIF»'''
+        case "Integer": '''«IF compact»5«ELSE»12«ENDIF»'''
+        default:        '''«IF compact»9«ELSE»21«ENDIF»'''
+        }
+    }
+
+    def private static CharSequence elementSize(DataTypeExtension ref, String v, boolean compact) {
+        val fixed = ref.fixedSize(compact)
+        if (fixed >= 0)
+            return if (ref.isPrimitive) '''«fixed»''' else '''(«v» == null ? «NULL_SIZE» : «fixed»)'''
+        return '''(«v» == null ? «NULL_SIZE» : «variableSize(ref, v, compact)»)'''
+    }
+
+    def private static writeFieldSize(FieldDefinition i, boolean compact) {
+        val ref = DataTypeExtension::get(i.datatype)
+        if (!i.aggregate)
+            return '''_size += «elementSize(ref, i.name, compact)»;'''
+        val fixed = ref.fixedSize(compact)
+        return '''
+            if («i.name» == null) {
+                _size += «NULL_SIZE»;
+            } else {
+                _size += «AGGREGATE_OVERHEAD»;
+                «IF i.isMap !== null»
+                    for (Map.Entry<«i.isMap.indexType», «JavaDataTypeNoName(i, true)»> _e : «i.name».entrySet())
+                        _size += «keySize(i, "_e.getKey()", compact)» + «elementSize(ref, "_e.getValue()", compact)»;
+                «ELSEIF fixed >= 0»
+                    _size += «i.name».«IF i.isArray !== null»length«ELSEIF i.isPrimitiveList»length()«ELSE»size()«ENDIF» * «fixed»;
+                «ELSE»
+                    for («JavaDataTypeNoName(i, true)» _e : «i.name»)
+                        _size += «elementSize(ref, "_e", compact)»;
+                «ENDIF»
+            }
+        '''
+    }
+
+    // the fields of fixed size are summed up at generation time
+    def private static writeClassSize(ClassDefinition d, boolean compact) {
+        var int constant = if (compact) 0 else 1     // parent separator
+        for (i : d.fields) {
+            if (!i.aggregate) {
+                val ref = DataTypeExtension::get(i.datatype)
+                val fixed = ref.fixedSize(compact)
+                if (fixed >= 0)
+                    constant = constant + fixed
+            }
+        }
+        val fixedSum = constant
+        return '''
+            _size += «fixedSum»;     // fields of fixed size
+            «FOR i : d.fields.filter[aggregate || DataTypeExtension::get(datatype).fixedSize(compact) < 0]»
+                «i.writeFieldSize(compact)»
+            «ENDFOR»
+        '''
+    }
+
+    def static writeEstimatedSize(ClassDefinition d) '''
+
+        /** Returns an estimate of the number of bytes of the serialized form of this object, including superclass fields and nested objects.
+         * The estimate refers to the compact binary format if _compact is true, else to the text format. It can be used to size composer buffers.
+         */
+        «IF d.extendsClass !== null»
+        @Override
+        «ENDIF»
+        public int ret$EstimatedSize(boolean _compact) {
+            «IF d.extendsClass !== null»
+                int _size = super.ret$EstimatedSize(_compact);
+            «ELSE»
+                int _size = ret$PQON().length() + (_compact ? 4 : 8);  // object header
+            «ENDIF»
+            if (_compact) {
+                «d.writeClassSize(true)»
+            } else {
+                «d.writeClassSize(false)»
+            }
+            return _size;
+        }
+    '''
+}
@@ -16,10 +16,35 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
-import static de.jpaw.bonaparte.dsl.generator.XUtil.*
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import de.jpaw.bonaparte.dsl.bonScript.XExternalizable
+import de.jpaw.bonaparte.dsl.generator.DataCategory
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import java.util.Map
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 
 class JavaExternalize {
+    // the suffix of the ObjectOutput / ObjectInput methods, by java wrapper type
+    static final Map<String, String> IO_SUFFIX = #{
+        "Boolean"   -> "Boolean",
+        "Byte"      -> "Byte",
+        "Short"     -> "Short",
+        "Character" -> "Char",
+        "Integer"   -> "Int",
+        "Long"      -> "Long",
+        "Float"     -> "Float",
+        "Double"    -> "Double"
+    }
+
+    /** Determines if a class is Externalizable: class setting, package setting, then preferences. */
+    def public static boolean doExternalize(ClassDefinition d) {
+        val XExternalizable t = d.isExternalizable?.x ?: getPackage(d).isExternalizable?.x ?: BonScriptPreferences.getExternalizable
+        return t !== null && t != XExternalizable::NOEXT
+    }
+
     def public static writeExternalizeImports() '''
         import java.io.Externalizable;
         import java.io.IOException;
@@ -30,15 +55,221 @@ class JavaExternalize {
         import «bonaparteInterfacesPackage».ExternalizableParser;
     '''
 
-    def public static writeExternalize(ClassDefinition d) '''
-        @Override
-        public void writeExternal(ObjectOutput _out) throws IOException {
-            ExternalizableComposer.serialize(this, _out);
+    // true for elementary types which are stored by a java.time class
+    def private static boolean isJavaTime(DataTypeExtension ref, String type) {
+        return BonScriptPreferences.currentPrefs.doDateTime && ref.elementaryDataType?.name?.toLowerCase == type
+    }
+
+    /** Returns the statements to write a single value, or null if the type is not supported by direct IO. */
+    def private static CharSequence writeValue(String v, DataTypeExtension ref) {
+        if (ref.isPrimitive)
+            return '''_out.write«IO_SUFFIX.get(ref.javaType)»(«v»);'''
+        if (ref.isWrapper)
+            return '''
+                _out.writeBoolean(«v» != null);
+                if («v» != null)
+                    _out.write«IO_SUFFIX.get(ref.javaType)»(«v»);
+            '''
+        if (ref.category == DataCategory.STRING && ref.javaType == "String")
+            return '''ext$WriteString(_out, «v»);'''
+        if (ref.category == DataCategory.OBJECT)
+            return if (ref.objectDataType?.externalType === null) '''_out.writeObject(«v»);'''
+        if (ref.javaType == "byte []" || ref.javaType == "BigDecimal" || ref.javaType == "BigInteger")
+            return '''_out.writeObject(«v»);'''
+        val nullable = if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA) '''_out.writeInt(«v».ordinal());'''
+            else if (ref.isFixedPointType) '''_out.writeLong(«v».getMantissa());'''
+            else if (ref.javaType == "UUID") '''
+                _out.writeLong(«v».getMostSignificantBits());
+                _out.writeLong(«v».getLeastSignificantBits());'''
+            else if (ref.isJavaTime("day")) '''_out.writeLong(«v».toEpochDay());'''
+            else if (ref.isJavaTime("timestamp")) '''
+                _out.writeLong(«v».toEpochSecond(java.time.ZoneOffset.UTC));
+                _out.writeInt(«v».getNano());'''
+            else if (ref.isJavaTime("instant")) '''
+                _out.writeLong(«v».getEpochSecond());
+                _out.writeInt(«v».getNano());'''
+        if (nullable === null)
+            return null
+        return '''
+            _out.writeBoolean(«v» != null);
+            if («v» != null) {
+                «nullable»
+            }
+        '''
+    }
+
+    /** Returns an expression which reads a single value, for all types supported by writeValue. elementType is the java type of the value. */
+    def private static CharSequence readValue(DataTypeExtension ref, String elementType) {
+        if (ref.isPrimitive)
+            return '''_in.read«IO_SUFFIX.get(ref.javaType)»()'''
+        if (ref.isWrapper)
+            return '''(_in.readBoolean() ? _in.read«IO_SUFFIX.get(ref.javaType)»() : null)'''
+        if (ref.category == DataCategory.STRING && ref.javaType == "String")
+            return '''ext$ReadString(_in)'''
+        if (ref.category == DataCategory.OBJECT || ref.javaType == "byte []" || ref.javaType == "BigDecimal" || ref.javaType == "BigInteger")
+            return '''(«elementType»)_in.readObject()'''
+        val value = if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA) '''«ref.javaType».valueOf(_in.readInt())'''
+            else if (ref.isFixedPointType) '''«ref.javaType».of(_in.readLong())'''
+            else if (ref.javaType == "UUID") '''new UUID(_in.readLong(), _in.readLong())'''
+            else if (ref.isJavaTime("day")) '''LocalDate.ofEpochDay(_in.readLong())'''
+            else if (ref.isJavaTime("timestamp")) '''LocalDateTime.ofEpochSecond(_in.readLong(), _in.readInt(), java.time.ZoneOffset.UTC)'''
+            else if (ref.isJavaTime("instant")) '''Instant.ofEpochSecond(_in.readLong(), _in.readInt())'''
+        return '''(_in.readBoolean() ? «value» : null)'''
+    }
+
+    def private static writeKey(FieldDefinition i, String k) {
+        switch (i.isMap.indexType) {
+            case "String":  '''ext$WriteString(_out, «k»);'''
+            case "Integer": '''_out.writeInt(«k»);'''
+            default:        '''_out.writeLong(«k»);'''
         }
-        @Override
-        public void readExternal(ObjectInput _in) throws IOException, ClassNotFoundException {
-            ExternalizableParser.deserialize(this, _in);
+    }
+
+    def private static readKey(FieldDefinition i) {
+        switch (i.isMap.indexType) {
+            case "String":  '''ext$ReadString(_in)'''
+            case "Integer": '''_in.readInt()'''
+            default:        '''_in.readLong()'''
         }
+    }
+
+    /** Returns true if the field can be written by generated code. Primitive lists, xenums, enumsets, binary and json types use the generic composer. */
+    def private static boolean isSupported(FieldDefinition i) {
+        return !i.isPrimitiveList && writeValue("_v", DataTypeExtension::get(i.datatype)) !== null
+    }
+
+    /** Returns true if writeExternal / readExternal are generated field by field. This requires the same for the superclass, because the methods delegate to it.
+     * The byte layout differs from the one of ExternalizableComposer, therefore it must be enabled by the preference ExternalizeDirectIO. */
+    def public static boolean isDirectExternalizable(ClassDefinition d) {
+        if (!BonScriptPreferences.currentPrefs.externalizeDirectIO || !d.doExternalize)
+            return false
+        if (d.parent !== null && !d.parent.isDirectExternalizable)
+            return false
+        return d.fields.forall[isSupported]
+    }
+
+    def private static writeExternalField(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        if (!i.isAggregate)
+            return writeValue(i.name, ref)
+        return '''
+            if («i.name» == null) {
+                _out.writeInt(-1);
+            } else {
+                «IF i.isArray !== null»
+                    _out.writeInt(«i.name».length);
+                    for (int _i = 0; _i < «i.name».length; ++_i) {
+                        «writeValue(i.name + "[_i]", ref)»
+                    }
+                «ELSEIF i.isMap !== null»
+                    _out.writeInt(«i.name».size());
+                    for (Map.Entry<«i.isMap.indexType», «JavaDataTypeNoName(i, true)»> _i : «i.name».entrySet()) {
+                        «i.writeKey("_i.getKey()")»
+                        «writeValue("_i.getValue()", ref)»
+                    }
+                «ELSE»
+                    _out.writeInt(«i.name».size());
+                    for («JavaDataTypeNoName(i, true)» _i : «i.name») {
+                        «writeValue("_i", ref)»
+                    }
+                «ENDIF»
+            }
+        '''
+    }
+
+    def private static readExternalField(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val elementType = JavaDataTypeNoName(i, true)
+        if (!i.isAggregate)
+            return '''«i.name» = «readValue(ref, elementType)»;'''
+        return '''
+            _length = _in.readInt();
+            if (_length < 0) {
+                «i.name» = null;
+            } else {
+                «IF i.isArray !== null»
+                    «IF resolveElem(i.datatype) !== null && getJavaDataType(i.datatype).equals("byte []")»
+                        «i.name» = new byte [_length][];  // Java weirdness: dimension swapped to first pair of brackets!
+                    «ELSE»
+                        «i.name» = new «if (resolveElem(i.datatype) !== null) getJavaDataType(i.datatype) else ref.javaType»[_length];
+                    «ENDIF»
+                    for (int _i = 0; _i < _length; ++_i)
+                        «i.name»[_i] = «readValue(ref, elementType)»;
+                «ELSEIF i.isMap !== null»
+                    «i.name» = new HashMap<«i.isMap.indexType», «elementType»>(_length);
+                    for (int _i = 0; _i < _length; ++_i) {
+                        final «i.isMap.indexType» _key = «i.readKey»;
+                        «i.name».put(_key, «readValue(ref, elementType)»);
+                    }
+                «ELSE»
+                    «i.name» = new «IF i.isList !== null»ArrayList«ELSE»HashSet«ENDIF»<«elementType»>(_length);
+                    for (int _i = 0; _i < _length; ++_i)
+                        «i.name».add(«readValue(ref, elementType)»);
+                «ENDIF»
+            }
+        '''
+    }
+
+    def public static writeExternalize(ClassDefinition d) '''
+        «IF d.isDirectExternalizable»
+            «IF d.parent === null»
+                /** Writes a nullable String. Long Strings exceed the limit of writeUTF (65535 bytes), they are written as objects. */
+                protected static void ext$WriteString(ObjectOutput _out, String _s) throws IOException {
+                    if (_s == null) {
+                        _out.writeByte(0);
+                    } else if (_s.length() <= 21845) {     // at most 3 bytes per character
+                        _out.writeByte(1);
+                        _out.writeUTF(_s);
+                    } else {
+                        _out.writeByte(2);
+                        _out.writeObject(_s);
+                    }
+                }
+
+                protected static String ext$ReadString(ObjectInput _in) throws IOException, ClassNotFoundException {
+                    switch (_in.readByte()) {
+                    case 0:
+                        return null;
+                    case 1:
+                        return _in.readUTF();
+                    default:
+                        return (String)_in.readObject();
+                    }
+                }
+
+            «ENDIF»
+            @Override
+            public void writeExternal(ObjectOutput _out) throws IOException {
+                «IF d.parent !== null»
+                    super.writeExternal(_out);
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.writeExternalField»
+                «ENDFOR»
+            }
+            @Override
+            @SuppressWarnings("unchecked")
+            public void readExternal(ObjectInput _in) throws IOException, ClassNotFoundException {
+                «IF d.parent !== null»
+                    super.readExternal(_in);
+                «ENDIF»
+                «IF d.fields.exists[isAggregate]»
+                    int _length;
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.readExternalField»
+                «ENDFOR»
+            }
+        «ELSE»
+            @Override
+            public void writeExternal(ObjectOutput _out) throws IOException {
+                ExternalizableComposer.serialize(this, _out);
+            }
+            @Override
+            public void readExternal(ObjectInput _in) throws IOException, ClassNotFoundException {
+                ExternalizableParser.deserialize(this, _in);
+            }
+        «ENDIF»
 
     '''
 }
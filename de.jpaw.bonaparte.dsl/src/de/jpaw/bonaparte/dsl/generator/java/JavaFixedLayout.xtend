@@ -0,0 +1,323 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+
+import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Creates the accessor classes «Class»Layout for classes declared as fixedLayout.
+ * Every field is stored at a constant offset of a fixed size record, without any header, which allows random access to record n of a ByteBuffer.
+ * Optional fields use an additional leading byte, which is 0 for null.
+ */
+class JavaFixedLayout {
+
+    /** Returns the number of bytes required to store the value of a field (without null indicator), or -1 if the field type has no fixed size representation. */
+    def static int fixedSize(FieldDefinition i) {
+        if (i.aggregate)
+            return -1
+        val ref = DataTypeExtension::get(i.datatype)
+        val e = ref.elementaryDataType
+        if (e === null)
+            return -1
+        val withJavaTime = BonScriptPreferences.currentPrefs.doDateTime
+        switch (e.name.toLowerCase) {
+        case 'boolean':     1
+        case 'byte':        1
+        case 'short':       2
+        case 'char':        2
+        case 'character':   2
+        case 'int':         4
+        case 'integer':     4
+        case 'long':        8
+        case 'float':       4
+        case 'double':      8
+        case 'fixedpoint':  8       // the mantissa
+        case 'enum':        2       // the ordinal
+        case 'day':         if (withJavaTime) 4 else -1         // epoch day
+        case 'timestamp':   if (withJavaTime) 12 else -1        // epoch seconds (UTC) and nanoseconds
+        case 'instant':     if (withJavaTime) 12 else -1        // epoch seconds and nanoseconds
+        case 'ascii':       e.length
+        case 'uppercase':   e.length
+        case 'lowercase':   e.length
+        default:            -1
+        }
+    }
+
+    // true if the field is preceded by a null indicator byte
+    def private static boolean isNullable(FieldDefinition i) {
+        return !DataTypeExtension::get(i.datatype).isPrimitive && !i.isRequired
+    }
+
+    def private static int storageSize(FieldDefinition i) {
+        return i.fixedSize + (if (i.isNullable) 1 else 0)
+    }
+
+    def private static getValue(FieldDefinition i, CharSequence p) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val e = ref.elementaryDataType
+        switch (e.name.toLowerCase) {
+        case 'boolean':     '''_buf.get(«p») != 0'''
+        case 'byte':        '''_buf.get(«p»)'''
+        case 'short':       '''_buf.getShort(«p»)'''
+        case 'char':        '''_buf.getChar(«p»)'''
+        case 'character':   '''_buf.getChar(«p»)'''
+        case 'int':         '''_buf.getInt(«p»)'''
+        case 'integer':     '''_buf.getInt(«p»)'''
+        case 'long':        '''_buf.getLong(«p»)'''
+        case 'float':       '''_buf.getFloat(«p»)'''
+        case 'double':      '''_buf.getDouble(«p»)'''
+        case 'fixedpoint':  '''«ref.javaType».of(_buf.getLong(«p»))'''
+        case 'enum':        '''«ref.javaType».valueOf(_buf.getShort(«p»))'''
+        case 'day':         '''LocalDate.ofEpochDay(_buf.getInt(«p»))'''
+        case 'timestamp':   '''LocalDateTime.ofEpochSecond(_buf.getLong(«p»), _buf.getInt(«p» + 8), ZoneOffset.UTC)'''
+        case 'instant':     '''Instant.ofEpochSecond(_buf.getLong(«p»), _buf.getInt(«p» + 8))'''
+        default:            '''getAscii(_buf, «p», «e.length»)'''
+        }
+    }
+
+    def private static putValue(FieldDefinition i, CharSequence p) {
+        val e = DataTypeExtension::get(i.datatype).elementaryDataType
+        switch (e.name.toLowerCase) {
+        case 'boolean':     '''_buf.put(«p», (byte)(_v ? 1 : 0));'''
+        case 'byte':        '''_buf.put(«p», _v);'''
+        case 'short':       '''_buf.putShort(«p», _v);'''
+        case 'char':        '''_buf.putChar(«p», _v);'''
+        case 'character':   '''_buf.putChar(«p», _v);'''
+        case 'int':         '''_buf.putInt(«p», _v);'''
+        case 'integer':     '''_buf.putInt(«p», _v);'''
+        case 'long':        '''_buf.putLong(«p», _v);'''
+        case 'float':       '''_buf.putFloat(«p», _v);'''
+        case 'double':      '''_buf.putDouble(«p», _v);'''
+        case 'fixedpoint':  '''_buf.putLong(«p», _v.getMantissa());'''
+        case 'enum':        '''_buf.putShort(«p», (short)_v.ordinal());'''
+        case 'day':         '''_buf.putInt(«p», (int)_v.toEpochDay());'''
+        case 'timestamp':   '''
+                                _buf.putLong(«p», _v.toEpochSecond(ZoneOffset.UTC));
+                                _buf.putInt(«p» + 8, _v.getNano());
+                            '''
+        case 'instant':     '''
+                                _buf.putLong(«p», _v.getEpochSecond());
+                                _buf.putInt(«p» + 8, _v.getNano());
+                            '''
+        default:            '''putAscii(_buf, «p», «e.length», _v);'''
+        }
+    }
+
+    // a required field of an object type has no null indicator, null cannot be stored
+    def private static boolean needsNullCheck(FieldDefinition i) {
+        return !DataTypeExtension::get(i.datatype).isPrimitive && !i.isNullable
+    }
+
+    def private static writeAccessors(FieldDefinition i, ClassDefinition d) {
+        val type = JavaDataTypeNoName(i, false)
+        val p = if (i.isNullable) '''_pos + OFFSET_«i.name» + 1''' else '''_pos + OFFSET_«i.name»'''
+        val cap = i.name.toFirstUpper
+        return '''
+
+            private static «type» get$«i.name»(ByteBuffer _buf, int _pos) {
+                «IF i.isNullable»
+                    if (_buf.get(_pos + OFFSET_«i.name») == 0)
+                        return null;
+                «ENDIF»
+                return «i.getValue(p)»;
+            }
+
+            private static void set$«i.name»(ByteBuffer _buf, int _pos, «type» _v) {
+                «IF i.isNullable»
+                    if (_v == null) {
+                        _buf.put(_pos + OFFSET_«i.name», (byte)0);
+                        return;
+                    }
+                    _buf.put(_pos + OFFSET_«i.name», (byte)1);
+                «ELSEIF i.needsNullCheck»
+                    if (_v == null)
+                        throw new IllegalArgumentException("Field «d.name».«i.name» is required and has no null representation in the fixed layout");
+                «ENDIF»
+                «i.putValue(p)»
+            }
+
+            public static «type» get«cap»(ByteBuffer _buf, long _record) {
+                return get$«i.name»(_buf, position(_record));
+            }
+
+            public static «type» get«cap»(ByteBuffer [] _segments, long _record) {
+                return get$«i.name»(segment(_segments, _record), positionInSegment(_record));
+            }
+
+            public static void set«cap»(ByteBuffer _buf, long _record, «type» _v) {
+                set$«i.name»(_buf, position(_record), _v);
+            }
+
+            public static void set«cap»(ByteBuffer [] _segments, long _record, «type» _v) {
+                set$«i.name»(segment(_segments, _record), positionInSegment(_record), _v);
+            }
+        '''
+    }
+
+    // the field's owning class determines the names of the getters and setters
+    def private static getterName(FieldDefinition i) {
+        return "get" + i.name.getNameCapsed(i.eContainer as ClassDefinition)
+    }
+    def private static setterName(FieldDefinition i) {
+        return "set" + i.name.getNameCapsed(i.eContainer as ClassDefinition)
+    }
+
+    def static writeLayout(ClassDefinition d) {
+        val imports = new ImportCollector(getBonPackageName(d))
+        imports.recurseImports(d, true)
+        imports.addImport(d)
+        val fields = d.allFields
+        var int offset = 0
+        val offsets = newIntArrayOfSize(fields.size)
+        for (n : 0 ..< fields.size) {
+            offsets.set(n, offset)
+            offset = offset + fields.get(n).storageSize
+        }
+        val recordSize = Math.max(1, offset)        // a record without fields still occupies a byte, to keep record positions distinct
+        val needsZoneOffset = fields.exists[DataTypeExtension::get(datatype).elementaryDataType?.name?.toLowerCase == 'timestamp']
+        return '''
+        // This source has been automatically created by the bonaparte DSL. Do not modify, changes will be lost.
+        // The bonaparte DSL is open source, licensed under Apache License, Version 2.0. It is based on Eclipse Xtext2.
+        // The sources for bonaparte-DSL can be obtained at www.github.com/jpaw/bonaparte-dsl.git
+        package «getBonPackageName(d)»;
+
+        «writeDefaultImports»
+        import java.nio.ByteBuffer;
+        «IF needsZoneOffset»
+            import java.time.ZoneOffset;
+        «ENDIF»
+        «imports.createImports»
+
+        /** Fixed binary layout of «d.name». Every record occupies RECORD_SIZE bytes, and every field is stored at a constant offset within the record.
+         * There is no header, record n starts at byte n * RECORD_SIZE. Multi byte values use the byte order of the buffer.
+         *
+         * A single ByteBuffer holds at most RECORDS_PER_SEGMENT records. Larger stores consist of an array of segments, where segment k holds
+         * the records k * RECORDS_PER_SEGMENT up to (k + 1) * RECORDS_PER_SEGMENT - 1, see allocate(). Record indexes are long values in both cases.
+         */
+        public final class «d.name»Layout {
+            public static final int RECORD_SIZE = «recordSize»;
+            public static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+            «FOR n : 0 ..< fields.size»
+                public static final int OFFSET_«fields.get(n).name» = «offsets.get(n)»;
+            «ENDFOR»
+
+            private «d.name»Layout() {
+            }
+
+            /** Returns the position of a record in a single buffer. */
+            public static int position(long _record) {
+                if (_record < 0L || _record >= RECORDS_PER_SEGMENT)
+                    throw new IndexOutOfBoundsException("Record " + _record + " is outside of the range 0.." + (RECORDS_PER_SEGMENT - 1) + " of a single buffer, use segments");
+                return (int)_record * RECORD_SIZE;
+            }
+
+            /** Returns the segment which holds a record. */
+            public static ByteBuffer segment(ByteBuffer [] _segments, long _record) {
+                if (_record < 0L)
+                    throw new IndexOutOfBoundsException("Negative record index " + _record);
+                final long _segment = _record / RECORDS_PER_SEGMENT;
+                if (_segment >= _segments.length)
+                    throw new IndexOutOfBoundsException("Record " + _record + " is outside of the " + _segments.length + " segments of the store");
+                return _segments[(int)_segment];
+            }
+
+            /** Returns the position of a record within its segment. */
+            public static int positionInSegment(long _record) {
+                return (int)(_record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+            }
+
+            /** Allocates the segments for the specified number of records. */
+            public static ByteBuffer [] allocate(long _records, boolean _direct) {
+                if (_records < 0L)
+                    throw new IllegalArgumentException("Negative number of records " + _records);
+                final long _count = (_records + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT;
+                if (_count > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("Number of records " + _records + " exceeds the number of possible segments");
+                final ByteBuffer [] _segments = new ByteBuffer [(int)_count];
+                for (int _i = 0; _i < _segments.length; ++_i) {
+                    final int _size = (int)Math.min(RECORDS_PER_SEGMENT, _records - (long)_i * RECORDS_PER_SEGMENT) * RECORD_SIZE;
+                    _segments[_i] = _direct ? ByteBuffer.allocateDirect(_size) : ByteBuffer.allocate(_size);
+                }
+                return _segments;
+            }
+
+            private static String getAscii(ByteBuffer _buf, int _pos, int _maxLength) {
+                int _len = 0;
+                while (_len < _maxLength && _buf.get(_pos + _len) != 0)
+                    ++_len;
+                final char [] _chars = new char [_len];
+                for (int _i = 0; _i < _len; ++_i)
+                    _chars[_i] = (char)(_buf.get(_pos + _i) & 0xff);
+                return new String(_chars);
+            }
+
+            private static void putAscii(ByteBuffer _buf, int _pos, int _maxLength, String _v) {
+                final int _len = _v.length();
+                if (_len > _maxLength)
+                    throw new IllegalArgumentException("String of length " + _len + " exceeds fixed layout size " + _maxLength);
+                for (int _i = 0; _i < _maxLength; ++_i)
+                    _buf.put(_pos + _i, _i < _len ? (byte)_v.charAt(_i) : (byte)0);
+            }
+            «FOR i : fields»
+                «i.writeAccessors(d)»
+            «ENDFOR»
+
+            private static void write$(ByteBuffer _buf, int _pos, «d.name» _obj) {
+                «FOR i : fields»
+                    set$«i.name»(_buf, _pos, _obj.«i.getterName»());
+                «ENDFOR»
+            }
+
+            /** Stores all fields of an object as record number _record. Required fields must not be null. */
+            public static void write(ByteBuffer _buf, long _record, «d.name» _obj) {
+                write$(_buf, position(_record), _obj);
+            }
+
+            /** Stores all fields of an object as record number _record of a segmented store. Required fields must not be null. */
+            public static void write(ByteBuffer [] _segments, long _record, «d.name» _obj) {
+                write$(segment(_segments, _record), positionInSegment(_record), _obj);
+            }
+            «IF !d.isAbstract && !d.root.isImmutable»
+
+                private static «d.name» read$(ByteBuffer _buf, int _pos) {
+                    final «d.name» _obj = new «d.name»();
+                    «FOR i : fields»
+                        _obj.«i.setterName»(get$«i.name»(_buf, _pos));
+                    «ENDFOR»
+                    return _obj;
+                }
+
+                /** Creates a new object from record number _record. */
+                public static «d.name» read(ByteBuffer _buf, long _record) {
+                    return read$(_buf, position(_record));
+                }
+
+                /** Creates a new object from record number _record of a segmented store. */
+                public static «d.name» read(ByteBuffer [] _segments, long _record) {
+                    return read$(segment(_segments, _record), positionInSegment(_record));
+                }
+            «ENDIF»
+        }
+        '''
+    }
+}
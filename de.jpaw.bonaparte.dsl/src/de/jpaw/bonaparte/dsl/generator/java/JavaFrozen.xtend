@@ -68,6 +68,8 @@ class JavaFrozen {
     // write the code to freeze one field.
     def private static writeFreezeField(FieldDefinition i, ClassDefinition cd) {
         val ref = i.datatype.get
+        if (i.isPrimitiveList)
+            return null     // primitive list containers are immutable
         if (ref.noFreezeBecauseImmutable) {
             // Lists which contain optional fields (nulls) must use something else
             if (i.isList !== null && !i.isRequired) {
@@ -137,6 +139,8 @@ class JavaFrozen {
     // write the code to freeze one field into another class
     def private static writeFreezeFieldCopy(FieldDefinition i, ClassDefinition cd) {
         val ref = i.datatype.get
+        if (i.isPrimitiveList)
+            return '''_new.«i.name» = «i.name»;'''
         if (ref.noFreezeBecauseImmutable) {
             if (i.aggregate) {
                 val token = i.aggregateToken
@@ -202,6 +206,8 @@ class JavaFrozen {
     // write the code to copy one field into a mutable copy
     def private static writeToMutableFieldCopy(FieldDefinition i, ClassDefinition cd) {
         val ref = i.datatype.get
+        if (i.isPrimitiveList)
+            return '''_new.«i.name» = «i.name»;'''     // immutable container, no copy required
         if (!i.aggregate) {
             if (ref.noFreezeBecauseImmutable) {
                 '''
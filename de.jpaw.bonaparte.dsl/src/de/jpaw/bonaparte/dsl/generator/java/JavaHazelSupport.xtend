@@ -16,32 +16,192 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.bonScript.XHazelcast
+import de.jpaw.bonaparte.dsl.generator.DataCategory
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import java.util.Map
+
+import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
+
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 
 class JavaHazelSupport {
     static public final String BONAPARTE_HAZEL_PACKAGE = "de.jpaw.bonaparte.hazelcast"
     static public final String HAZELCAST_NIO_PACKAGE = "com.hazelcast.nio"
     static public final String HAZELCAST_INT_PACKAGE = "com.hazelcast.nio.serialization"
+    static public final String HAZELCAST_COMPACT_PACKAGE = "com.hazelcast.nio.serialization.compact"
+
+    // the suffix of the ObjectDataOutput / PortableWriter methods, by java wrapper type
+    static final Map<String, String> DATA_IO_SUFFIX = #{
+        "Boolean"   -> "Boolean",
+        "Byte"      -> "Byte",
+        "Short"     -> "Short",
+        "Character" -> "Char",
+        "Integer"   -> "Int",
+        "Long"      -> "Long",
+        "Float"     -> "Float",
+        "Double"    -> "Double"
+    }
+    // the suffix of the CompactWriter / CompactReader methods, by java wrapper type
+    static final Map<String, String> COMPACT_SUFFIX = #{
+        "Boolean"   -> "Boolean",
+        "Byte"      -> "Int8",
+        "Short"     -> "Int16",
+        "Integer"   -> "Int32",
+        "Long"      -> "Int64",
+        "Float"     -> "Float32",
+        "Double"    -> "Float64"
+    }
+
+    /** Determines the hazelcast support of a class: class setting, package setting, then preferences. */
+    def public static XHazelcast getHazelSupport(ClassDefinition d) {
+        return d.doHazelcast?.x ?: getPackage(d).doHazelcast?.x ?: BonScriptPreferences.getHazelSupport
+    }
+
+    def private static boolean hasDataSerializable(XHazelcast h) {
+        return h == XHazelcast.DATA_SERIALIZABLE || h == XHazelcast.IDENTIFIED_DATA_SERIALIZABLE || h == XHazelcast.BOTH
+    }
+
+    def private static boolean hasPortable(XHazelcast h) {
+        return h == XHazelcast.PORTABLE || h == XHazelcast.BOTH
+    }
+
+    // true for elementary types which are stored by a java.time class
+    def private static boolean isJavaTime(DataTypeExtension ref, String type) {
+        return BonScriptPreferences.currentPrefs.doDateTime && ref.elementaryDataType?.name?.toLowerCase == type
+    }
+
+    /** Returns the code to write a field to an ObjectDataOutput, or null if the type is not supported by direct IO. */
+    def private static CharSequence dataWrite(FieldDefinition i) {
+        if (i.aggregate)
+            return null
+        val ref = DataTypeExtension::get(i.datatype)
+        val n = i.name
+        if (ref.isPrimitive)
+            return '''_out.write«DATA_IO_SUFFIX.get(ref.javaType)»(«n»);'''
+        if (ref.isWrapper)
+            return '''
+                _out.writeBoolean(«n» != null);
+                if («n» != null)
+                    _out.write«DATA_IO_SUFFIX.get(ref.javaType)»(«n»);
+            '''
+        if (ref.category == DataCategory.STRING && ref.javaType == "String")
+            return '''_out.writeString(«n»);'''
+        if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA)
+            return '''_out.writeInt(«n» == null ? -1 : «n».ordinal());'''
+        if (ref.javaType == "byte []")
+            return '''_out.writeByteArray(«n»);'''
+        val nullable = if (ref.isFixedPointType) '''_out.writeLong(«n».getMantissa());'''
+            else if (ref.javaType == "UUID") '''
+                _out.writeLong(«n».getMostSignificantBits());
+                _out.writeLong(«n».getLeastSignificantBits());'''
+            else if (ref.isJavaTime("day")) '''_out.writeLong(«n».toEpochDay());'''
+            else if (ref.isJavaTime("timestamp")) '''
+                _out.writeLong(«n».toEpochSecond(java.time.ZoneOffset.UTC));
+                _out.writeInt(«n».getNano());'''
+            else if (ref.isJavaTime("instant")) '''
+                _out.writeLong(«n».getEpochSecond());
+                _out.writeInt(«n».getNano());'''
+        if (nullable === null)
+            return null
+        return '''
+            _out.writeBoolean(«n» != null);
+            if («n» != null) {
+                «nullable»
+            }
+        '''
+    }
+
+    /** Returns the code to read a field from an ObjectDataInput, for all types supported by dataWrite. */
+    def private static CharSequence dataRead(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val n = i.name
+        if (ref.isPrimitive)
+            return '''«n» = _in.read«DATA_IO_SUFFIX.get(ref.javaType)»();'''
+        if (ref.isWrapper)
+            return '''«n» = _in.readBoolean() ? _in.read«DATA_IO_SUFFIX.get(ref.javaType)»() : null;'''
+        if (ref.category == DataCategory.STRING && ref.javaType == "String")
+            return '''«n» = _in.readString();'''
+        if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA)
+            return '''
+                {
+                    final int _ordinal = _in.readInt();
+                    «n» = _ordinal < 0 ? null : «ref.javaType».valueOf(_ordinal);
+                }
+            '''
+        if (ref.javaType == "byte []")
+            return '''«n» = _in.readByteArray();'''
+        val value = if (ref.isFixedPointType) '''«ref.javaType».of(_in.readLong())'''
+            else if (ref.javaType == "UUID") '''new UUID(_in.readLong(), _in.readLong())'''
+            else if (ref.isJavaTime("day")) '''LocalDate.ofEpochDay(_in.readLong())'''
+            else if (ref.isJavaTime("timestamp")) '''LocalDateTime.ofEpochSecond(_in.readLong(), _in.readInt(), java.time.ZoneOffset.UTC)'''
+            else if (ref.isJavaTime("instant")) '''Instant.ofEpochSecond(_in.readLong(), _in.readInt())'''
+        return '''«n» = _in.readBoolean() ? «value» : null;'''
+    }
+
+    // Portable has no representation of null for primitive types, therefore only primitives, Strings and byte arrays are written directly
+    def private static CharSequence portableWrite(FieldDefinition i) {
+        if (i.aggregate)
+            return null
+        val ref = DataTypeExtension::get(i.datatype)
+        if (ref.isPrimitive)
+            return '''_out.write«DATA_IO_SUFFIX.get(ref.javaType)»("«i.name»", «i.name»);'''
+        if (ref.category == DataCategory.STRING && ref.javaType == "String")
+            return '''_out.writeString("«i.name»", «i.name»);'''
+        if (ref.javaType == "byte []")
+            return '''_out.writeByteArray("«i.name»", «i.name»);'''
+        return null
+    }
+
+    def private static CharSequence portableRead(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        if (ref.isPrimitive)
+            return '''«i.name» = _in.read«DATA_IO_SUFFIX.get(ref.javaType)»("«i.name»");'''
+        if (ref.javaType == "byte []")
+            return '''«i.name» = _in.readByteArray("«i.name»");'''
+        return '''«i.name» = _in.readString("«i.name»");'''
+    }
+
+    /** Returns true if writeData / readData are generated field by field. This requires the same for the superclass, because the methods delegate to it. */
+    def public static boolean isDirectDataSerializable(ClassDefinition d) {
+        if (!BonScriptPreferences.currentPrefs.hazelcastDirectIO || d.root.isImmutable || !d.hazelSupport.hasDataSerializable)
+            return false
+        if (d.parent !== null && !d.parent.isDirectDataSerializable)
+            return false
+        return d.fields.forall[dataWrite !== null]
+    }
 
-    // if called, we know that doHazel is not NOHAZEL. For imports, just distinguish between classes / interfaces available in hazelcast 2 and 3
+    /** Returns true if writePortable / readPortable are generated field by field. This requires the same for the superclass, because the methods delegate to it. */
+    def public static boolean isDirectPortable(ClassDefinition d) {
+        if (!BonScriptPreferences.currentPrefs.hazelcastDirectIO || d.root.isImmutable || !d.hazelSupport.hasPortable)
+            return false
+        if (d.parent !== null && !d.parent.isDirectPortable)
+            return false
+        return d.fields.forall[portableWrite !== null]
+    }
+
+    // if called, we know that doHazel is not NOHAZEL. For imports, just distinguish between classes / interfaces available in hazelcast 2 and 3. Compact serializers are separate classes.
     def public static writeHazelImports(XHazelcast doHazel) '''
-        import java.io.IOException;
-        import «HAZELCAST_NIO_PACKAGE».ObjectDataInput;
-        import «HAZELCAST_NIO_PACKAGE».ObjectDataOutput;
-        import «HAZELCAST_INT_PACKAGE».DataSerializable;
-        import «BONAPARTE_HAZEL_PACKAGE».HazelcastParser;
-        import «BONAPARTE_HAZEL_PACKAGE».HazelcastComposer;
-        «IF doHazel != XHazelcast.DATA_SERIALIZABLE»
-            import «HAZELCAST_INT_PACKAGE».IdentifiedDataSerializable;
-            import «HAZELCAST_INT_PACKAGE».Portable;
-            import «HAZELCAST_INT_PACKAGE».PortableReader;
-            import «HAZELCAST_INT_PACKAGE».PortableWriter;
-            import «BONAPARTE_HAZEL_PACKAGE».BonaparteIdentifiedDataSerializable;
-            import «BONAPARTE_HAZEL_PACKAGE».BonapartePortable;
-            import «BONAPARTE_HAZEL_PACKAGE».HazelcastPortableParser;
-            import «BONAPARTE_HAZEL_PACKAGE».HazelcastPortableComposer;
+        «IF doHazel != XHazelcast.COMPACT»
+            import java.io.IOException;
+            import «HAZELCAST_NIO_PACKAGE».ObjectDataInput;
+            import «HAZELCAST_NIO_PACKAGE».ObjectDataOutput;
+            import «HAZELCAST_INT_PACKAGE».DataSerializable;
+            import «BONAPARTE_HAZEL_PACKAGE».HazelcastParser;
+            import «BONAPARTE_HAZEL_PACKAGE».HazelcastComposer;
+            «IF doHazel != XHazelcast.DATA_SERIALIZABLE»
+                import «HAZELCAST_INT_PACKAGE».IdentifiedDataSerializable;
+                import «HAZELCAST_INT_PACKAGE».Portable;
+                import «HAZELCAST_INT_PACKAGE».PortableReader;
+                import «HAZELCAST_INT_PACKAGE».PortableWriter;
+                import «BONAPARTE_HAZEL_PACKAGE».BonaparteIdentifiedDataSerializable;
+                import «BONAPARTE_HAZEL_PACKAGE».BonapartePortable;
+                import «BONAPARTE_HAZEL_PACKAGE».HazelcastPortableParser;
+                import «BONAPARTE_HAZEL_PACKAGE».HazelcastPortableComposer;
+            «ENDIF»
         «ENDIF»
     '''
 
@@ -70,22 +230,58 @@ class JavaHazelSupport {
     def private static writeDataSerializable(ClassDefinition d, boolean recommendIdentifiable) '''
         @Override
         public void writeData(ObjectDataOutput _out) throws IOException {
-            HazelcastComposer.serialize(this, _out, «recommendIdentifiable»);
+            «IF d.isDirectDataSerializable»
+                «IF d.parent !== null»
+                    super.writeData(_out);
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.dataWrite»
+                «ENDFOR»
+            «ELSE»
+                HazelcastComposer.serialize(this, _out, «recommendIdentifiable»);
+            «ENDIF»
         }
         @Override
         public void readData(ObjectDataInput _in) throws IOException {
-            HazelcastParser.deserialize(this, _in);
+            «IF d.isDirectDataSerializable»
+                «IF d.parent !== null»
+                    super.readData(_in);
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.dataRead»
+                «ENDFOR»
+            «ELSE»
+                HazelcastParser.deserialize(this, _in);
+            «ENDIF»
         }
     '''
 
     def private static writePortable(ClassDefinition d) '''
         @Override
         public void writePortable(PortableWriter _out) throws IOException {
-            HazelcastPortableComposer.serialize(this, _out);
+            «IF d.isDirectPortable»
+                «IF d.parent !== null»
+                    super.writePortable(_out);
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.portableWrite»
+                «ENDFOR»
+            «ELSE»
+                HazelcastPortableComposer.serialize(this, _out);
+            «ENDIF»
         }
         @Override
         public void readPortable(PortableReader _in) throws IOException {
-            HazelcastPortableParser.deserialize(this, _in);
+            «IF d.isDirectPortable»
+                «IF d.parent !== null»
+                    super.readPortable(_in);
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.portableRead»
+                «ENDFOR»
+            «ELSE»
+                HazelcastPortableParser.deserialize(this, _in);
+            «ENDIF»
         }
     '''
 
@@ -113,6 +309,123 @@ class JavaHazelSupport {
                 «d.writeHazelId»
                 «d.writeHazelClassId»
             '''
+            case COMPACT:                  // separate serializer class
+                null
+        }
+    }
+
+    /** Returns the type of a field in the compact format, i.e. the suffix of the CompactWriter method, or null if the field cannot be stored by a generated CompactSerializer. */
+    def public static String compactType(FieldDefinition i) {
+        if (i.aggregate)
+            return null
+        val ref = DataTypeExtension::get(i.datatype)
+        if (ref.isPrimitive)
+            return if (ref.javaType == "Character") "Int16" else COMPACT_SUFFIX.get(ref.javaType)
+        if (ref.isWrapper)
+            return if (COMPACT_SUFFIX.containsKey(ref.javaType)) "Nullable" + COMPACT_SUFFIX.get(ref.javaType)   // no nullable char
+        if (ref.category == DataCategory.STRING && ref.javaType == "String")
+            return "String"
+        if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA)
+            return "String"             // the instance name, robust against reordering
+        if (ref.javaType == "BigDecimal")
+            return "Decimal"
+        if (ref.javaType == "byte []")
+            return "ArrayOfInt8"
+        if (ref.isJavaTime("day"))
+            return "Date"
+        if (ref.isJavaTime("time"))
+            return "Time"
+        if (ref.isJavaTime("timestamp"))
+            return "Timestamp"
+        return null
+    }
+
+    /** Returns true if a CompactSerializer can be generated for the class. */
+    def public static boolean canCompact(ClassDefinition d) {
+        return !d.isAbstract && !d.root.isImmutable && d.genericParameters.empty && d.externalType === null && d.allFields.forall[compactType !== null]
+    }
+
+    // the field's owning class determines the names of the getters and setters
+    def private static getterName(FieldDefinition i) {
+        return "get" + i.name.getNameCapsed(i.eContainer as ClassDefinition)
+    }
+    def private static setterName(FieldDefinition i) {
+        return "set" + i.name.getNameCapsed(i.eContainer as ClassDefinition)
+    }
+
+    def private static compactWrite(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val t = i.compactType
+        if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA)
+            return '''_out.writeString("«i.name»", _obj.«i.getterName»() == null ? null : _obj.«i.getterName»().name());'''
+        if (ref.isPrimitive && ref.javaType == "Character")
+            return '''_out.writeInt16("«i.name»", (short)_obj.«i.getterName»());'''
+        return '''_out.write«t»("«i.name»", _obj.«i.getterName»());'''
+    }
+
+    def private static compactRead(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val t = i.compactType
+        if (ref.category == DataCategory.ENUM || ref.category == DataCategory.ENUMALPHA)
+            return '''
+                final String _e$«i.name» = _in.readString("«i.name»");
+                _obj.«i.setterName»(_e$«i.name» == null ? null : «ref.javaType».valueOf(_e$«i.name»));
+            '''
+        if (ref.isPrimitive && ref.javaType == "Character")
+            return '''_obj.«i.setterName»((char)_in.readInt16("«i.name»"));'''
+        return '''_obj.«i.setterName»(_in.read«t»("«i.name»"));'''
+    }
+
+    /** Creates a separate class «Class»CompactSerializer, to be registered in the CompactSerializationConfig of hazelcast (5.2 or later).
+     * The type name is the partially qualified class name. Fields are accessed by getters and setters.
+     */
+    def public static writeCompactSerializer(ClassDefinition d) {
+        val imports = new ImportCollector(getBonPackageName(d))
+        imports.recurseImports(d, true)
+        imports.addImport(d)
+        val fields = d.allFields
+        return '''
+        // This source has been automatically created by the bonaparte DSL. Do not modify, changes will be lost.
+        // The bonaparte DSL is open source, licensed under Apache License, Version 2.0. It is based on Eclipse Xtext2.
+        // The sources for bonaparte-DSL can be obtained at www.github.com/jpaw/bonaparte-dsl.git
+        package «getBonPackageName(d)»;
+
+        «writeDefaultImports»
+        import «HAZELCAST_COMPACT_PACKAGE».CompactReader;
+        import «HAZELCAST_COMPACT_PACKAGE».CompactSerializer;
+        import «HAZELCAST_COMPACT_PACKAGE».CompactWriter;
+        «imports.createImports»
+
+        /** Hazelcast compact serializer for «d.name», with field by field access and without reflection. */
+        public final class «d.name»CompactSerializer implements CompactSerializer<«d.name»> {
+            public static final «d.name»CompactSerializer INSTANCE = new «d.name»CompactSerializer();
+
+            @Override
+            public String getTypeName() {
+                return «d.name».my$PQON;
+            }
+
+            @Override
+            public Class<«d.name»> getCompactClass() {
+                return «d.name».class;
+            }
+
+            @Override
+            public void write(CompactWriter _out, «d.name» _obj) {
+                «FOR i : fields»
+                    «i.compactWrite»
+                «ENDFOR»
+            }
+
+            @Override
+            public «d.name» read(CompactReader _in) {
+                final «d.name» _obj = new «d.name»();
+                «FOR i : fields»
+                    «i.compactRead»
+                «ENDFOR»
+                return _obj;
+            }
         }
+        '''
     }
 }
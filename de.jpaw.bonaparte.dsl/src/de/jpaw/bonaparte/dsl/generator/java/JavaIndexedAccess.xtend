@@ -0,0 +1,141 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import java.util.List
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Creates reflection free access to the fields of a class by their index. The index corresponds to the order of the meta$$ field descriptors,
+ * with the fields of superclasses first. Every class handles its own fields and delegates any other index to the superclass.
+ */
+class JavaIndexedAccess {
+
+    // the primitive specialized getters, with the wrapper types of the fields they serve
+    static final List<Pair<String, List<String>>> PRIMITIVE_VARIANTS = #[
+        "int"       -> #[ "Integer", "Short", "Byte", "Character" ],
+        "long"      -> #[ "Long" ],
+        "double"    -> #[ "Double", "Float" ],
+        "boolean"   -> #[ "Boolean" ]
+    ]
+
+    def private static boolean isScalarPrimitiveOf(FieldDefinition i, List<String> wrappers) {
+        val ref = DataTypeExtension::get(i.datatype)
+        return ref.isPrimitive && !i.aggregate && wrappers.contains(ref.javaType)
+    }
+
+    // the type to cast an Object to, in order to assign it to the field
+    def private static castType(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        if (ref.isPrimitive && !i.aggregate)
+            return ref.javaType      // the wrapper, unboxing is done by the compiler
+        return JavaDataTypeNoName(i, false)
+    }
+
+    def private static writeOutOfRange(ClassDefinition d, String superCall) '''
+        «IF d.extendsClass !== null»
+            return super.«superCall»;
+        «ELSE»
+            throw new IndexOutOfBoundsException("Field index " + _index + " does not exist for " + _PARTIALLY_QUALIFIED_CLASS_NAME);
+        «ENDIF»
+    '''
+
+    def private static writePrimitiveGetter(ClassDefinition d, int offset, String primitiveType, List<String> wrappers) '''
+
+        /** Returns the value of the field with the specified index, which must be of type «primitiveType» or a narrower primitive type. */
+        «IF d.extendsClass !== null»
+        @Override
+        «ENDIF»
+        public «primitiveType» ret$«primitiveType.toFirstUpper»Field(int _index) {
+            switch (_index - «offset») {
+            «FOR n : 0 ..< d.fields.size»
+                «IF d.fields.get(n).isScalarPrimitiveOf(wrappers)»
+                    case «n»:
+                        return «d.fields.get(n).name»;
+                «ENDIF»
+            «ENDFOR»
+            default:
+                «IF d.extendsClass !== null»
+                    return super.ret$«primitiveType.toFirstUpper»Field(_index);
+                «ELSE»
+                    throw new IllegalArgumentException("Field index " + _index + " of " + _PARTIALLY_QUALIFIED_CLASS_NAME + " does not exist or is not a primitive «primitiveType»");
+                «ENDIF»
+            }
+        }
+    '''
+
+    def public static writeIndexedAccess(ClassDefinition d) {
+        val offset = d.allFields.size - d.fields.size    // number of fields of all superclasses
+        return '''
+
+            /** Returns the number of fields of this class, including the fields of superclasses. */
+            «IF d.extendsClass !== null»
+            @Override
+            «ENDIF»
+            public int ret$FieldCount() {
+                return «offset + d.fields.size»;
+            }
+
+            /** Returns the value of the field with the specified index. Primitive values are boxed. */
+            «IF d.extendsClass !== null»
+            @Override
+            «ENDIF»
+            public Object ret$Field(int _index) {
+                switch (_index - «offset») {
+                «FOR n : 0 ..< d.fields.size»
+                    case «n»:
+                        return «d.fields.get(n).name»;
+                «ENDFOR»
+                default:
+                    «d.writeOutOfRange("ret$Field(_index)")»
+                }
+            }
+
+            /** Assigns the field with the specified index. The value must be of the field's (boxed) type. */
+            «IF d.extendsClass !== null»
+            @Override
+            «ENDIF»
+            @SuppressWarnings("unchecked")
+            public void put$Field(int _index, Object _value) {
+                «IF d.root.isImmutable»
+                    throw new UnsupportedOperationException(_PARTIALLY_QUALIFIED_CLASS_NAME + " is immutable");
+                «ELSE»
+                    verify$Not$Frozen();
+                    switch (_index - «offset») {
+                    «FOR n : 0 ..< d.fields.size»
+                        case «n»:
+                            «d.fields.get(n).name» = («d.fields.get(n).castType»)_value;
+                            return;
+                    «ENDFOR»
+                    default:
+                        «IF d.extendsClass !== null»
+                            super.put$Field(_index, _value);
+                        «ELSE»
+                            throw new IndexOutOfBoundsException("Field index " + _index + " does not exist for " + _PARTIALLY_QUALIFIED_CLASS_NAME);
+                        «ENDIF»
+                    }
+                «ENDIF»
+            }
+            «FOR v : PRIMITIVE_VARIANTS»
+                «d.writePrimitiveGetter(offset, v.key, v.value)»
+            «ENDFOR»
+        '''
+    }
+}
@@ -165,48 +165,36 @@ class JavaMeta {
             '''
     }
 
-    def static writeMetaData(ClassDefinition d) {
-        val myPackage = getPackage(d)
-        val fqParentName = if (d.parent !== null) d.parent.bonPackageName + "." + d.parent.name
-        val propertiesInherited = (d.inheritProperties || myPackage.inheritProperties) && d.getParent !== null
-        val externalPrefix = if (d.externalType !== null) 'External'
-        return '''
-            // property map
-            private static final ImmutableMap<String,String> property$Map = new ImmutableMap.Builder<String,String>()
-                «FOR p : d.properties»
-                    .put("«p.key.name»", "«IF p.value !== null»«Util::escapeString2Java(p.value)»«ENDIF»")
-                «ENDFOR»
-                «FOR f : d.fields»
-                    «FOR p : f.properties»
-                        .put("«f.name».«p.key.name»", "«IF p.value !== null»«Util::escapeString2Java(p.value)»«ENDIF»")
-                    «ENDFOR»
-                «ENDFOR»
-                .build();
-
-            «IF !d.properties.empty»
-                private static final ImmutableMap<String,String> field$property$this = new ImmutableMap.Builder<String,String>()
-                «FOR p : d.properties»
-                    .put("«p.key.name»", "«IF p.value !== null»«Util::escapeString2Java(p.value)»«ENDIF»")
-                «ENDFOR»
-                    .build();
-            «ENDIF»
-
+    // the class level property maps
+    def private static writeClassPropertyMaps(ClassDefinition d) '''
+        // property map
+        private static final ImmutableMap<String,String> property$Map = new ImmutableMap.Builder<String,String>()
+            «FOR p : d.properties»
+                .put("«p.key.name»", "«IF p.value !== null»«Util::escapeString2Java(p.value)»«ENDIF»")
+            «ENDFOR»
             «FOR f : d.fields»
-                «f.writeFieldPropertyMap»
+                «FOR p : f.properties»
+                    .put("«f.name».«p.key.name»", "«IF p.value !== null»«Util::escapeString2Java(p.value)»«ENDIF»")
+                «ENDFOR»
             «ENDFOR»
+            .build();
 
-            // my name and revision
-            private static final String _PARTIALLY_QUALIFIED_CLASS_NAME = "«getPartiallyQualifiedClassName(d)»";
-            private static final String _REVISION = «IF d.revision !== null && d.revision.length > 0»"«d.revision»"«ELSE»null«ENDIF»;
-            private static final String _PARENT = «IF (d.extendsClass !== null)»"«getPartiallyQualifiedClassName(d.getParent)»"«ELSE»null«ENDIF»;
-            private static final String _BUNDLE = «IF (myPackage.bundle !== null)»"«myPackage.bundle»"«ELSE»null«ENDIF»;
-            private static final int PQON$HASH = _PARTIALLY_QUALIFIED_CLASS_NAME.hashCode();
-            public static final String my$PQON = _PARTIALLY_QUALIFIED_CLASS_NAME;
-
-            «FOR i : d.fields»
-                «makeMeta(d, i)»
+        «IF !d.properties.empty»
+            private static final ImmutableMap<String,String> field$property$this = new ImmutableMap.Builder<String,String>()
+            «FOR p : d.properties»
+                .put("«p.key.name»", "«IF p.value !== null»«Util::escapeString2Java(p.value)»«ENDIF»")
             «ENDFOR»
+                .build();
+        «ENDIF»
+    '''
 
+    // the field list and the full class definition, which require all field metadata items
+    def private static writeClassDefinition(ClassDefinition d) {
+        val myPackage = getPackage(d)
+        val fqParentName = if (d.parent !== null) d.parent.bonPackageName + "." + d.parent.name
+        val propertiesInherited = (d.inheritProperties || myPackage.inheritProperties) && d.getParent !== null
+        val externalPrefix = if (d.externalType !== null) 'External'
+        return '''
             // private (immutable) List of fields
             private static final ImmutableList<FieldDefinition> my$fields = ImmutableList.<FieldDefinition>of(
                 «d.fields.map['''meta$$«name»'''].join(', ')»
@@ -257,16 +245,63 @@ class JavaMeta {
                     «!d.final», "«d.name»", my$MetaData, null, null
                 );
             «ENDIF»
+        '''
+    }
+
+    def static writeMetaData(ClassDefinition d) {
+        val myPackage = getPackage(d)
+        val fqParentName = if (d.parent !== null) d.parent.bonPackageName + "." + d.parent.name
+        val propertiesInherited = (d.inheritProperties || myPackage.inheritProperties) && d.getParent !== null
+        val lazy = d.lazyMeta        // opt-in per class, because meta$$this is a method instead of a field then
+        val h = if (lazy) "meta$Holder." else ""     // qualifier of the lazily initialized items
+        return '''
+            «IF !lazy»
+                «d.writeClassPropertyMaps»
+
+            «ENDIF»
+            «FOR f : d.fields»
+                «f.writeFieldPropertyMap»
+            «ENDFOR»
+
+            // my name and revision
+            private static final String _PARTIALLY_QUALIFIED_CLASS_NAME = "«getPartiallyQualifiedClassName(d)»";
+            private static final String _REVISION = «IF d.revision !== null && d.revision.length > 0»"«d.revision»"«ELSE»null«ENDIF»;
+            private static final String _PARENT = «IF (d.extendsClass !== null)»"«getPartiallyQualifiedClassName(d.getParent)»"«ELSE»null«ENDIF»;
+            private static final String _BUNDLE = «IF (myPackage.bundle !== null)»"«myPackage.bundle»"«ELSE»null«ENDIF»;
+            private static final int PQON$HASH = _PARTIALLY_QUALIFIED_CLASS_NAME.hashCode();
+            public static final String my$PQON = _PARTIALLY_QUALIFIED_CLASS_NAME;
 
+            «FOR i : d.fields»
+                «makeMeta(d, i)»
+            «ENDFOR»
+
+            «IF lazy»
+                // class definition and property maps are not required for serialization, they are initialized on first use
+                private static final class meta$Holder {
+                    «d.writeClassPropertyMaps»
+
+                    «d.writeClassDefinition»
+                }
+
+                «IF !d.abstract»
+                    public static ObjectReference meta$$this() {
+                        return meta$Holder.meta$$this;
+                    }
+
+                «ENDIF»
+            «ELSE»
+                «d.writeClassDefinition»
+
+            «ENDIF»
             // get all the meta data in one go
             static public ClassDefinition class$MetaData() {
-                return my$MetaData;
+                return «h»my$MetaData;
             }
 
             // some methods intentionally use the $ sign, because use in normal code is discouraged, so we expect no namespace conflicts here
             @Override
             public ClassDefinition ret$MetaData() {
-                return my$MetaData;
+                return «h»my$MetaData;
             }
 
             «writeCommonMetaData»
@@ -335,7 +370,7 @@ class JavaMeta {
                 }
                 @Override
                 public ClassDefinition getMetaData() {
-                    return my$MetaData;
+                    return «h»my$MetaData;
                 }
                 @Override
                 public BonaPortableClass<? extends BonaPortable> getParent() {
@@ -363,14 +398,14 @@ class JavaMeta {
                 }
                 @Override
                 public ImmutableMap<String,String> getPropertyMap() {
-                    return property$Map;
+                    return «h»property$Map;
                 }
                 @Override
                 public String getProperty(String id) {
                     «IF propertiesInherited»
-                        return property$Map.containsKey(id) ? property$Map.get(id) : «fqParentName».BClass.getInstance().getProperty(id);
+                        return «h»property$Map.containsKey(id) ? «h»property$Map.get(id) : «fqParentName».BClass.getInstance().getProperty(id);
                     «ELSE»
-                        return property$Map.get(id);
+                        return «h»property$Map.get(id);
                     «ENDIF»
                 }
             }
@@ -0,0 +1,93 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import de.jpaw.bonaparte.dsl.generator.DataCategory
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import java.util.ArrayList
+import java.util.List
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Splits the fields of wide classes into chunks, so that the generated serializeSub, deserialize, equalsSub and validate methods
+ * stay below the JIT's HugeMethodLimit (8000 bytes of bytecode). Methods above that size are never compiled by HotSpot.
+ * The estimate is intentionally conservative and uses the largest of the four method bodies per field.
+ */
+class JavaMethodSplitter {
+
+    /** Returns an estimate of the bytecode size (in bytes) which the code for a single field contributes to a generated method. */
+    def static int estimateBytecodeSize(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        var int size = if (i.isMap !== null) 160 else if (i.aggregate) 120 else 24
+        switch (ref.category) {
+        case DataCategory::STRING: {
+            size = size + 64                    // length checks in validate()
+            if (ref.elementaryDataType.regexp !== null || ref.isUpperCaseOrLowerCaseSpecialType)
+                size = size + 24                // pattern check
+        }
+        case DataCategory::ENUM:
+            size = size + 40                    // try / catch for enum factory exceptions
+        case DataCategory::ENUMALPHA:
+            size = size + 40
+        case DataCategory::XENUM:
+            size = size + 40
+        case DataCategory::NUMERIC:
+            size = size + 32                    // BigDecimal validation and compareTo
+        case DataCategory::OBJECT:
+            size = size + (if (ref.objectDataType?.externalType !== null) 72 else 24)
+        default:
+            if (ref.isFixedPointType)
+                size = size + 32
+        }
+        if (ref.isWrapper)
+            size = size + 8                     // extra null check
+        return size
+    }
+
+    /** Splits the fields of the class (not including superclass fields) into chunks, according to the preference settings.
+     * A result of less than 2 chunks means that no split is required. The split is deterministic (only depends on field order and type).
+     */
+    def static List<List<FieldDefinition>> splitFields(ClassDefinition d) {
+        val maxBytes  = BonScriptPreferences.currentPrefs.methodSplitLimit
+        val maxFields = BonScriptPreferences.currentPrefs.methodSplitMaxFields
+        val result = new ArrayList<List<FieldDefinition>>()
+        if (d.fields.empty)
+            return result
+        if (maxBytes <= 0 && maxFields <= 0) {
+            // splitting is disabled
+            result.add(d.fields)
+            return result
+        }
+        var List<FieldDefinition> current = new ArrayList<FieldDefinition>()
+        var int currentBytes = 0
+        for (i : d.fields) {
+            val fieldBytes = i.estimateBytecodeSize
+            if (!current.empty && ((maxBytes > 0 && currentBytes + fieldBytes > maxBytes) || (maxFields > 0 && current.size >= maxFields))) {
+                result.add(current)
+                current = new ArrayList<FieldDefinition>()
+                currentBytes = 0
+            }
+            current.add(i)
+            currentBytes = currentBytes + fieldBytes
+        }
+        result.add(current)
+        return result
+    }
+}
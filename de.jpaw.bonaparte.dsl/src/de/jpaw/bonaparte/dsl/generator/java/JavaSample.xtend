@@ -0,0 +1,342 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import de.jpaw.bonaparte.dsl.generator.DataCategory
+import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import de.jpaw.bonaparte.dsl.generator.ModelIndex
+import de.jpaw.bonaparte.dsl.generator.SimplePattern
+import de.jpaw.bonaparte.dsl.generator.Util
+import java.util.ArrayList
+import java.util.List
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Creates the random sample factories ret$Sample(SplittableRandom, int), which create instances with field values within the
+ * constraints known to the generator: lengths, digits and decimals, simple regexp patterns, aggregate sizes and requiredness.
+ * Nested objects are created up to the specified depth, for references with subclasses allowed a random concrete subclass is chosen.
+ * Values are not guaranteed to be valid for complex regular expressions (those fields are left null), and for required fields whose type
+ * cannot be created (generic and external types, xenumsets, JSON and references below the depth limit).
+ * Sets of types with fewer distinct values than the minimum size (booleans, small enums) remain smaller.
+ */
+class JavaSample {
+    static final String UPPER = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+    static final String LOWER = "abcdefghijklmnopqrstuvwxyz"
+    static final String ALNUM = UPPER + LOWER + "0123456789"
+    static final int MAX_SPREAD = 8         // maximum number of additional characters or elements beyond the minimum
+    static final int SET_ATTEMPTS = 4       // attempts per element to fill a Set, random values may repeat
+
+    /** Returns true if the class has sample$Fill, which requires that the sample factories are enabled and that no class in the hierarchy is generic, immutable or external. */
+    def static boolean supportsSample(ClassDefinition d) {
+        if (!BonScriptPreferences.withSamples || d.root.isImmutable)
+            return false
+        var cd = d
+        while (cd !== null) {
+            if (!cd.genericParameters.empty || cd.externalType !== null || cd.noJava)
+                return false
+            cd = cd.parent
+        }
+        return true
+    }
+
+    /** Returns true if the class has a ret$Sample factory. */
+    def static boolean hasSample(ClassDefinition d) {
+        return !d.isAbstract && d.supportsSample
+    }
+
+    def private static qualifiedName(ClassDefinition d) {
+        return getBonPackageName(d) + "." + d.name
+    }
+
+    /** Returns the classes which can be created for a reference, sorted by name. Subclasses are taken from all resources of the index,
+     * which the generator loads into the resource set for resources whose sample factories need them.
+     */
+    def private static List<ClassDefinition> sampleCandidates(ClassDefinition cd, boolean orSuperClass) {
+        val result = new ArrayList<ClassDefinition>
+        if (cd.hasSample)
+            result.add(cd)
+        if (orSuperClass)
+            result.addAll(ModelIndex::of(cd).subclassesOf(cd).filter[hasSample])
+        return result.sortBy[qualifiedName]
+    }
+
+    // the fields for which the sample factory chooses among the subclasses of the referenced class
+    def private static Iterable<FieldDefinition> superClassFields(ClassDefinition d) {
+        if (!d.hasSample)
+            return #[]
+        return d.fields.filter [
+            val ref = DataTypeExtension::get(datatype)
+            ref.category == DataCategory.OBJECT && ref.objectDataType !== null && ref.orSuperClass
+        ]
+    }
+
+    /** Returns true if the sample factory of a class depends on the subclasses of referenced classes, which may be defined in any resource. */
+    def static boolean needsSubclasses(ClassDefinition d) {
+        return !d.superClassFields.empty
+    }
+
+    /** Returns the subclasses which the sample factory of a class creates for its own fields. The class itself does not reference them. */
+    def static List<ClassDefinition> sampleDependencies(ClassDefinition d) {
+        val result = new ArrayList<ClassDefinition>
+        for (i : d.superClassFields)
+            result.addAll(sampleCandidates(DataTypeExtension::get(i.datatype).objectDataType, true))
+        return result
+    }
+
+    def private static long powerOf10(int digits, long defaultBound, long maxBound) {
+        if (digits <= 0)
+            return defaultBound
+        var long result = 1L
+        for (n : 0 ..< digits) {
+            if (result >= maxBound)
+                return maxBound
+            result = result * 10L
+        }
+        return Math.min(result, maxBound)
+    }
+
+    def private static alphabet(DataTypeExtension ref) {
+        switch (ref.elementaryDataType.name.toLowerCase) {
+        case "uppercase":   UPPER
+        case "lowercase":   LOWER
+        default:            ALNUM
+        }
+    }
+
+    def private static writeString(FieldDefinition i, DataTypeExtension ref) {
+        val e = ref.elementaryDataType
+        if (e.regexp !== null)
+            return if (SimplePattern.parse(e.regexp) !== null) '''sample$«i.name»(_rnd)'''
+        val minLength = if (e.minLength > 0) e.minLength else 1
+        val maxLength = Math.max(minLength, Math.min(e.length, minLength + MAX_SPREAD))
+        return '''sample$String(_rnd, «minLength», «maxLength», "«ref.alphabet»")'''
+    }
+
+    def private static writeObject(FieldDefinition i, DataTypeExtension ref) {
+        if (ref.objectDataType === null || ref.genericsRef !== null || ref.isJsonField)
+            return null
+        val candidates = sampleCandidates(ref.objectDataType, ref.orSuperClass)
+        if (candidates.empty)
+            return null
+        if (candidates.size == 1)
+            return '''(_depth > 0 ? «candidates.get(0).qualifiedName».ret$Sample(_rnd, _depth - 1) : null)'''
+        return '''sample$«i.name»(_rnd, _depth)'''
+    }
+
+    /** Returns an expression for a random non-null value of a single field or aggregate element, or null if none can be created. */
+    def private static CharSequence writeValue(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val e = ref.elementaryDataType
+        val javaTime = BonScriptPreferences.currentPrefs.doDateTime
+        switch (ref.category) {
+        case DataCategory.ENUM:         return '''«e.enumType.getBonPackageName».«e.enumType.name».ret$Sample(_rnd)'''
+        case DataCategory.ENUMALPHA:    return '''«e.enumType.getBonPackageName».«e.enumType.name».ret$Sample(_rnd)'''
+        case DataCategory.XENUM:        return if (!e.xenumType.isAbstract) '''«e.xenumType.getBonPackageName».«e.xenumType.name».ret$Sample(_rnd)'''
+        case DataCategory.ENUMSET:      return '''«e.enumsetType.getBonPackageName».«e.enumsetType.name».ret$Sample(_rnd)'''
+        case DataCategory.OBJECT:       return i.writeObject(ref)
+        default: {}
+        }
+        if (ref.isFixedPointType)
+            return '''«ref.javaType».of(_rnd.nextLong(«powerOf10(e.length, 1000000L, 1000000000000000000L)»L))'''
+        switch (ref.javaType) {
+        case "Boolean":         '''_rnd.nextBoolean()'''
+        case "Byte":            '''(byte)_rnd.nextInt(«powerOf10(e.length, 128L, 128L)»)'''
+        case "Short":           '''(short)_rnd.nextInt(«powerOf10(e.length, 32768L, 32768L)»)'''
+        case "Integer":         '''_rnd.nextInt(«powerOf10(e.length, 1000000L, 1000000000L)»)'''
+        case "Long":            '''_rnd.nextLong(«powerOf10(e.length, 1000000000L, 1000000000000000000L)»L)'''
+        case "Character":       '''(char)('A' + _rnd.nextInt(26))'''
+        case "Float":           '''(float)(_rnd.nextDouble() * 1000.0)'''
+        case "Double":          '''_rnd.nextDouble() * 1000.0'''
+        case "BigInteger":      '''BigInteger.valueOf(_rnd.nextLong(«powerOf10(e.length, 1000000L, 1000000000000000000L)»L))'''
+        case "BigDecimal":      '''BigDecimal.valueOf(_rnd.nextLong(«powerOf10(e.length, 1000000L, 1000000000000000000L)»L), «e.decimals»)'''
+        case "UUID":            '''new UUID(_rnd.nextLong(), _rnd.nextLong())'''
+        case "byte []":         '''sample$Bytes(_rnd, «e.length»)'''
+        case "ByteArray":       '''new ByteArray(sample$Bytes(_rnd, «e.length»))'''
+        case "LocalDate":       if (javaTime) '''LocalDate.ofEpochDay(18000L + _rnd.nextInt(3650))''' else '''new LocalDate(2020, 1, 1).plusDays(_rnd.nextInt(3650))'''
+        case "LocalTime":       if (javaTime) '''LocalTime.ofSecondOfDay(_rnd.nextInt(86400))''' else '''LocalTime.fromMillisOfDay(_rnd.nextInt(86400) * 1000L)'''
+        case "LocalDateTime":   if (javaTime) '''LocalDateTime.ofEpochSecond(1577836800L + _rnd.nextLong(315360000L), 0, java.time.ZoneOffset.UTC)'''
+                                else '''new LocalDateTime(1577836800000L + _rnd.nextLong(315360000L) * 1000L, org.joda.time.DateTimeZone.UTC)'''
+        case "Instant":         if (javaTime) '''Instant.ofEpochSecond(1577836800L + _rnd.nextLong(315360000L))''' else '''new Instant(1577836800000L + _rnd.nextLong(315360000L) * 1000L)'''
+        case "String":          i.writeString(ref)
+        default:                null
+        }
+    }
+
+    // assignment of a scalar field
+    def private static writeScalar(FieldDefinition i, CharSequence value) {
+        val ref = DataTypeExtension::get(i.datatype)
+        if (ref.isPrimitive || i.isRequired)
+            return '''_obj.«i.name» = «value»;'''
+        return '''_obj.«i.name» = _rnd.nextInt(4) == 0 ? null : «value»;'''
+    }
+
+    def private static writeAggregate(FieldDefinition i, CharSequence value) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val elementType = JavaDataTypeNoName(i, true)
+        val minSize = i.aggregateMinSize
+        val maxSize = if (i.aggregateMaxSize > 0) Math.min(i.aggregateMaxSize, minSize + MAX_SPREAD) else minSize + MAX_SPREAD
+        return '''
+            «IF !i.isAggregateRequired»
+                if (_rnd.nextInt(4) == 0) {
+                    _obj.«i.name» = null;
+                } else {
+            «ELSE»
+                {
+            «ENDIF»
+                final int _n = «minSize» + _rnd.nextInt(«maxSize - minSize + 1»);
+                «IF i.isArray !== null»
+                    «IF resolveElem(i.datatype) !== null && getJavaDataType(i.datatype).equals("byte []")»
+                        _obj.«i.name» = new byte [_n][];  // Java weirdness: dimension swapped to first pair of brackets!
+                    «ELSE»
+                        _obj.«i.name» = new «if (resolveElem(i.datatype) !== null) getJavaDataType(i.datatype) else ref.javaType»[_n];
+                    «ENDIF»
+                    for (int _i = 0; _i < _n; ++_i)
+                        _obj.«i.name»[_i] = «value»;
+                «ELSEIF i.isMap !== null»
+                    _obj.«i.name» = new HashMap<«i.isMap.indexType», «elementType»>(2 * _n);
+                    for (int _i = 0; _i < _n; ++_i)
+                        _obj.«i.name».put(«IF i.isMap.indexType == "String"»"k" + _i«ELSEIF i.isMap.indexType == "Long"»Long.valueOf(_i)«ELSE»_i«ENDIF», «value»);
+                «ELSEIF i.isList !== null»
+                    _obj.«i.name» = new ArrayList<«elementType»>(2 * _n);
+                    for (int _i = 0; _i < _n; ++_i)
+                        _obj.«i.name».add(«value»);
+                «ELSE»
+                    _obj.«i.name» = new HashSet<«elementType»>(2 * _n);
+                    // duplicates do not count, the number of attempts is bounded for small value domains
+                    for (int _i = 0; _obj.«i.name».size() < _n && _i < «SET_ATTEMPTS» * _n; ++_i)
+                        _obj.«i.name».add(«value»);
+                «ENDIF»
+            }
+        '''
+    }
+
+    def private static writeSampleField(FieldDefinition i) {
+        val value = i.writeValue
+        if (value === null || i.isPrimitiveList)
+            return '''// «i.name»: no sample values for this type'''
+        if (!i.aggregate)
+            return i.writeScalar(value)
+        return i.writeAggregate(value)
+    }
+
+    // per field helper methods, for simple patterns and for polymorphic references
+    def private static writeSampleHelper(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        val e = ref.elementaryDataType
+        if (ref.category == DataCategory.STRING && e.regexp !== null) {
+            val elements = SimplePattern.parse(e.regexp)
+            if (elements === null)
+                return null
+            return '''
+
+                // creates a random String matching «Util::escapeString2Java(e.regexp)»
+                private static String sample$«i.name»(SplittableRandom _rnd) {
+                    final StringBuilder _sb = new StringBuilder(«e.length»);
+                    «FOR el : elements»
+                        sample$Append(_sb, _rnd, «el.minCount», «IF el.maxCount == SimplePattern.UNBOUNDED»«el.minCount + MAX_SPREAD»«ELSE»«Math.min(el.maxCount, el.minCount + MAX_SPREAD)»«ENDIF», "«Util::escapeString2Java(el.chars)»");
+                    «ENDFOR»
+                    return _sb.toString();
+                }
+            '''
+        }
+        if (ref.category == DataCategory.OBJECT && ref.objectDataType !== null && ref.genericsRef === null && !ref.isJsonField) {
+            val candidates = sampleCandidates(ref.objectDataType, ref.orSuperClass)
+            if (candidates.size <= 1)
+                return null
+            return '''
+
+                // creates a random instance of «ref.objectDataType.name» or one of its subclasses
+                private static «ref.javaType» sample$«i.name»(SplittableRandom _rnd, int _depth) {
+                    if (_depth <= 0)
+                        return null;
+                    switch (_rnd.nextInt(«candidates.size»)) {
+                    «FOR n : 0 ..< candidates.size - 1»
+                        case «n»:
+                            return «candidates.get(n).qualifiedName».ret$Sample(_rnd, _depth - 1);
+                    «ENDFOR»
+                    default:
+                        return «candidates.last.qualifiedName».ret$Sample(_rnd, _depth - 1);
+                    }
+                }
+            '''
+        }
+        return null
+    }
+
+    // the characters of a pattern element
+    def private static chars(SimplePattern.Element el) {
+        val sb = new StringBuilder
+        for (r : el.ranges)
+            for (c : r.get(0) .. r.get(1))
+                sb.append(c as char)
+        return sb.toString
+    }
+
+    def static writeSample(ClassDefinition d) '''
+        «IF d.supportsSample»
+            «IF d.parent === null»
+
+                /** Creates a random String of the given length range, using the characters of _alphabet. */
+                protected static String sample$String(SplittableRandom _rnd, int _minLength, int _maxLength, String _alphabet) {
+                    final StringBuilder _sb = new StringBuilder(_maxLength);
+                    sample$Append(_sb, _rnd, _minLength, _maxLength, _alphabet);
+                    return _sb.toString();
+                }
+
+                /** Appends between _minCount and _maxCount random characters of _alphabet. */
+                protected static void sample$Append(StringBuilder _sb, SplittableRandom _rnd, int _minCount, int _maxCount, String _alphabet) {
+                    final int _n = _minCount + _rnd.nextInt(_maxCount - _minCount + 1);
+                    for (int _i = 0; _i < _n; ++_i)
+                        _sb.append(_alphabet.charAt(_rnd.nextInt(_alphabet.length())));
+                }
+
+                /** Creates a random byte array of 1 to 16 bytes (limited by _maxLength). */
+                protected static byte [] sample$Bytes(SplittableRandom _rnd, int _maxLength) {
+                    final byte [] _b = new byte [1 + _rnd.nextInt(Math.max(1, Math.min(_maxLength, 16)))];
+                    for (int _i = 0; _i < _b.length; ++_i)
+                        _b[_i] = (byte)_rnd.nextInt(256);
+                    return _b;
+                }
+            «ENDIF»
+            «FOR i : d.fields»
+                «i.writeSampleHelper»
+            «ENDFOR»
+
+            /** Assigns random values to the fields of «d.name», including those of superclasses. References are populated up to _depth levels. */
+            protected static void sample$Fill(«d.name» _obj, SplittableRandom _rnd, int _depth) {
+                «IF d.parent !== null»
+                    «d.parent.qualifiedName».sample$Fill(_obj, _rnd, _depth);
+                «ENDIF»
+                «FOR i : d.fields»
+                    «i.writeSampleField»
+                «ENDFOR»
+            }
+            «IF !d.isAbstract»
+
+                /** Creates an instance with random field values, for test data generation. Nested objects are created up to _depth levels. */
+                public static «d.name» ret$Sample(SplittableRandom _rnd, int _depth) {
+                    final «d.name» _obj = new «d.name»();
+                    sample$Fill(_obj, _rnd, _depth);
+                    return _obj;
+                }
+            «ENDIF»
+        «ENDIF»
+    '''
+}
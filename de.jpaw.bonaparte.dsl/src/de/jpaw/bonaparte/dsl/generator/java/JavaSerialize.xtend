@@ -16,12 +16,14 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
 import de.jpaw.bonaparte.dsl.bonScript.ElementaryDataType
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
 import de.jpaw.bonaparte.dsl.generator.DataCategory
+import java.util.List
 
 class JavaSerialize {
 
@@ -67,7 +69,13 @@ class JavaSerialize {
     def private static makeFoldedWrite2(ClassDefinition d, FieldDefinition i)  {
         return '''_w.writeNull(meta$$«i.name»);'''
     }
-    def private static makeFoldedWrite2(ClassDefinition d, FieldDefinition i, String index)  {
+    // true if the field refers to a bonaparte class with a compiled folding plan
+    def private static hasFoldingPlan(DataTypeExtension ref) {
+        return ref.genericsRef?.classRef !== null && ref.objectDataType?.externalType === null
+    }
+
+    // compiled: use the precompiled plan of the referenced class instead of resolving the subcomponent by name
+    def private static makeFoldedWrite2(ClassDefinition d, FieldDefinition i, String index, boolean compiled)  {
         val ref = DataTypeExtension::get(i.datatype)
         if (ref.elementaryDataType !== null)
             return makeWrite(i, index, ref.elementaryDataType, ref)
@@ -79,17 +87,58 @@ class JavaSerialize {
                     // full / recursive object output
                     «makeWrite(i, index, ref.objectDataType, ref)»
                 } else {
-                    «IF ref.objectDataType?.externalType === null»
+                    «IF ref.objectDataType?.externalType !== null»
+                        // no op. Cannot output components of external data types
+                    «ELSEIF compiled && ref.hasFoldingPlan»
                         // write a specific subcomponent
-                        «index».foldedOutput(_w, _pfc.getComponent());   // recurse specific field
+                        «index».foldedOutput(_w, ((FoldingPlan$«i.name»)_plan).component);   // recurse specific field
                     «ELSE»
-                        // no op. Cannot output components of external data types
+                        // write a specific subcomponent
+                        «index».foldedOutput(_w, _pfc.getComponent());   // recurse specific field
                     «ENDIF»
                 }
             '''
     }
 
-    def static writeSerialize(ClassDefinition d) '''
+    def private static writeSerializeFields(ClassDefinition d, List<FieldDefinition> fields) '''
+        «FOR i:fields»
+            «IF i.isAggregate»
+                if («i.name» == null) {
+                    _w.writeNullCollection(meta$$«i.name»);
+                } else {
+                    «IF i.isArray !== null»
+                        _w.startArray(meta$$«i.name», «i.name».length, 0);
+                        for (int _i = 0; _i < «i.name».length; ++_i)
+                            «makeWrite2(d, i, indexedName(i))»
+                        _w.terminateArray();
+                    «ELSEIF i.isPrimitiveList»
+                        _w.startArray(meta$$«i.name», «i.name».length(), 0);
+                        for (int _i = 0; _i < «i.name».length(); ++_i)
+                            _w.addField(meta$$«i.name», «indexedName(i)»);
+                        _w.terminateArray();
+                    «ELSEIF i.isList !== null || i.isSet !== null»
+                        _w.startArray(meta$$«i.name», «i.name».size(), 0);
+                        for («JavaDataTypeNoName(i, true)» _i : «i.name»)
+                            «makeWrite2(d, i, indexedName(i))»
+                        _w.terminateArray();
+                    «ELSE»
+                        _w.startMap(meta$$«i.name», «i.name».size());
+                        for (Map.Entry<«i.isMap.indexType»,«JavaDataTypeNoName(i, true)»> _i : «i.name».entrySet()) {
+                            // write (key, value) tuples
+                            _w.addField(StaticMeta.MAP_INDEX_META_«i.isMap.indexType.toUpperCase», _i.getKey());
+                            «makeWrite2(d, i, indexedName(i))»
+                        }
+                        _w.terminateArray();
+                    «ENDIF»
+                }
+            «ELSE»
+                «makeWrite2(d, i, indexedName(i))»
+            «ENDIF»
+        «ENDFOR»
+    '''
+
+    // chunks: the fields of this class, split into groups in order to avoid huge methods (see JavaMethodSplitter)
+    def static writeSerialize(ClassDefinition d, List<List<FieldDefinition>> chunks) '''
         /* serialize the object into a String. uses implicit toString() member functions of elementary data types */
         @Override
         public <_E extends Exception> void serializeSub(MessageComposer<_E> _w) throws _E {
@@ -98,121 +147,222 @@ class JavaSerialize {
                 super.serializeSub(_w);
                 _w.writeSuperclassSeparator();
             «ENDIF»
-            «FOR i:d.fields»
-                «IF i.isAggregate»
-                    if («i.name» == null) {
-                        _w.writeNullCollection(meta$$«i.name»);
+            «IF chunks.size <= 1»
+                «d.writeSerializeFields(d.fields)»
+            «ELSE»
+                «FOR n : 0 ..< chunks.size»
+                    serializeSub$«n»(_w);
+                «ENDFOR»
+            «ENDIF»
+        }
+        «IF chunks.size > 1»
+            «FOR n : 0 ..< chunks.size»
+
+                private <_E extends Exception> void serializeSub$«n»(MessageComposer<_E> _w) throws _E {
+                    «d.writeSerializeFields(chunks.get(n))»
+                }
+            «ENDFOR»
+        «ENDIF»
+
+    '''
+
+    // the output of a single field, for the folded output
+    def private static writeFoldedField(ClassDefinition d, FieldDefinition i, boolean compiled) '''
+        «IF !i.isAggregate»
+            «makeFoldedWrite2(d, i, indexedName(i), compiled)»
+        «ELSE»
+            if («i.name» == null) {
+                _w.writeNullCollection(meta$$«i.name»);
+            } else {
+                «IF i.isArray !== null»
+                    if (_pfc.index < 0) {
+                        _w.startArray(meta$$«i.name», «i.name».length, 0);
+                        for (int _i = 0; _i < «i.name».length; ++_i) {
+                            «makeFoldedWrite2(d, i, indexedName(i), compiled)»
+                        }
+                        _w.terminateArray();
                     } else {
-                        «IF i.isArray !== null»
-                            _w.startArray(meta$$«i.name», «i.name».length, 0);
-                            for (int _i = 0; _i < «i.name».length; ++_i)
-                                «makeWrite2(d, i, indexedName(i))»
-                            _w.terminateArray();
-                        «ELSEIF i.isList !== null || i.isSet !== null»
-                            _w.startArray(meta$$«i.name», «i.name».size(), 0);
-                            for («JavaDataTypeNoName(i, true)» _i : «i.name»)
-                                «makeWrite2(d, i, indexedName(i))»
-                            _w.terminateArray();
+                        if (_pfc.index < «i.name».length) {
+                            // output single element
+                            «makeFoldedWrite2(d, i, i.name + "[_pfc.index]", compiled)»
+                        } else {
+                            «makeFoldedWrite2(d, i)»
+                        }
+                    }
+                «ELSEIF i.isPrimitiveList»
+                    if (_pfc.index < 0) {
+                        _w.startArray(meta$$«i.name», «i.name».length(), 0);
+                        for (int _i = 0; _i < «i.name».length(); ++_i)
+                            _w.addField(meta$$«i.name», «indexedName(i)»);
+                        _w.terminateArray();
+                    } else {
+                        if (_pfc.index < «i.name».length()) {
+                            // output single element
+                            _w.addField(meta$$«i.name», «i.name».get(_pfc.index));
+                        } else {
+                            «makeFoldedWrite2(d, i)»
+                        }
+                    }
+                «ELSEIF i.isList !== null»
+                    if (_pfc.index < 0) {
+                        _w.startArray(meta$$«i.name», «i.name».size(), 0);
+                        for («JavaDataTypeNoName(i, true)» _i : «i.name») {
+                            «makeFoldedWrite2(d, i, indexedName(i), compiled)»
+                        }
+                        _w.terminateArray();
+                    } else {
+                        if (_pfc.index < «i.name».size()) {
+                            // output single element
+                            «makeFoldedWrite2(d, i, i.name + ".get(_pfc.index)", compiled)»
+                        } else {
+                            «makeFoldedWrite2(d, i)»
+                        }
+                    }
+                «ELSEIF i.isSet !== null»
+                    _w.startArray(meta$$«i.name», «i.name».size(), 0);
+                    for («JavaDataTypeNoName(i, true)» _i : «i.name») {
+                        «makeFoldedWrite2(d, i, indexedName(i), compiled)»
+                    }
+                    _w.terminateArray();
+                «ELSE»
+                    «IF i.isMap.indexType == "String"»
+                        if (_pfc.alphaIndex == null) {
+                    «ELSE»
+                        if (_pfc.index < 0) {
+                    «ENDIF»
+                        _w.startMap(meta$$«i.name», «i.name».size());
+                        for (Map.Entry<«i.isMap.indexType»,«JavaDataTypeNoName(i, true)»> _i : «i.name».entrySet()) {
+                            // write (key, value) tuples
+                            _w.addField(StaticMeta.MAP_INDEX_META_«i.isMap.indexType.toUpperCase», _i.getKey());
+                            «makeFoldedWrite2(d, i, indexedName(i), compiled)»
+                        }
+                        _w.terminateArray();
+                    } else {
+                        «IF i.isMap.indexType == "String"»
+                            «makeFoldedWrite2(d, i, i.name + ".get(_pfc.alphaIndex)", compiled)»
+                        «ELSEIF i.isMap.indexType == "Integer"»
+                            «makeFoldedWrite2(d, i, i.name + ".get(Integer.valueOf(_pfc.index))", compiled)»
                         «ELSE»
-                            _w.startMap(meta$$«i.name», «i.name».size());
-                            for (Map.Entry<«i.isMap.indexType»,«JavaDataTypeNoName(i, true)»> _i : «i.name».entrySet()) {
-                                // write (key, value) tuples
-                                _w.addField(StaticMeta.MAP_INDEX_META_«i.isMap.indexType.toUpperCase», _i.getKey());
-                                «makeWrite2(d, i, indexedName(i))»
-                            }
-                            _w.terminateArray();
+                            «makeFoldedWrite2(d, i, i.name + ".get(Long.valueOf((long)_pfc.index))", compiled)»
                         «ENDIF»
                     }
-                «ELSE»
-                    «makeWrite2(d, i, indexedName(i))»
                 «ENDIF»
-            «ENDFOR»
-        }
-
+            }
+        «ENDIF»
     '''
 
     def static writeFoldedSerialize(ClassDefinition d) '''
         /* serialize selected fields of the object. */
         @Override
         public <_E extends Exception> void foldedOutput(MessageComposer<_E> _w, ParsedFoldingComponent _pfc) throws _E {
-            String _n = _pfc.getFieldname();
-            «FOR i:d.fields»
-                if (_n.equals("«i.name»")) {
-                    «IF !i.isAggregate»
-                        «makeFoldedWrite2(d, i, indexedName(i))»
-                    «ELSE»
-                        if («i.name» == null) {
-                            _w.writeNullCollection(meta$$«i.name»);
-                        } else {
-                            «IF i.isArray !== null»
-                                if (_pfc.index < 0) {
-                                    _w.startArray(meta$$«i.name», «i.name».length, 0);
-                                    for (int _i = 0; _i < «i.name».length; ++_i) {
-                                        «makeFoldedWrite2(d, i, indexedName(i))»
-                                    }
-                                    _w.terminateArray();
-                                } else {
-                                    if (_pfc.index < «i.name».length) {
-                                        // output single element
-                                        «makeFoldedWrite2(d, i, i.name + "[_pfc.index]")»
-                                    } else {
-                                        «makeFoldedWrite2(d, i)»
-                                    }
-                                }
-                            «ELSEIF i.isList !== null»
-                                if (_pfc.index < 0) {
-                                    _w.startArray(meta$$«i.name», «i.name».size(), 0);
-                                    for («JavaDataTypeNoName(i, true)» _i : «i.name») {
-                                        «makeFoldedWrite2(d, i, indexedName(i))»
-                                    }
-                                    _w.terminateArray();
-                                } else {
-                                    if (_pfc.index < «i.name».size()) {
-                                        // output single element
-                                        «makeFoldedWrite2(d, i, i.name + ".get(_pfc.index)")»
-                                    } else {
-                                        «makeFoldedWrite2(d, i)»
-                                    }
-                                }
-                            «ELSEIF i.isSet !== null»
-                                _w.startArray(meta$$«i.name», «i.name».size(), 0);
-                                for («JavaDataTypeNoName(i, true)» _i : «i.name») {
-                                    «makeFoldedWrite2(d, i, indexedName(i))»
-                                }
-                                _w.terminateArray();
-                            «ELSE»
-                                «IF i.isMap.indexType == "String"»
-                                    if (_pfc.alphaIndex == null) {
-                                «ELSE»
-                                    if (_pfc.index < 0) {
-                                «ENDIF»
-                                    _w.startMap(meta$$«i.name», «i.name».size());
-                                    for (Map.Entry<«i.isMap.indexType»,«JavaDataTypeNoName(i, true)»> _i : «i.name».entrySet()) {
-                                        // write (key, value) tuples
-                                        _w.addField(StaticMeta.MAP_INDEX_META_«i.isMap.indexType.toUpperCase», _i.getKey());
-                                        «makeFoldedWrite2(d, i, indexedName(i))»
-                                    }
-                                    _w.terminateArray();
-                                } else {
-                                    «IF i.isMap.indexType == "String"»
-                                        «makeFoldedWrite2(d, i, i.name + ".get(_pfc.alphaIndex)")»
-                                    «ELSEIF i.isMap.indexType == "Integer"»
-                                        «makeFoldedWrite2(d, i, i.name + ".get(Integer.valueOf(_pfc.index))")»
-                                    «ELSE»
-                                        «makeFoldedWrite2(d, i, i.name + ".get(Long.valueOf((long)_pfc.index))")»
-                                    «ENDIF»
-                                }
-                            «ENDIF»
-                        }
-                    «ENDIF»
-                    return;
+            «IF !d.fields.empty»
+                switch (_pfc.getFieldname()) {
+                «FOR i:d.fields»
+                    case "«i.name»":
+                        «d.writeFoldedField(i, false)»
+                        return;
+                «ENDFOR»
                 }
-            «ENDFOR»
+            «ENDIF»
             // not found
             «IF d.extendsClass !== null»
                 super.foldedOutput(_w, _pfc);
             «ENDIF»
         }
+        «IF BonScriptPreferences.currentPrefs.foldingPlans»
 
+            «d.writeCompiledFolding»
+        «ENDIF»
    '''
+
+    // true if the plan of the field includes the compiled plan of its subcomponent
+    def private static hasCompiledComponent(FieldDefinition i) {
+        val ref = DataTypeExtension::get(i.datatype)
+        return ref.elementaryDataType === null && ref.hasFoldingPlan
+    }
+
+    // creates the plan for a field, for fields which refer to bonaparte classes including the compiled plan of the subcomponent
+    def private static compileField(ClassDefinition d, FieldDefinition i, int n) {
+        if (i.hasCompiledComponent)
+            return '''new FoldingPlan$«i.name»(«d.name».class, _pfc, «n», «DataTypeExtension::get(i.datatype).genericsRef.classRef.name».compileFolding(_pfc.getComponent()))'''
+        return '''new FoldingPlan$(«d.name».class, _pfc, «n»)'''
+    }
+
+    /** Creates the folding API with precompiled plans: compileFolding() resolves the field names of a ParsedFoldingComponent once,
+     * and foldedOutput(MessageComposer, FoldingPlan$) dispatches by field index. Field indexes are those of ret$Field().
+     * Subcomponents of object fields are compiled against the declared field type, and stored in a field specific subclass of the plan.
+     * Plans refer to the class which compiled them: for objects of other classes, and for fields of subclasses which are unknown
+     * at compile time, the field is resolved by name.
+     */
+    def private static writeCompiledFolding(ClassDefinition d) {
+        val allFields = d.allFields
+        val offset = allFields.size - d.fields.size    // number of fields of all superclasses
+        return '''
+            «IF d.extendsClass === null»
+                /** Folding component with resolved field index, as created by compileFolding(). Immutable, can be shared between threads. */
+                public static class FoldingPlan$ {
+                    public final Class<?> compiledFor;          // the class which compiled the plan, field indexes are valid for it and its subclasses
+                    public final ParsedFoldingComponent pfc;    // the source component, which also provides the collection index
+                    public final int fieldIndex;                // the index of the field as in ret$Field(), or -1 if unknown to the compiling class
+
+                    public FoldingPlan$(Class<?> compiledFor, ParsedFoldingComponent pfc, int fieldIndex) {
+                        this.compiledFor = compiledFor;
+                        this.pfc = pfc;
+                        this.fieldIndex = fieldIndex;
+                    }
+                }
+
+            «ENDIF»
+            «FOR i : d.fields.filter[hasCompiledComponent]»
+                /** Folding plan for field «i.name», with the compiled plan of its subcomponent. */
+                public static final class FoldingPlan$«i.name» extends FoldingPlan$ {
+                    public final «DataTypeExtension::get(i.datatype).genericsRef.classRef.name».FoldingPlan$ component;     // null if no subcomponent has been specified
+
+                    public FoldingPlan$«i.name»(Class<?> compiledFor, ParsedFoldingComponent pfc, int fieldIndex, «DataTypeExtension::get(i.datatype).genericsRef.classRef.name».FoldingPlan$ component) {
+                        super(compiledFor, pfc, fieldIndex);
+                        this.component = component;
+                    }
+                }
+
+            «ENDFOR»
+            /** Resolves the field names of a folding component (and its subcomponents) once, for repeated use by foldedOutput(MessageComposer, FoldingPlan$). */
+            public static FoldingPlan$ compileFolding(ParsedFoldingComponent _pfc) {
+                if (_pfc == null)
+                    return null;
+                switch (_pfc.getFieldname()) {
+                «FOR n : 0 ..< allFields.size»
+                    case "«allFields.get(n).name»":
+                        return «d.compileField(allFields.get(n), n)»;
+                «ENDFOR»
+                default:
+                    return new FoldingPlan$(«d.name».class, _pfc, -1);
+                }
+            }
+
+            /* serialize selected fields of the object, using a precompiled folding plan. */
+            «IF d.extendsClass !== null»
+            @Override
+            «ENDIF»
+            public <_E extends Exception> void foldedOutput(MessageComposer<_E> _w, FoldingPlan$ _plan) throws _E {
+                final ParsedFoldingComponent _pfc = _plan.pfc;
+                if (!_plan.compiledFor.isInstance(this)) {
+                    foldedOutput(_w, _pfc);            // compiled for a different class, field indexes do not apply
+                    return;
+                }
+                switch (_plan.fieldIndex - «offset») {
+                «FOR n : 0 ..< d.fields.size»
+                    case «n»:
+                        «d.writeFoldedField(d.fields.get(n), true)»
+                        return;
+                «ENDFOR»
+                default:
+                    «IF d.extendsClass !== null»
+                        super.foldedOutput(_w, _plan);
+                    «ELSE»
+                        foldedOutput(_w, _pfc);        // not resolved when compiling the plan: field of a subclass
+                    «ENDIF»
+                }
+            }
+        '''
+    }
 }
@@ -16,6 +16,7 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
 import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.generator.DataCategory
@@ -23,15 +24,50 @@ import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
 
 import static de.jpaw.bonaparte.dsl.generator.XUtil.*
 import java.util.function.Predicate
+import java.util.HashSet
+import java.util.Set
 
 class JavaTreeWalker {
 
+    static final Predicate<DataTypeExtension> IS_STRING = [ category == DataCategory::STRING ]
+    static final Predicate<DataTypeExtension> IS_OBJECT = [ category == DataCategory::OBJECT ]
+
     def public static writeTreeWalkerCode(ClassDefinition d) '''
-        «d.writeGenericTreeWalkerCode("String",       "AlphanumericElementaryDataItem", true, [ category == DataCategory::STRING ])»
-        «d.writeGenericTreeWalkerCode("BonaPortable", "ObjectReference",                false, [ category == DataCategory::OBJECT ])»
+        «d.writeGenericTreeWalkerCode("String",       "AlphanumericElementaryDataItem", true, IS_STRING)»
+        «d.writeGenericTreeWalkerCode("BonaPortable", "ObjectReference",                false, IS_OBJECT)»
         «d.writeGenericTreeWalkerCode("Object",       "FieldDefinition",                false, [ true ])»
+        «IF BonScriptPreferences.currentPrefs.fusedTreeWalk»
+            «d.writeFusedTreeWalkerCode»
+        «ENDIF»
     '''
 
+    /** Returns false if no object of the referenced class can contain any field (at any nesting level) which is accepted by decision.
+     * This is only known for final classes, because objects of subclasses could have additional fields. External types are never walked.
+     */
+    def public static boolean mayContain(DataTypeExtension ref, Predicate<DataTypeExtension> decision) {
+        return mayContain(ref, decision, new HashSet<ClassDefinition>())
+    }
+
+    def private static boolean mayContain(DataTypeExtension ref, Predicate<DataTypeExtension> decision, Set<ClassDefinition> visited) {
+        if (ref.objectDataType?.externalType !== null)
+            return false
+        val cd = ref.genericsRef?.classRef
+        if (cd === null || !cd.isFinal || ref.secondaryObjectDataType !== null)
+            return true         // generic type parameter or plain BonaPortable, or not final: subclasses are unknown
+        if (!visited.add(cd))
+            return false        // recursive data structure: already being checked
+        for (i : allFields(cd)) {
+            val fieldRef = DataTypeExtension::get(i.datatype)
+            if (fieldRef.objectDataType?.externalType === null && !isJsonField(fieldRef)) {
+                if (decision.test(fieldRef))
+                    return true
+                if (fieldRef.category == DataCategory::OBJECT && mayContain(fieldRef, decision, visited))
+                    return true
+            }
+        }
+        return false
+    }
+
     def private static writeGenericTreeWalkerCode(ClassDefinition d, String javaType, String metadataType, boolean doAssign, Predicate<DataTypeExtension> decision) '''
         @Override
         public void treeWalk«javaType»(DataConverter<«javaType», «metadataType»> _cvt, boolean _descend) {
@@ -39,12 +75,52 @@ class JavaTreeWalker {
                 super.treeWalk«javaType»(_cvt, _descend);
             «ENDIF»
             «FOR i:d.fields»
-                «treeWalkSub(d, i, DataTypeExtension::get(i.datatype), javaType, doAssign, decision)»
+                «treeWalkSub(d, i, DataTypeExtension::get(i.datatype), javaType, doAssign, decision, "_cvt")»
             «ENDFOR»
         }
      '''
 
-     def private static treeWalkSub(ClassDefinition d, FieldDefinition i, DataTypeExtension ref, String javaType, boolean doAssign, Predicate<DataTypeExtension> decision) {
+    // fused walk for String and BonaPortable conversion: converts the String fields of all levels and the object references of this level, as
+    // treeWalkString(_stringCvt, _descend) followed by treeWalkBonaPortable(_objectCvt, _descend) would do, but in a single traversal
+    def private static writeFusedTreeWalkerCode(ClassDefinition d) '''
+        /** Applies a String converter and / or a BonaPortable converter (either can be null) in a single traversal. */
+        «IF d.extendsClass !== null»
+        @Override
+        «ENDIF»
+        public void treeWalk(DataConverter<String, AlphanumericElementaryDataItem> _stringCvt, DataConverter<BonaPortable, ObjectReference> _objectCvt, boolean _descend) {
+            «IF d.extendsClass !== null»
+                super.treeWalk(_stringCvt, _objectCvt, _descend);
+            «ENDIF»
+            «FOR i:d.fields»
+                «fusedTreeWalkSub(d, i, DataTypeExtension::get(i.datatype))»
+            «ENDFOR»
+        }
+    '''
+
+    def private static fusedTreeWalkSub(ClassDefinition d, FieldDefinition i, DataTypeExtension ref) {
+        if (ref.objectDataType?.externalType !== null || isJsonField(ref))
+            return null
+        if (IS_STRING.test(ref))
+            return '''
+                if (_stringCvt != null) {
+                    «treeWalkSub(d, i, ref, "String", true, IS_STRING, "_stringCvt")»
+                }
+            '''
+        if (IS_OBJECT.test(ref))
+            return '''
+                «IF mayContain(ref, IS_STRING)»
+                    if (_stringCvt != null) {
+                        «treeWalkSub(d, i, ref, "String", true, IS_STRING, "_stringCvt")»
+                    }
+                «ENDIF»
+                if (_objectCvt != null) {
+                    «treeWalkSub(d, i, ref, "BonaPortable", false, IS_OBJECT, "_objectCvt")»
+                }
+            '''
+        return null
+    }
+
+     def private static treeWalkSub(ClassDefinition d, FieldDefinition i, DataTypeExtension ref, String javaType, boolean doAssign, Predicate<DataTypeExtension> decision, String cvt) {
          if (ref.objectDataType?.externalType !== null) // skip external types for all tree walk methods
             return null
          if (isJsonField(ref))
@@ -57,22 +133,26 @@ class JavaTreeWalker {
                 // special: cannot work on arrays of primitive types, they are not objects
                 if (ref.isPrimitive)
                     return '''// skipping array of primitive type for «i.name»'''
-                return '''«target»_cvt.convertArray(«i.name», meta$$«i.name»);'''
+                return '''«target»«cvt».convertArray(«i.name», meta$$«i.name»);'''
              }
+             if (isPrimitiveList(i))
+                return '''// skipping list of primitive type for «i.name»'''
              if (i.isList !== null)
-                return '''«target»_cvt.convertList(«IF !doAssign»(List)«ENDIF»«i.name», meta$$«i.name»);'''
+                return '''«target»«cvt».convertList(«IF !doAssign»(List)«ENDIF»«i.name», meta$$«i.name»);'''
              if (i.isSet !== null)
-                return '''«target»_cvt.convertSet(«IF !doAssign»(Set)«ENDIF»«i.name», meta$$«i.name»);'''
+                return '''«target»«cvt».convertSet(«IF !doAssign»(Set)«ENDIF»«i.name», meta$$«i.name»);'''
              if (i.isMap !== null)
-                return '''«target»_cvt.convertMap(«IF !doAssign»(Map)«ENDIF»«i.name», meta$$«i.name»);'''
-             return '''«target»_cvt.convert(«i.name», meta$$«i.name»);'''
+                return '''«target»«cvt».convertMap(«IF !doAssign»(Map)«ENDIF»«i.name», meta$$«i.name»);'''
+             return '''«target»«cvt».convert(«i.name», meta$$«i.name»);'''
          }
          if (ref.category == DataCategory::OBJECT && !isJsonField(ref)) {
+             if (!mayContain(ref, decision))
+                return '''// «i.name» cannot contain fields to convert'''
              // subobjects. Here we run through the list or array, and invoke the method on any sub-object
              return '''
                  if (_descend) {
                      «loopStart(i, true)»if («indexedName(i)» != null)
-                         «indexedName(i)».treeWalk«javaType»(_cvt, _descend);
+                         «indexedName(i)».treeWalk«javaType»(«cvt», _descend);
                  }
              '''
          }
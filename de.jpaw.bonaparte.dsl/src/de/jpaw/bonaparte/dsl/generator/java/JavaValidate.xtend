@@ -21,7 +21,9 @@ import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
 import de.jpaw.bonaparte.dsl.generator.DataCategory
+import de.jpaw.bonaparte.dsl.generator.SimplePattern
 import de.jpaw.bonaparte.dsl.generator.Util
+import java.util.List
 
 /* DISCLAIMER: Validation is work in progress. Neither direct validation nor JSR 303 annotations are complete */
 
@@ -30,11 +32,99 @@ class JavaValidate {
     def public static writePatterns(ClassDefinition d) '''
         «FOR i: d.fields»
             «IF resolveElem(i.datatype) !== null && resolveElem(i.datatype).regexp !== null»
-                private static final Pattern regexp$«i.name» = Pattern.compile("\\A«Util::escapeString2Java(resolveElem(i.datatype).regexp)»\\z");
+                «IF SimplePattern.parse(resolveElem(i.datatype).regexp) !== null»
+                    «i.writeSimpleMatcher(resolveElem(i.datatype).regexp)»
+                «ELSE»
+                    private static final Pattern regexp$«i.name» = Pattern.compile("\\A«Util::escapeString2Java(resolveElem(i.datatype).regexp)»\\z");
+                «ENDIF»
             «ENDIF»
         «ENDFOR»
     '''
 
+    // a character constant, for comparisons
+    def private static charConstant(int c) {
+        if ((c >= 0x30 && c <= 0x39) || (c >= 0x41 && c <= 0x5a) || (c >= 0x61 && c <= 0x7a))
+            return "'" + (c as char) + "'"
+        return "0x" + Integer.toHexString(c)
+    }
+
+    def private static charCondition(SimplePattern.Element e) {
+        return e.ranges.map[ if (get(0) == get(1)) '''_c == «get(0).charConstant»''' else '''(_c >= «get(0).charConstant» && _c <= «get(1).charConstant»)''' ].join(" || ")
+    }
+
+    def private static writeLiteralCheck(String literal) '''
+        «IF literal.length == 1»
+            if (_p >= _len || _s.charAt(_p) != «literal.charAt(0).charConstant»)
+                return false;
+            ++_p;
+        «ELSE»
+            if (!_s.startsWith("«Util::escapeString2Java(literal)»", _p))
+                return false;
+            _p += «literal.length»;
+        «ENDIF»
+    '''
+
+    def private static writeElementCheck(SimplePattern.Element e) '''
+        «IF e.minCount == e.maxCount»
+            if (_len - _p < «e.minCount»)
+                return false;
+            for (final int _e = _p + «e.minCount»; _p < _e; ++_p) {
+                final char _c = _s.charAt(_p);
+                if (!(«e.charCondition»))
+                    return false;
+            }
+        «ELSE»
+            {
+                «IF e.minCount > 0 || e.maxCount != SimplePattern.UNBOUNDED»
+                    int _n = 0;
+                «ENDIF»
+                while (_p < _len«IF e.maxCount != SimplePattern.UNBOUNDED» && _n < «e.maxCount»«ENDIF») {
+                    final char _c = _s.charAt(_p);
+                    if (!(«e.charCondition»))
+                        break;
+                    ++_p;
+                    «IF e.minCount > 0 || e.maxCount != SimplePattern.UNBOUNDED»
+                        ++_n;
+                    «ENDIF»
+                }
+                «IF e.minCount > 0»
+                    if (_n < «e.minCount»)
+                        return false;
+                «ENDIF»
+            }
+        «ENDIF»
+    '''
+
+    // patterns which are recognized as simple are checked by a generated method, which avoids the allocation of a Matcher
+    def private static writeSimpleMatcher(FieldDefinition i, String regexp) {
+        val elements = SimplePattern.parse(regexp)
+        val checks = new StringBuilder
+        var int n = 0
+        while (n < elements.size) {
+            if (elements.get(n).singleChar >= 0) {
+                // combine a sequence of fixed characters into a single comparison
+                val literal = new StringBuilder
+                while (n < elements.size && elements.get(n).singleChar >= 0) {
+                    literal.append(elements.get(n).singleChar as char)
+                    n = n + 1
+                }
+                checks.append(literal.toString.writeLiteralCheck)
+            } else {
+                checks.append(elements.get(n).writeElementCheck)
+                n = n + 1
+            }
+        }
+        return '''
+            // checks the pattern «Util::escapeString2Java(regexp)»
+            private static boolean matches$«i.name»(final String _s) {
+                final int _len = _s.length();
+                int _p = 0;
+                «checks»
+                return _p == _len;
+            }
+        '''
+    }
+
     def private static makeLengthCheckString(FieldDefinition i, String fieldname, DataTypeExtension ref) '''
         if («fieldname».length() > «ref.elementaryDataType.length»)
             throw new ObjectValidationException(ObjectValidationException.TOO_LONG,
@@ -63,7 +153,7 @@ class JavaValidate {
 
     def private static makePatternCheck(FieldDefinition i, String fieldname, DataTypeExtension ref) '''
         «IF ref.elementaryDataType.regexp !== null»
-            if (!regexp$«i.name».matcher(«fieldname»).find())
+            if (!«IF SimplePattern.parse(ref.elementaryDataType.regexp) !== null»matches$«i.name»(«fieldname»)«ELSE»regexp$«i.name».matcher(«fieldname»).find()«ENDIF»)
                 throw new ObjectValidationException(ObjectValidationException.NO_PATTERN_MATCH, "«i.name»", _PARTIALLY_QUALIFIED_CLASS_NAME);
         «ENDIF»
         «IF ref.isUpperCaseOrLowerCaseSpecialType»
@@ -113,7 +203,9 @@ class JavaValidate {
             «IF i.aggregateMaxSize > 0»
                 «i.writeSizeCheck»
             «ENDIF»
-            «nestBlocks(loopStart(i, false), i.writeValidationCodeForSingleField3)»
+            «IF !i.isPrimitiveList»
+                «nestBlocks(loopStart(i, false), i.writeValidationCodeForSingleField3)»
+            «ENDIF»
         '''
     }
 
@@ -147,7 +239,8 @@ class JavaValidate {
         '''
     }
 
-    def public static writeValidationCode(ClassDefinition d) '''
+    // chunks: the fields of this class, split into groups in order to avoid huge methods (see JavaMethodSplitter)
+    def public static writeValidationCode(ClassDefinition d, List<List<FieldDefinition>> chunks) '''
         @Override
         public void validate() throws ObjectValidationException {
             // perform checks for required fields
@@ -157,13 +250,29 @@ class JavaValidate {
             «IF d.extendsClass !== null»
                 super.validate();
             «ENDIF»
-            «FOR i:d.fields»
-                «i.writeValidationCodeForSingleField»
-            «ENDFOR»
+            «IF chunks.size <= 1»
+                «FOR i:d.fields»
+                    «i.writeValidationCodeForSingleField»
+                «ENDFOR»
+            «ELSE»
+                «FOR n : 0 ..< chunks.size»
+                    validate$«n»();
+                «ENDFOR»
+            «ENDIF»
             «IF d.haveCustomAddons»
                 «d.name»Addons.validate(this);
             «ENDIF»
         }
+        «IF chunks.size > 1»
+            «FOR n : 0 ..< chunks.size»
+
+                private void validate$«n»() throws ObjectValidationException {
+                    «FOR i:chunks.get(n)»
+                        «i.writeValidationCodeForSingleField»
+                    «ENDFOR»
+                }
+            «ENDFOR»
+        «ENDIF»
     '''
 
 
@@ -175,6 +284,13 @@ class JavaValidate {
                 if («i.name».length > «i.isArray.maxcount»)
                     throw new ObjectValidationException(ObjectValidationException.TOO_MANY_ELEMENTS, "«i.name»: «i.isArray.maxcount», " + «i.name».length, _PARTIALLY_QUALIFIED_CLASS_NAME);
             «ENDIF»
+        ''' else if (i.isPrimitiveList) '''
+            «IF i.isList.mincount > 0»
+                if («i.name».length() < «i.isList.mincount»)
+                    throw new ObjectValidationException(ObjectValidationException.NOT_ENOUGH_ELEMENTS, "«i.name»: «i.isList.mincount», " + «i.name».length(), _PARTIALLY_QUALIFIED_CLASS_NAME);
+                if («i.name».length() > «i.isList.maxcount»)
+                    throw new ObjectValidationException(ObjectValidationException.TOO_MANY_ELEMENTS, "«i.name»: «i.isList.maxcount», " + «i.name».length(), _PARTIALLY_QUALIFIED_CLASS_NAME);
+            «ENDIF»
         ''' else if (i.isList !== null) '''
             «IF i.isList.mincount > 0»
                 if («i.name».size() < «i.isList.mincount»)
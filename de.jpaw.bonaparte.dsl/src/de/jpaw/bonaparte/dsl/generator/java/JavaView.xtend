@@ -0,0 +1,178 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.dsl.generator.java
+
+import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
+import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
+import java.util.ArrayList
+import java.util.List
+
+import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
+
+import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
+
+/** Creates the lazy flyweight classes «Class»View, which provide read access to single fields of an object
+ * which is stored in the compact binary format, without deserializing the object.
+ */
+class JavaView {
+
+    /** Returns true if a view can be created for the class. Abstract classes, generic classes and external types are excluded. */
+    def static boolean needsView(ClassDefinition d) {
+        var cd = d
+        while (cd !== null) {
+            if (!cd.genericParameters.empty || cd.externalType !== null)
+                return false
+            cd = cd.parent
+        }
+        return !d.isAbstract
+    }
+
+    // returns the class hierarchy, starting with the root class
+    def private static List<ClassDefinition> hierarchy(ClassDefinition d) {
+        val result = if (d.parent === null) new ArrayList<ClassDefinition>() else d.parent.hierarchy
+        result.add(d)
+        return result
+    }
+
+    // decoding of field number n, including all parent separators which precede it
+    def private static writeDecodeCases(ClassDefinition d) {
+        var int n = 0
+        var int pendingSeparators = 0
+        val result = new StringBuilder
+        for (cd : d.hierarchy) {
+            for (i : cd.fields) {
+                result.append('''
+                    case «n»:
+                        «FOR s : 0 ..< pendingSeparators»
+                            _p.eatParentSeparator();
+                        «ENDFOR»
+                        «cd.writeDeserializeFields(#[ i ], false)»
+                        break;
+                ''')
+                pendingSeparators = 0
+                n = n + 1
+            }
+            pendingSeparators = pendingSeparators + 1   // the parent separator after the fields of this class
+        }
+        return result
+    }
+
+    def private static writeViewGetter(ClassDefinition d, FieldDefinition i, int n) '''
+        public «JavaDataTypeNoName(i, false)» get«i.name.getNameCapsed(d)»() throws MessageParserException {
+            if (_decoded <= «n»)
+                decode$(«n + 1»);
+            return «i.name»;
+        }
+    '''
+
+    def static writeView(ClassDefinition d) {
+        val imports = new ImportCollector(getBonPackageName(d))
+        imports.recurseImports(d, true)
+        imports.addImport(d)
+        val fields = d.allFields
+        return '''
+        // This source has been automatically created by the bonaparte DSL. Do not modify, changes will be lost.
+        // The bonaparte DSL is open source, licensed under Apache License, Version 2.0. It is based on Eclipse Xtext2.
+        // The sources for bonaparte-DSL can be obtained at www.github.com/jpaw/bonaparte-dsl.git
+        package «getBonPackageName(d)»;
+
+        «writeDefaultImports»
+        import java.nio.ByteBuffer;
+        import «bonaparteInterfacesPackage».BonaPortable;
+        import «bonaparteInterfacesPackage».CompactByteArrayParser;
+        import «bonaparteInterfacesPackage».MessageParserException;
+        import «bonaparteInterfacesPackage».StaticMeta;
+        «imports.createImports»
+
+        import static «getBonPackageName(d)».«d.name».*;
+
+        /** Lazy read-only view of a «d.name» stored in the compact binary format.
+         * The buffer must contain the fields of the object, as written by serializeSub() (i.e. without the object header).
+         * Fields are decoded on demand, in sequence up to the requested one, and then cached, therefore fields near the start of the record are cheapest to access.
+         * No instance of «d.name» is created. Instances of this class are not thread-safe, they can be repositioned by wrap() in order to scan many records.
+         */
+        public final class «d.name»View {
+            private byte [] _buffer;
+            private int _offset;
+            private int _length;
+            private byte [] _copy;              // reused copy of the current record, for buffers without accessible array
+            private CompactByteArrayParser _p;
+            private int _decoded;               // number of fields decoded so far
+            «FOR i : fields»
+                private «JavaDataTypeNoName(i, false)» «i.name»;
+            «ENDFOR»
+
+            public «d.name»View() {
+            }
+
+            public «d.name»View(byte [] buffer, int offset, int length) {
+                wrap(buffer, offset, length);
+            }
+
+            public «d.name»View(ByteBuffer buffer, int length) {
+                wrap(buffer, length);
+            }
+
+            /** Positions this view on a new record. */
+            public «d.name»View wrap(byte [] buffer, int offset, int length) {
+                _buffer = buffer;
+                _offset = offset;
+                _length = length;
+                _p = null;
+                _decoded = 0;
+                return this;
+            }
+
+            /** Positions this view on the record of the specified length, which starts at the current position of the buffer. The position is not changed.
+             * Heap buffers are accessed directly. For buffers without accessible array (direct or mapped buffers), only the record is copied,
+             * into an array which is reused by subsequent calls, therefore scanning a mapped file record by record takes linear time.
+             */
+            public «d.name»View wrap(ByteBuffer buffer, int length) {
+                if (length < 0 || length > buffer.remaining())
+                    throw new IndexOutOfBoundsException("Record length " + length + " exceeds the remaining " + buffer.remaining() + " bytes");
+                if (buffer.hasArray())
+                    return wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                if (_copy == null || _copy.length < length)
+                    _copy = new byte [Math.max(length, 256)];
+                buffer.duplicate().get(_copy, 0, length);     // the duplicate keeps the position of the buffer
+                return wrap(_copy, 0, length);
+            }
+
+            «IF !fields.empty»
+                // decodes the fields up to (excluding) field number _upTo
+                private void decode$(int _upTo) throws MessageParserException {
+                    int _length;
+                    if (_p == null) {
+                        _p = new CompactByteArrayParser(_buffer, _offset, this._length);
+                        _p.setClassName(my$PQON);  // just for debug info
+                    }
+                    while (_decoded < _upTo) {
+                        switch (_decoded) {
+                        «d.writeDecodeCases»
+                        }
+                        ++_decoded;
+                    }
+                }
+            «ENDIF»
+            «FOR i : fields»
+
+                «d.writeViewGetter(i, fields.indexOf(i))»
+            «ENDFOR»
+        }
+        '''
+    }
+}
@@ -16,6 +16,7 @@
 
 package de.jpaw.bonaparte.dsl.generator.java
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.bonScript.EnumDefinition
 import de.jpaw.bonaparte.dsl.bonScript.PackageDefinition
 import de.jpaw.bonaparte.dsl.bonScript.XEnumDefinition
@@ -57,6 +58,9 @@ class JavaXEnum {
 
         import «timePackage».Instant;
         import java.io.Serializable;
+        «IF BonScriptPreferences.withSamples»
+            import java.util.SplittableRandom;
+        «ENDIF»
 
         import de.jpaw.enums.XEnumFactory;
         «IF !subClass»
@@ -112,6 +116,22 @@ class JavaXEnum {
                     return myFactory.getByToken(token);
                 }
 
+                «IF JavaEnum.isAlphaEnum(d.myEnum)»
+                    /** Factory method, CharSequence parameter. Get xenum by enum token. The tokens of the base enum are resolved without creating a String. */
+                    public static «d.name» forToken(CharSequence token) {
+                        if (token == null)
+                            return null;
+                        final «d.myEnum.name» e = «d.myEnum.name».lookup(token);
+                        return e != null ? myFactory.getByEnum(e) : myFactory.getByToken(token.toString());
+                    }
+
+                    /** Factory method, token provided as UTF-8 bytes. The tokens of the base enum are resolved without creating a String. */
+                    public static «d.name» forToken(byte [] buf, int off, int len) {
+                        final «d.myEnum.name» e = «d.myEnum.name».lookup(buf, off, len);
+                        return e != null ? myFactory.getByEnum(e) : myFactory.getByToken(new String(buf, off, len, java.nio.charset.StandardCharsets.UTF_8));
+                    }
+
+                «ENDIF»
                 /** Factory method, String parameter. Get xenum by enum instance name. */
                 public static «d.name» forName(String name) {
                     return myFactory.getByName(name);
@@ -122,6 +142,14 @@ class JavaXEnum {
                     return myFactory.getByEnum(baseEnum);
                 }
 
+            «ENDIF»
+            «IF !d.isAbstract && BonScriptPreferences.withSamples»
+                /** Returns a random instance of the values defined by this class, for test data generation. */
+                public static «d.name» ret$Sample(SplittableRandom _rnd) {
+                    final «d.myEnum.name» [] _values = «d.myEnum.name».values();
+                    return («d.name»)myFactory.getByEnum(_values[_rnd.nextInt(_values.length)]);
+                }
+
             «ENDIF»
             /** Inner class with the single purpose to provide a serializable substitution for the xenum. */
             private static class Serializer implements Serializable {
@@ -31,6 +31,8 @@ import de.jpaw.bonaparte.dsl.bonScript.XEnumSetDefinition
 import de.jpaw.bonaparte.dsl.bonScript.XXmlAccess
 import de.jpaw.bonaparte.dsl.bonScript.XXmlFormDefault
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
+import de.jpaw.bonaparte.dsl.generator.GenerationContext
+import de.jpaw.bonaparte.dsl.generator.GeneratorMetrics
 import java.util.HashSet
 import java.util.Set
 import org.eclipse.emf.ecore.EObject
@@ -58,6 +60,17 @@ class XsdBonScriptGeneratorMain extends AbstractGenerator {
     val Set<PackageDefinition> requiredImports = new HashSet<PackageDefinition>()
     val Set<EObject> visitedMarker = new HashSet<EObject>()
 
+    new() {
+    }
+
+    /** Creates a worker with the settings of the generator, for the creation of a single file. Every worker has its own import and visited sets. */
+    new(XsdBonScriptGeneratorMain settings) {
+        GENERATE_XSD_BY_DEFAULT     = settings.GENERATE_XSD_BY_DEFAULT
+        ROOT_ELEMENTS_SEPARATE      = settings.ROOT_ELEMENTS_SEPARATE
+        SUBFOLDERS_FOR_BUNDLES      = settings.SUBFOLDERS_FOR_BUNDLES
+        GENERATE_EXTENSION_FIELDS   = settings.GENERATE_EXTENSION_FIELDS
+    }
+
     def private computeRelativePathPrefix(PackageDefinition pkg) {
         if (pkg.bundle === null || !SUBFOLDERS_FOR_BUNDLES)
             return ""
@@ -99,21 +112,24 @@ class XsdBonScriptGeneratorMain extends AbstractGenerator {
         // and doing it using a static set could cause issues when creation is invoked multiple times in interactive (Eclipse UI) mode.
 //        val uniquePackageCheck = new HashSet<String>()
 
+        val ctx = GenerationContext.current
+        val files = ctx.newBatch    // templates are expanded in parallel, if the context allows it
         for (pkg : resource.allContents.toIterable.filter(typeof(PackageDefinition))) {
             if (pkg.xmlAccess?.x !== XXmlAccess.NONE && (GENERATE_XSD_BY_DEFAULT || pkg.xmlAccess !== null)) {
 //                if (!uniquePackageCheck.add(pkg.name))
 //                    throw new Exception('''Project contains multiple packages of name «pkg.name», XSD prefix clash''')
-                fsa.generateFile(GENERATED_XSD_SUBFOLDER + "lib/" + pkg.computeXsdFilename, pkg.writeXsdFile)
+                files.add(GENERATED_XSD_SUBFOLDER + "lib/" + pkg.computeXsdFilename, ctx.fingerprint(pkg)) [| GeneratorMetrics.measure("writeXsdFile") [| new XsdBonScriptGeneratorMain(this).writeXsdFile(pkg) ]]
 
                 // also generate entry points for all the root elements
                 if (ROOT_ELEMENTS_SEPARATE) {
                     for (cls: pkg.classes) {
                         if (cls.isXmlRoot)
-                            fsa.generateFile(GENERATED_XSD_SUBFOLDER + cls.name + ".xsd", cls.writeXsdFile)
+                            files.add(GENERATED_XSD_SUBFOLDER + cls.name + ".xsd", ctx.fingerprint(cls)) [| GeneratorMetrics.measure("writeXsdRootFile") [| new XsdBonScriptGeneratorMain(this).writeXsdFile(cls) ]]
                     }
                 }
             }
         }
+        files.write(fsa)
     }
 
 
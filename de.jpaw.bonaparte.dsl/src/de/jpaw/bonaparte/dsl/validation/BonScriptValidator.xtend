@@ -36,7 +36,11 @@ import de.jpaw.bonaparte.dsl.bonScript.PackageDefinition
 import de.jpaw.bonaparte.dsl.bonScript.PropertyUse
 import de.jpaw.bonaparte.dsl.bonScript.SetModifier
 import de.jpaw.bonaparte.dsl.bonScript.XEnumDefinition
+import de.jpaw.bonaparte.dsl.bonScript.XHazelcast
 import de.jpaw.bonaparte.dsl.bonScript.XRequired
+import de.jpaw.bonaparte.dsl.generator.ModelIndex
+import de.jpaw.bonaparte.dsl.generator.java.JavaFixedLayout
+import de.jpaw.bonaparte.dsl.generator.java.JavaHazelSupport
 import java.util.HashMap
 import java.util.HashSet
 import java.util.Map
@@ -374,6 +378,34 @@ class BonScriptValidator extends AbstractBonScriptValidator {
             }
         }
 
+        // object reuse mode requires mutable fields, and the superclass must provide reset() and deserializeInto() as well
+        if (cd.isReuse) {
+            if (cd.isRootImmutable)
+                error("Object reuse mode cannot be used for immutable classes", BonScriptPackage.Literals.CLASS_DEFINITION__NAME)
+            if (cd.parent !== null && !cd.parent.isReuse)
+                error('''Object reuse mode requires the parent class «cd.parent.name» to use it as well''', BonScriptPackage.Literals.CLASS_DEFINITION__EXTENDS_CLASS)
+        }
+
+        // a fixed layout can only be computed if all fields have a fixed size representation
+        if (cd.fixedLayout) {
+            for (f : cd.allFields) {
+                if (JavaFixedLayout.fixedSize(f) < 0)
+                    error('''Field «f.name» has no fixed size representation, fixedLayout supports only scalar primitives, fixedpoint, day, timestamp, instant, enums and ascii / uppercase / lowercase''',
+                        BonScriptPackage.Literals.CLASS_DEFINITION__FIXED_LAYOUT)
+            }
+        }
+
+        // a compact serializer is generated for concrete classes, it requires setters and a supported type for every field
+        if (JavaHazelSupport.getHazelSupport(cd) == XHazelcast.COMPACT && !cd.isAbstract && cd.genericParameters.empty && cd.externalType === null) {
+            if (cd.isRootImmutable)
+                error("Hazelcast compact serialization cannot be used for immutable classes", BonScriptPackage.Literals.CLASS_DEFINITION__NAME)
+            for (f : cd.allFields) {
+                if (JavaHazelSupport.compactType(f) === null)
+                    error('''Field «f.name» cannot be stored by a compact serializer, supported are scalar primitives and wrappers (except Character), strings, enums, decimal, raw, day, time and timestamp''',
+                        BonScriptPackage.Literals.CLASS_DEFINITION__NAME)
+            }
+        }
+
         // verify settings for custom types. These limitations may be lifted in some future extension
         if (cd.externalType !== null) {
             // currently, if specifying an adapter, "static" must be set, and vice versa
@@ -398,10 +430,7 @@ class BonScriptValidator extends AbstractBonScriptValidator {
     }
 
     def private int countFields(ClassDefinition d) {
-        if (d.extendsClass?.classRef === null)
-            return d.fields.size
-        else
-            return d.fields.size + d.extendsClass.classRef.countFields
+        return ModelIndex::get(d).allFields.size
     }
 
     def private boolean inheritsClass(ClassDefinition myInitialReturnType, ClassDefinition superclassReturnType) {
@@ -475,6 +504,16 @@ class BonScriptValidator extends AbstractBonScriptValidator {
             }
         }
 
+        if (fd.isPrimitiveList && fd.primitiveListType === null) {
+            error("primitive Lists are only supported for elements of type int, long or double",
+                    BonScriptPackage.Literals.FIELD_DEFINITION__IS_LIST);
+        }
+        if (fd.isPrimitiveList && cl.relevantXmlAccess !== null) {
+            // JAXB cannot bind ImmutableIntArray / ImmutableLongArray / ImmutableDoubleArray
+            error("primitive Lists cannot be used in classes with XML access, use a regular List or xmlAccess NOXML",
+                    BonScriptPackage.Literals.FIELD_DEFINITION__IS_LIST);
+        }
+
         val elemDataType = fd.datatype?.elementaryDataType?.name?.toLowerCase
         if ("array" == elemDataType) {
             // do not allow aggregates for this (XML would fail)
@@ -0,0 +1,274 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.jpa.dsl.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.generator.AbstractGenerator;
+import org.eclipse.xtext.generator.GeneratorContext;
+import org.eclipse.xtext.generator.InMemoryFileSystemAccess;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+
+import com.google.inject.Injector;
+
+import de.jpaw.bonaparte.dsl.BonScriptStandaloneSetup;
+import de.jpaw.bonaparte.dsl.generator.GenerationContext;
+import de.jpaw.bonaparte.dsl.generator.java.JavaBonScriptGeneratorMain;
+import de.jpaw.bonaparte.dsl.generator.xsd.XsdBonScriptGeneratorMain;
+import de.jpaw.bonaparte.jpa.dsl.BDDLStandaloneSetup;
+import de.jpaw.bonaparte.jpa.dsl.BatchCompiler;
+import de.jpaw.bonaparte.jpa.dsl.generator.java.JavaDDLGeneratorMain;
+import de.jpaw.bonaparte.jpa.dsl.generator.sql.SqlDDLGeneratorMain;
+
+/** Benchmark of the parser, linker, validators and generators, using a synthetic model of configurable size (see ModelSynthesizer).
+ * Every iteration processes the complete model in a new resource set. The first iterations are warmup iterations and not measured.
+ * Generators write to memory and run single threaded, one phase per generator, in the order of the Eclipse builder.
+ * Resolved data types are computed by the first generator of a resource and reused by the following ones, as in real builds.
+ *
+ * Usage: java de.jpaw.bonaparte.jpa.dsl.benchmark.GeneratorBenchmark [-p packages] [-c classes] [-f fields] [-d depth] [-t typedefs]
+ *          [-w warmup] [-i iterations] [-o report.json] [-s sourceFolder]
+ *
+ * -p, -c, -f: number of packages, classes per package, fields per class; -d: length of inheritance chains; -t: length of the typedef chain;
+ * -w, -i: number of warmup and measured iterations; -o: writes the results as JSON; -s: writes the synthetic sources (for tests in the IDE).
+ */
+public class GeneratorBenchmark {
+    private static final String[] PHASES = { "parse", "link", "validate bon", "validate bddl", "java", "xsd", "sql", "jpa" };
+
+    private int packages = 10;
+    private int classes = 50;
+    private int fields = 10;
+    private int depth = 5;
+    private int typedefs = 5;
+    private int warmup = 3;
+    private int iterations = 5;
+    private String reportFile = null;
+    private String sourceFolder = null;
+
+    private final Map<String, List<Long>> samples = new LinkedHashMap<String, List<Long>>();   // phase => nanoseconds per iteration
+    private Injector injector;
+    private Map<String, String> sources;
+
+    /** Parses the command line. Returns false if it is invalid. */
+    public boolean parseArguments(String... args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length)
+                return false;
+            final String value = args[i + 1];
+            try {
+                switch (args[i]) {
+                case "-p": packages   = Integer.parseInt(value); break;
+                case "-c": classes    = Integer.parseInt(value); break;
+                case "-f": fields     = Integer.parseInt(value); break;
+                case "-d": depth      = Integer.parseInt(value); break;
+                case "-t": typedefs   = Integer.parseInt(value); break;
+                case "-w": warmup     = Integer.parseInt(value); break;
+                case "-i": iterations = Integer.parseInt(value); break;
+                case "-o": reportFile = value; break;
+                case "-s": sourceFolder = value; break;
+                default:
+                    return false;
+                }
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return iterations > 0 && warmup >= 0;
+    }
+
+    // runs a phase and records its duration, unless in warmup
+    private void measure(String phase, boolean record, Runnable task) {
+        final long start = System.nanoTime();
+        task.run();
+        final long nanos = System.nanoTime() - start;
+        if (record)
+            samples.computeIfAbsent(phase, k -> new ArrayList<Long>()).add(nanos);
+    }
+
+    private List<Resource> parse(XtextResourceSet resourceSet) {
+        final List<Resource> resources = new ArrayList<Resource>(sources.size());
+        for (Map.Entry<String, String> src : sources.entrySet()) {
+            final Resource r = resourceSet.createResource(URI.createURI("synthetic:/bench/" + src.getKey()));
+            try {
+                r.load(new ByteArrayInputStream(src.getValue().getBytes(StandardCharsets.UTF_8)), null);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot parse " + src.getKey(), e);
+            }
+            resources.add(r);
+        }
+        return resources;
+    }
+
+    // validates the resources of one language, returns the errors
+    private static List<String> validate(List<Resource> resources, String extension) {
+        final List<String> errors = new ArrayList<String>();
+        for (Resource r : resources) {
+            if (!extension.equals(r.getURI().fileExtension()))
+                continue;
+            final List<Issue> issues = ((XtextResource)r).getResourceServiceProvider().getResourceValidator()
+              .validate(r, CheckMode.ALL, CancelIndicator.NullImpl);
+            for (Issue issue : issues)
+                if (issue.getSeverity() == Severity.ERROR)
+                    errors.add(r.getURI().lastSegment() + ":" + issue.getLineNumber() + ": " + issue.getMessage());
+        }
+        return errors;
+    }
+
+    // runs a generator for the resources of the specified extension, or for all resources if the extension is null
+    private void generate(List<Resource> resources, String extension, Class<? extends AbstractGenerator> generatorClass) {
+        final InMemoryFileSystemAccess fsa = new InMemoryFileSystemAccess();
+        final GeneratorContext context = new GeneratorContext();
+        context.setCancelIndicator(CancelIndicator.NullImpl);
+        for (Resource r : resources) {
+            if (extension == null || extension.equals(r.getURI().fileExtension())) {
+                final AbstractGenerator generator = injector.getInstance(generatorClass);  // new instance, the BDDL generators keep state
+                new GenerationContext(1).run(() -> generator.doGenerate(r, fsa, context));
+            }
+        }
+    }
+
+    /** Runs a single iteration. Returns the validation errors. */
+    private List<String> iteration(boolean record) {
+        final XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
+        final List<Resource> resources = new ArrayList<Resource>();
+        final List<String> errors = new ArrayList<String>();
+        measure("parse", record, () -> resources.addAll(parse(resourceSet)));
+        measure("link", record, () -> {
+            BatchCompiler.index(resourceSet, resources);
+            EcoreUtil.resolveAll(resourceSet);
+        });
+        measure("validate bon",  record, () -> errors.addAll(validate(resources, "bon")));
+        measure("validate bddl", record, () -> errors.addAll(validate(resources, "bddl")));
+        if (!errors.isEmpty())
+            return errors;
+        measure("java", record, () -> generate(resources, null,   JavaBonScriptGeneratorMain.class));
+        measure("xsd",  record, () -> generate(resources, null,   XsdBonScriptGeneratorMain.class));
+        measure("sql",  record, () -> generate(resources, "bddl", SqlDDLGeneratorMain.class));
+        measure("jpa",  record, () -> generate(resources, "bddl", JavaDDLGeneratorMain.class));
+        return errors;
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1.0e6;
+    }
+
+    private String report(int lines, int chars) {
+        final StringBuilder sb = new StringBuilder(2000);
+        sb.append("{\n");
+        sb.append(String.format(Locale.ROOT, "  \"parameters\": { \"packages\": %d, \"classes\": %d, \"fields\": %d, \"depth\": %d, \"typedefs\": %d,"
+          + " \"warmup\": %d, \"iterations\": %d },%n", packages, classes, fields, depth, typedefs, warmup, iterations));
+        final ModelSynthesizer model = new ModelSynthesizer(packages, classes, fields, depth, typedefs);
+        sb.append(String.format(Locale.ROOT, "  \"model\": { \"files\": %d, \"classes\": %d, \"entities\": %d, \"lines\": %d, \"chars\": %d },%n",
+          sources.size(), model.getClassCount(), model.getEntityCount(), lines, chars));
+        sb.append(String.format(Locale.ROOT, "  \"jvm\": { \"version\": \"%s\", \"processors\": %d, \"maxHeapMB\": %d },%n",
+          System.getProperty("java.version"), Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() >> 20));
+        sb.append("  \"phases\": [\n");
+        int n = 0;
+        for (String phase : PHASES) {
+            final List<Long> s = samples.get(phase);
+            if (s == null)
+                continue;
+            long min = Long.MAX_VALUE;
+            long max = 0L;
+            double sum = 0.0;
+            for (long x : s) {
+                min = Math.min(min, x);
+                max = Math.max(max, x);
+                sum += x;
+            }
+            final double mean = sum / s.size();
+            double var = 0.0;
+            for (long x : s)
+                var += (x - mean) * (x - mean);
+            final double stddev = s.size() > 1 ? Math.sqrt(var / (s.size() - 1)) : 0.0;
+            sb.append(n++ > 0 ? ",\n" : "");
+            sb.append(String.format(Locale.ROOT, "    { \"phase\": \"%s\", \"meanMs\": %.3f, \"minMs\": %.3f, \"maxMs\": %.3f, \"stddevMs\": %.3f, \"samplesMs\": [",
+              phase, millis(mean), millis(min), millis(max), millis(stddev)));
+            for (int i = 0; i < s.size(); ++i)
+                sb.append(String.format(Locale.ROOT, i > 0 ? ", %.3f" : "%.3f", millis(s.get(i))));
+            sb.append("] }");
+        }
+        sb.append("\n  ]\n}\n");
+        return sb.toString();
+    }
+
+    /** Runs all iterations. Returns the exit code. */
+    public int run() throws IOException {
+        BonScriptStandaloneSetup.doSetup();
+        injector = new BDDLStandaloneSetup().createInjectorAndDoEMFRegistration();
+        sources = new ModelSynthesizer(packages, classes, fields, depth, typedefs).sources();
+        int lines = 0;
+        int chars = 0;
+        for (String s : sources.values()) {
+            chars += s.length();
+            for (int i = 0; i < s.length(); ++i)
+                if (s.charAt(i) == '\n')
+                    ++lines;
+        }
+        if (sourceFolder != null) {
+            final File folder = new File(sourceFolder);
+            folder.mkdirs();
+            for (Map.Entry<String, String> src : sources.entrySet())
+                Files.write(new File(folder, src.getKey()).toPath(), src.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        System.out.format("Model: %d files, %d lines, %d warmup and %d measured iterations%n", sources.size(), lines, warmup, iterations);
+
+        for (int i = 0; i < warmup + iterations; ++i) {
+            System.gc();
+            final List<String> errors = iteration(i >= warmup);
+            if (!errors.isEmpty()) {
+                for (int j = 0; j < errors.size() && j < 10; ++j)
+                    System.err.println("ERROR " + errors.get(j));
+                System.err.println(errors.size() + " errors in the synthetic model, benchmark aborted");
+                return BatchCompiler.EXIT_ERRORS;
+            }
+            System.out.format("%s iteration %d done%n", i < warmup ? "warmup" : "measured", i < warmup ? i + 1 : i - warmup + 1);
+        }
+
+        final String json = report(lines, chars);
+        System.out.print(json);
+        if (reportFile != null)
+            Files.write(new File(reportFile).toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return BatchCompiler.EXIT_OK;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final GeneratorBenchmark benchmark = new GeneratorBenchmark();
+        if (!benchmark.parseArguments(args)) {
+            System.err.println("Usage: java " + GeneratorBenchmark.class.getName()
+              + " [-p packages] [-c classes] [-f fields] [-d depth] [-t typedefs] [-w warmup] [-i iterations] [-o report.json] [-s sourceFolder]");
+            System.exit(BatchCompiler.EXIT_USAGE);
+        }
+        System.exit(benchmark.run());
+    }
+}
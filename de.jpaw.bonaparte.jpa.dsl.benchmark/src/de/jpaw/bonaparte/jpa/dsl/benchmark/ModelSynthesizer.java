@@ -0,0 +1,154 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.jpa.dsl.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Creates synthetic .bon and .bddl sources of configurable size, for benchmarks of the parser, validators and generators.
+ *
+ * The model consists of a package bench.types with a chain of typedefs, enums and xenums, and of a number of packages bench.pN.
+ * Every package contains classes which form inheritance chains of the configured depth, and a class Refs with object references
+ * (including subclasses) and lists. Every class except Refs is mapped to an entity in a separate .bddl file, in a table category
+ * with history. The sources only depend on the parameters, therefore all runs with the same parameters process identical models.
+ */
+public class ModelSynthesizer {
+    public static final String TYPES_PACKAGE = "bench.types";
+
+    private final int packages;             // number of packages
+    private final int classes;              // classes per package
+    private final int fields;               // fields per class
+    private final int depth;                // length of the inheritance chains
+    private final int typedefs;             // length of the typedef chain
+
+    public ModelSynthesizer(int packages, int classes, int fields, int depth, int typedefs) {
+        this.packages = Math.max(1, packages);
+        this.classes = Math.max(1, classes);
+        this.fields = Math.max(1, fields);
+        this.depth = Math.max(1, depth);
+        this.typedefs = Math.max(1, typedefs);
+    }
+
+    public int getClassCount() {
+        return packages * (classes + 1);
+    }
+
+    public int getEntityCount() {
+        return packages * classes;
+    }
+
+    private String typesSource() {
+        final StringBuilder sb = new StringBuilder(2000);
+        sb.append("package ").append(TYPES_PACKAGE).append(" {\n");
+        sb.append("    type t0 is Unicode(80) trim;\n");
+        for (int i = 1; i < typedefs; ++i)
+            sb.append("    type t").append(i).append(" is ").append(TYPES_PACKAGE).append(".t").append(i - 1).append(";\n");
+        sb.append("    type amount is Decimal(18,2) round;\n");
+        sb.append("    enum Color { RED = \"R\", GREEN = \"G\", BLUE = \"B\" }\n");
+        sb.append("    enum MoreColor { CYAN = \"C\", MAGENTA = \"M\", YELLOW = \"Y\" }\n");
+        sb.append("    enum Direction { NORTH, EAST, SOUTH, WEST }\n");
+        sb.append("    xenum XColor is ").append(TYPES_PACKAGE).append(".Color : 4;\n");
+        sb.append("    xenum XMoreColor is ").append(TYPES_PACKAGE).append(".MoreColor extends ").append(TYPES_PACKAGE).append(".XColor;\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // the data type of a scalar field, all types are allowed as entity columns. References are fully qualified, as in most real models
+    private static String fieldType(int k, int typedefs) {
+        switch (k % 10) {
+        case 0:  return TYPES_PACKAGE + ".t" + (typedefs - 1);
+        case 1:  return "int";
+        case 2:  return "Long";
+        case 3:  return TYPES_PACKAGE + ".amount";
+        case 4:  return "Day";
+        case 5:  return "Instant(3)";
+        case 6:  return "XEnum " + TYPES_PACKAGE + ".XMoreColor";
+        case 7:  return "Enum " + TYPES_PACKAGE + ".Direction";
+        case 8:  return "Ascii(16)";
+        default: return "Boolean";
+        }
+    }
+
+    private static String className(int c) {
+        return "C" + c;
+    }
+
+    private String packageSource(int p) {
+        final StringBuilder sb = new StringBuilder(200 * classes * fields);
+        final String me = "bench.p" + p;
+        sb.append("package ").append(me).append(" {\n");
+        for (int c = 0; c < classes; ++c) {
+            final boolean isRoot = c % depth == 0;
+            sb.append("\n    class ").append(className(c));
+            if (!isRoot)
+                sb.append(" extends ").append(me).append(".").append(className(c - 1));
+            sb.append(" {\n");
+            if (isRoot)
+                sb.append("        long id;\n");
+            for (int k = 0; k < fields; ++k)
+                sb.append("        ").append(fieldType(k + c, typedefs)).append(" c").append(c).append("f").append(k).append(";\n");
+            sb.append("    }\n");
+        }
+        // object references to the roots of the hierarchies, in this package and the previous one
+        final String previous = "bench.p" + (p > 0 ? p - 1 : p);
+        sb.append("\n    class Refs {\n");
+        for (int c = 0; c < classes; c += depth) {
+            sb.append("        (").append(me).append(".").append(className(c)).append("...) local").append(c).append(";\n");
+            sb.append("        (").append(previous).append(".").append(className(c)).append("...) List<> remote").append(c).append(";\n");
+        }
+        sb.append("        Unicode(40) List<> names;\n");
+        sb.append("        XEnum ").append(TYPES_PACKAGE).append(".XColor Map<String> colors;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String entitySource(int p) {
+        final StringBuilder sb = new StringBuilder(150 * classes);
+        sb.append("import bench.p").append(p).append(".*\n\n");
+        sb.append("package bench.db").append(p).append(" owner BENCH prefix B").append(p).append(" {\n");
+        sb.append("    category hist {\n");
+        sb.append("        tablenamepattern \"(prefix)_(entity)_h\"\n");
+        sb.append("        historyColumns historySeq, historyChangeType\n");
+        sb.append("    }\n");
+        sb.append("    category data {\n");
+        sb.append("        tablenamepattern \"(prefix)_(entity)\"\n");
+        sb.append("        history hist\n");
+        sb.append("        requiresPK\n");
+        sb.append("    }\n");
+        for (int c = 0; c < classes; ++c) {
+            sb.append("\n    entity ").append(className(c)).append("Entity category data is ").append(className(c)).append(" {\n");
+            sb.append("        pk (id)\n");
+            if (fields > 1)
+                sb.append("        index (c").append(c).append("f1)\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /** Returns the sources, as relative file name => contents, in an order in which they can be processed. */
+    public Map<String, String> sources() {
+        final Map<String, String> result = new LinkedHashMap<String, String>(2 * packages + 2);
+        result.put("types.bon", typesSource());
+        for (int p = 0; p < packages; ++p)
+            result.put("p" + p + ".bon", packageSource(p));
+        for (int p = 0; p < packages; ++p)
+            result.put("db" + p + ".bddl", entitySource(p));
+        return result;
+    }
+}
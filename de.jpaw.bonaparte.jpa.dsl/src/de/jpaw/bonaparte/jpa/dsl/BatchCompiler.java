@@ -0,0 +1,266 @@
+ /*
+  * Copyright 2026 Michael Bischoff
+  *
+  * Licensed under the Apache License, Version 2.0 (the "License");
+  * you may not use this file except in compliance with the License.
+  * You may obtain a copy of the License at
+  *
+  *   http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+
+package de.jpaw.bonaparte.jpa.dsl;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.generator.GeneratorContext;
+import org.eclipse.xtext.generator.GeneratorDelegate;
+import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+
+import com.google.inject.Injector;
+
+import de.jpaw.bonaparte.dsl.BonScriptStandaloneSetup;
+
+/** Headless compiler for .bon and .bddl files, without Eclipse or Tycho.
+ * All source files below the specified folders are parsed in parallel, linked and validated once in a single resource set,
+ * then the Bonaparte and BDDL generators write their output in one pass. A timing and memory report is printed per phase.
+ *
+ * Usage: java de.jpaw.bonaparte.jpa.dsl.BatchCompiler [-o outputFolder] [-j threads] [-v] sourceFolder...
+ *
+ * -o sets the output folder (default src/generated), -j the number of threads used for parsing (a positive number, default: number of processors),
+ * -v validates only. Generator settings are taken from the usual system properties (for example -Dbonaparte.GeneratorThreads=0).
+ * In a Maven build, the class can be invoked by the exec-maven-plugin (goal java) in the generate-sources phase,
+ * with this plugin and its dependencies on the plugin classpath.
+ */
+public class BatchCompiler {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_ERRORS = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private final List<File> sources = new ArrayList<File>();
+    private String outputPath = "src/generated";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean validateOnly = false;
+
+    private final StringBuilder report = new StringBuilder(1000);
+    private long phaseStart;
+    private long gcStart;
+
+    /** Parses the command line. Returns false if it is invalid. */
+    public boolean parseArguments(String... args) {
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+            case "-o":
+                if (++i >= args.length)
+                    return false;
+                outputPath = args[i];
+                break;
+            case "-j":
+                if (++i >= args.length)
+                    return false;
+                try {
+                    threads = Integer.parseInt(args[i]);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (threads <= 0)
+                    return false;
+                break;
+            case "-v":
+                validateOnly = true;
+                break;
+            default:
+                if (args[i].startsWith("-"))
+                    return false;
+                sources.add(new File(args[i]));
+            }
+        }
+        return !sources.isEmpty();
+    }
+
+    private static long gcMillis() {
+        long total = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(0L, gc.getCollectionTime());
+        return total;
+    }
+
+    private void startPhase() {
+        phaseStart = System.nanoTime();
+        gcStart = gcMillis();
+    }
+
+    // adds a line to the report and starts the next phase
+    private void endPhase(String phase, int count) {
+        final Runtime rt = Runtime.getRuntime();
+        report.append(String.format("%-10s %8d %10d %10d %10d%n", phase, count, (System.nanoTime() - phaseStart) / 1000000L,
+          gcMillis() - gcStart, (rt.totalMemory() - rt.freeMemory()) >> 20));
+        startPhase();
+    }
+
+    private void printReport() {
+        System.out.format("%-10s %8s %10s %10s %10s%n", "phase", "count", "time [ms]", "GC [ms]", "heap [MB]");
+        System.out.print(report);
+        System.out.format("max heap %d MB%n", Runtime.getRuntime().maxMemory() >> 20);
+    }
+
+    private static void collect(File f, List<File> result) {
+        if (f.isDirectory()) {
+            final File [] children = f.listFiles();
+            if (children != null)
+                for (File child : children)
+                    collect(child, result);
+        } else if (f.getName().endsWith(".bon") || f.getName().endsWith(".bddl")) {
+            result.add(f);
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Parsing interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /** Parses the files in parallel, each into its own resource set, then moves the resources into the common resource set. */
+    private List<Resource> load(Injector injector, XtextResourceSet resourceSet, List<File> files) {
+        final List<Resource> resources = new ArrayList<Resource>(files.size());
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            final List<Future<Resource>> results = new ArrayList<Future<Resource>>(files.size());
+            for (final File f : files)
+                results.add(pool.submit(() -> {
+                    final XtextResourceSet rs = injector.getInstance(XtextResourceSet.class);
+                    return rs.getResource(URI.createFileURI(f.getAbsolutePath()), true);
+                }));
+            for (Future<Resource> result : results) {
+                final Resource r = await(result);
+                resourceSet.getResources().add(r);      // removes it from the temporary resource set
+                resources.add(r);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return resources;
+    }
+
+    /** Installs an index of the exported names, which is used for scoping instead of scanning all resources. Also used by the GeneratorBenchmark. */
+    public static void index(XtextResourceSet resourceSet, List<Resource> resources) {
+        final List<IResourceDescription> descriptions = new ArrayList<IResourceDescription>(resources.size());
+        for (Resource r : resources) {
+            final IResourceServiceProvider rsp = ((XtextResource)r).getResourceServiceProvider();
+            descriptions.add(rsp.getResourceDescriptionManager().getResourceDescription(r));
+        }
+        ResourceDescriptionsData.ResourceSetAdapter.installResourceDescriptionsData(resourceSet, new ResourceDescriptionsData(descriptions));
+    }
+
+    /** Validates all resources and prints the issues. Returns the number of errors. */
+    private static int validate(List<Resource> resources) {
+        int errors = 0;
+        for (Resource r : resources) {
+            final List<Issue> issues = ((XtextResource)r).getResourceServiceProvider().getResourceValidator()
+              .validate(r, CheckMode.ALL, CancelIndicator.NullImpl);
+            for (Issue issue : issues) {
+                if (issue.getSeverity() == Severity.ERROR) {
+                    ++errors;
+                    System.err.println("ERROR " + r.getURI().toFileString() + ":" + issue.getLineNumber() + ": " + issue.getMessage());
+                } else if (issue.getSeverity() == Severity.WARNING) {
+                    System.out.println("WARNING " + r.getURI().toFileString() + ":" + issue.getLineNumber() + ": " + issue.getMessage());
+                }
+            }
+        }
+        return errors;
+    }
+
+    private void generate(Injector injector, List<Resource> resources) {
+        final JavaIoFileSystemAccess fsa = injector.getInstance(JavaIoFileSystemAccess.class);
+        fsa.setOutputPath(outputPath);
+        final GeneratorContext context = new GeneratorContext();
+        context.setCancelIndicator(CancelIndicator.NullImpl);
+        for (Resource r : resources) {
+            // a new generator per resource, the BDDL generators keep state in instance fields
+            final GeneratorDelegate generator = ((XtextResource)r).getResourceServiceProvider().get(GeneratorDelegate.class);
+            generator.generate(r, fsa, context);
+        }
+    }
+
+    /** Runs all phases. Returns the exit code. */
+    public int run() {
+        startPhase();
+        BonScriptStandaloneSetup.doSetup();
+        final Injector injector = new BDDLStandaloneSetup().createInjectorAndDoEMFRegistration();
+        endPhase("setup", 0);
+
+        final List<File> files = new ArrayList<File>();
+        for (File f : sources)
+            collect(f, files);
+        Collections.sort(files);                        // the order of generation does not depend on the file system
+        endPhase("scan", files.size());
+
+        final XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
+        final List<Resource> resources = load(injector, resourceSet, files);
+        endPhase("parse", resources.size());
+
+        index(resourceSet, resources);
+        EcoreUtil.resolveAll(resourceSet);
+        endPhase("link", resourceSet.getResources().size());
+
+        final int errors = validate(resources);
+        endPhase("validate", errors);
+        if (errors > 0) {
+            printReport();
+            System.err.println(errors + " errors, no output generated");
+            return EXIT_ERRORS;
+        }
+
+        if (!validateOnly) {
+            generate(injector, resources);
+            endPhase("generate", resources.size());
+        }
+        printReport();
+        return EXIT_OK;
+    }
+
+    public static void main(String[] args) {
+        final BatchCompiler compiler = new BatchCompiler();
+        if (!compiler.parseArguments(args)) {
+            System.err.println("Usage: java " + BatchCompiler.class.getName() + " [-o outputFolder] [-j threads] [-v] sourceFolder...");
+            System.exit(EXIT_USAGE);
+        }
+        System.exit(compiler.run());
+    }
+}
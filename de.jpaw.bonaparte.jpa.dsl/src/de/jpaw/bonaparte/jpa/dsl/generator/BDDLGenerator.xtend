@@ -16,7 +16,12 @@
 
 package de.jpaw.bonaparte.jpa.dsl.generator
 
+import de.jpaw.bonaparte.dsl.BonScriptPreferences
 import de.jpaw.bonaparte.dsl.generator.BonScriptGenerator
+import de.jpaw.bonaparte.dsl.generator.FingerprintStore
+import de.jpaw.bonaparte.dsl.generator.GenerationContext
+import de.jpaw.bonaparte.dsl.generator.GeneratorMetrics
+import de.jpaw.bonaparte.jpa.dsl.BDDLPreferences
 import de.jpaw.bonaparte.jpa.dsl.generator.java.JavaDDLGeneratorMain
 import de.jpaw.bonaparte.jpa.dsl.generator.res.ResourceGeneratorMain
 import de.jpaw.bonaparte.jpa.dsl.generator.sql.SqlDDLGeneratorMain
@@ -50,11 +55,21 @@ class BDDLGenerator extends AbstractGenerator {
         try {
             bonaparteGenerator.doGenerate(resource, fsa, unused)
 
-            LOGGER.info(filterInfo + "start code output: SQL DDL for " + resource.URI.toString);
-            generatorSql.doGenerate(resource, fsa, unused)
+            // the SQL and JPA generators keep state in instance fields, therefore templates are expanded serially
+            val start = System.nanoTime
+            val ctx = new GenerationContext(1)
+            if (BonScriptPreferences.currentPrefs.fingerprintCache)
+                ctx.fingerprints = new FingerprintStore(fsa, resource, BDDLGenerator, BonScriptPreferences.currentPrefs, BDDLPreferences.currentPrefs)
+            ctx.run [
+                LOGGER.info(filterInfo + "start code output: SQL DDL for " + resource.URI.toString);
+                generatorSql.doGenerate(resource, fsa, unused)
 
-            LOGGER.info(filterInfo + "start code output: Java output for " + resource.URI.toString);
-            generatorJava.doGenerate(resource, fsa, unused)
+                LOGGER.info(filterInfo + "start code output: Java output for " + resource.URI.toString);
+                generatorJava.doGenerate(resource, fsa, unused)
+            ]
+            ctx.fingerprints?.save
+            GeneratorMetrics.record("resource " + resource.URI.lastSegment + " (BDDL)", System.nanoTime - start, ctx.outputBytes)
+            GeneratorMetrics.dump(fsa)
 
             LOGGER.info(filterInfo + "start code output: resource output for " + resource.URI.toString);
             generatorResource.doGenerate(resource, fsa)
@@ -19,6 +19,8 @@ package de.jpaw.bonaparte.jpa.dsl.generator.java
 import de.jpaw.bonaparte.dsl.bonScript.ClassDefinition
 import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.bonScript.PackageDefinition
+import de.jpaw.bonaparte.dsl.generator.GenerationContext
+import de.jpaw.bonaparte.dsl.generator.NativeImageConfig
 import de.jpaw.bonaparte.dsl.generator.Util
 import de.jpaw.bonaparte.dsl.generator.java.ImportCollector
 import de.jpaw.bonaparte.dsl.generator.java.JavaBeanValidation
@@ -47,6 +49,7 @@ import org.eclipse.xtext.generator.IFileSystemAccess2
 import org.eclipse.xtext.generator.IGeneratorContext
 
 import static de.jpaw.bonaparte.dsl.generator.java.JavaPackages.*
+import static de.jpaw.bonaparte.dsl.generator.GeneratorMetrics.*
 import static de.jpaw.bonaparte.dsl.generator.java.JavaRtti.*
 
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
@@ -69,6 +72,8 @@ class JavaDDLGeneratorMain extends AbstractGenerator {
 
     override void doGenerate(Resource resource, IFileSystemAccess2 fsa, IGeneratorContext unused) {
         val jakartaPrefix = if (BonScriptPreferences.currentPrefs.jakartaOutput) "jakarta" else "javax"
+        val ctx = GenerationContext.current
+        val files = ctx.newBatch
 
         // java
         for (e : resource.allContents.toIterable.filter(typeof(EntityDefinition))) {
@@ -76,30 +81,51 @@ class JavaDDLGeneratorMain extends AbstractGenerator {
                 val primaryKeyType = determinePkType(e)
                 if (primaryKeyType == PrimaryKeyType::IMPLICIT_EMBEDDABLE) {
                     // write a separate class for the composite key
-                    fsa.generateFile(getJavaFilename(e.bddlPackageName, e.name + "Key"), e.javaKeyOut(jakartaPrefix))
+                    files.add(getJavaFilename(e.bddlPackageName, e.name + "Key"), ctx.fingerprint(e)) [| measure("javaKeyOut") [| e.javaKeyOut(jakartaPrefix) ]]
                 }
-                fsa.generateFile(getJavaFilename(e.bddlPackageName, e.name), e.javaEntityOut(primaryKeyType, jakartaPrefix))
+                files.add(getJavaFilename(e.bddlPackageName, e.name), ctx.fingerprint(e)) [| measure("javaEntityOut") [| e.javaEntityOut(primaryKeyType, jakartaPrefix) ]]
             }
         }
         for (e : resource.allContents.toIterable.filter(typeof(EmbeddableDefinition))) {
-            fsa.generateFile(getJavaFilename(e.bddlPackageName, e.name), e.javaEmbeddableOut(jakartaPrefix))
+            files.add(getJavaFilename(e.bddlPackageName, e.name), ctx.fingerprint(e)) [| measure("javaEmbeddableOut") [| e.javaEmbeddableOut(jakartaPrefix) ]]
         }
         for (e : resource.allContents.toIterable.filter(typeof(ConverterDefinition))) {
-            fsa.generateFile(getJavaFilename(e.bddlPackageName, e.name), Converters.writeTypeConverter(e, jakartaPrefix))
+            files.add(getJavaFilename(e.bddlPackageName, e.name), ctx.fingerprint(e)) [| measure("writeTypeConverter") [| Converters.writeTypeConverter(e, jakartaPrefix) ]]
         }
         for (d : resource.allContents.toIterable.filter(typeof(BDDLPackageDefinition))) {
+            if (BonScriptPreferences.currentPrefs.nativeImage)
+                d.nativeImageConfig.addTo(files, ctx.fingerprint(d))
             // write a package-info.java file, if javadoc on package level exists
             if (d.javadoc !== null) {
-                fsa.generateFile(getJavaFilename(getBddlPackageName(d), "package-info"), '''
+                files.add(getJavaFilename(getBddlPackageName(d), "package-info"), ctx.fingerprint(d)) [| '''
                     // This source has been automatically created by the bonaparte bonaparte.jpa DSL. Do not modify, changes will be lost.
                     // The bonaparte DSL is open source, licensed under Apache License, Version 2.0. It is based on Eclipse Xtext2.
                     // The sources for bonaparte-DSL can be obtained at www.github.com/jpaw/bonaparte-dsl.git
 
                     «d.javadoc»
                     package «getBddlPackageName(d)»;
-                ''')
+                ''' ]
             }
         }
+        files.write(fsa)
+    }
+
+    // reflection metadata of the entities, keys, embeddables and converters of a package for GraalVM native-image
+    def private static nativeImageConfig(BDDLPackageDefinition d) {
+        val pkg = getBddlPackageName(d)
+        val config = new NativeImageConfig(d.bundle, pkg, "-jpa")
+        if (!d.isNoJava) {
+            for (e : d.entities.filter[!noJava]) {
+                config.addClass(pkg + "." + e.name, NativeImageConfig::ALL_MEMBERS)
+                if (determinePkType(e) == PrimaryKeyType::IMPLICIT_EMBEDDABLE)
+                    config.addClass(pkg + "." + e.name + "Key", NativeImageConfig::ALL_MEMBERS)
+            }
+        }
+        for (e : d.embeddables)
+            config.addClass(pkg + "." + e.name, NativeImageConfig::ALL_MEMBERS)
+        for (e : d.converters)
+            config.addClass(pkg + "." + e.name, NativeImageConfig::CONSTRUCTORS)
+        return config
     }
 
     def private setIntVersion(FieldDefinition c) {
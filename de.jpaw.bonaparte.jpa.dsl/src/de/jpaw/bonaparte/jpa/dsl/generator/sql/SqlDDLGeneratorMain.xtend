@@ -22,6 +22,8 @@ import de.jpaw.bonaparte.dsl.bonScript.FieldDefinition
 import de.jpaw.bonaparte.dsl.generator.DataCategory
 import de.jpaw.bonaparte.dsl.generator.DataTypeExtension
 import de.jpaw.bonaparte.dsl.generator.Delimiter
+import de.jpaw.bonaparte.dsl.generator.GenerationContext
+import de.jpaw.bonaparte.dsl.generator.GenerationContext.FileBatch
 import de.jpaw.bonaparte.jpa.dsl.BDDLPreferences
 import de.jpaw.bonaparte.jpa.dsl.bDDL.ColumnNameMappingDefinition
 import de.jpaw.bonaparte.jpa.dsl.bDDL.ElementCollectionRelationship
@@ -45,6 +47,7 @@ import org.eclipse.xtext.generator.IGeneratorContext
 
 import static de.jpaw.bonaparte.jpa.dsl.generator.sql.SqlEnumOut.*
 import static de.jpaw.bonaparte.jpa.dsl.generator.sql.SqlEnumOutOracle.*
+import static de.jpaw.bonaparte.dsl.generator.GeneratorMetrics.*
 
 import static extension de.jpaw.bonaparte.dsl.generator.XUtil.*
 import static extension de.jpaw.bonaparte.jpa.dsl.generator.YUtil.*
@@ -67,6 +70,7 @@ class SqlDDLGeneratorMain extends AbstractGenerator {
         prefs = BDDLPreferences.currentPrefs
         LOGGER.info('''Settings are: max ID length = («prefs.maxTablenameLength», «prefs.maxFieldnameLength»), Debug=«prefs.doDebugOut», Postgres=«prefs.doPostgresOut», Oracle=«prefs.doOracleOut», MSSQL=«prefs.doMsSQLServerOut», MySQL=«prefs.doMySQLOut»''')
         enumsRequired.clear
+        val files = GenerationContext.current.newBatch
         // SQL DDLs
         for (e : resource.allContents.toIterable.filter(typeof(EntityDefinition))) {
             if (e.noDDL) {
@@ -74,28 +78,30 @@ class SqlDDLGeneratorMain extends AbstractGenerator {
             } else {
                 LOGGER.info("start code output of main table for " + e.name)
                 // System::out.println("start code output of main table for " + e.name)
-                makeTables(fsa, e, false)
+                makeTables(files, e, false)
                 if (e.tableCategory !== null && e.tableCategory.historyCategory !== null) {
                     // do histories as well
                     LOGGER.info("    doing history table as well, due to category " + e.tableCategory.name);
                     // System::out.println("    doing history table as well, due to category " + e.tableCategory.name);
-                    makeTables(fsa, e, true)
-                    makeTriggers(fsa, e)
+                    makeTables(files, e, true)
+                    makeTriggers(files, e)
                 }
                 collectEnums(e)
-                makeViews(fsa, e, false, "_nt")
-                makeViews(fsa, e, true, "_v")      // enums included, also create a view
-                makeElementCollectionTables(fsa, e, false)
+                makeViews(files, e, false, "_nt")
+                makeViews(files, e, true, "_v")      // enums included, also create a view
+                makeElementCollectionTables(files, e, false)
             }
         }
         // enum mapping functions
         for (e : enumsRequired) {
+            val fingerprint = GenerationContext.current.fingerprint(e)
             if (prefs.doPostgresOut)
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::POSTGRES, e.name, "Function"), postgresEnumFuncs(e))
+                files.add(makeSqlFilename(e, DatabaseFlavour::POSTGRES, e.name, "Function"), fingerprint) [| measure("postgresEnumFuncs") [| postgresEnumFuncs(e) ]]
             if (prefs.doOracleOut)
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,   e.name, "Function"), oracleEnumFuncs(e))
+                files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,   e.name, "Function"), fingerprint) [| measure("oracleEnumFuncs") [| oracleEnumFuncs(e) ]]
             // TODO: HANA + MS SQL
         }
+        files.write(fsa)
     }
 
     def private static CharSequence recurseColumns(ClassDefinition cl, ClassDefinition stopAt, DatabaseFlavour databaseFlavour, Delimiter d,
@@ -129,24 +135,25 @@ class SqlDDLGeneratorMain extends AbstractGenerator {
         }
     }
 
-    def private void makeElementCollectionTables(IFileSystemAccess2 fsa, EntityDefinition e, boolean doHistory) {
+    def private void makeElementCollectionTables(FileBatch files, EntityDefinition e, boolean doHistory) {
+        val fingerprint = GenerationContext.current.fingerprint(e)
         for (ec : e.elementCollections) {
             if (doHistory && ec.historytablename === null) {
                 // no history here
             } else {
                 val tablename = if (doHistory) ec.historytablename else ec.tablename
                 if (prefs.doPostgresOut)
-                    fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::POSTGRES,    tablename, "Table"), e.sqlEcOut(ec, tablename, DatabaseFlavour::POSTGRES, doHistory))
+                    files.add(makeSqlFilename(e, DatabaseFlavour::POSTGRES,    tablename, "Table"), fingerprint) [| measure("sqlEcOut") [| e.sqlEcOut(ec, tablename, DatabaseFlavour::POSTGRES, doHistory) ]]
                 if (prefs.doMsSQLServerOut)
-                    fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::MSSQLSERVER, tablename, "Table"), e.sqlEcOut(ec, tablename, DatabaseFlavour::MSSQLSERVER, doHistory))
+                    files.add(makeSqlFilename(e, DatabaseFlavour::MSSQLSERVER, tablename, "Table"), fingerprint) [| measure("sqlEcOut") [| e.sqlEcOut(ec, tablename, DatabaseFlavour::MSSQLSERVER, doHistory) ]]
                 if (prefs.doMySQLOut)
-                    fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::MYSQL,       tablename, "Table"), e.sqlEcOut(ec, tablename, DatabaseFlavour::MYSQL, doHistory))
+                    files.add(makeSqlFilename(e, DatabaseFlavour::MYSQL,       tablename, "Table"), fingerprint) [| measure("sqlEcOut") [| e.sqlEcOut(ec, tablename, DatabaseFlavour::MYSQL, doHistory) ]]
                 if (prefs.doOracleOut) {
-                    fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Table"), e.sqlEcOut(ec, tablename, DatabaseFlavour::ORACLE, doHistory))
-                    fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Synonym"), tablename.sqlSynonymOut)
+                    files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Table"), fingerprint) [| measure("sqlEcOut") [| e.sqlEcOut(ec, tablename, DatabaseFlavour::ORACLE, doHistory) ]]
+                    files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Synonym"), fingerprint) [| measure("sqlSynonymOut") [| tablename.sqlSynonymOut ]]
                 }
                 if (prefs.doSapHanaOut)
-                    fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::SAPHANA,     tablename, "Table"), e.sqlEcOut(ec, tablename, DatabaseFlavour::SAPHANA, doHistory))
+                    files.add(makeSqlFilename(e, DatabaseFlavour::SAPHANA,     tablename, "Table"), fingerprint) [| measure("sqlEcOut") [| e.sqlEcOut(ec, tablename, DatabaseFlavour::SAPHANA, doHistory) ]]
             }
         }
     }
@@ -167,7 +174,7 @@ class SqlDDLGeneratorMain extends AbstractGenerator {
             collectEnums(emb.name)
     }
 
-    def private void makeViews(IFileSystemAccess2 fsa, EntityDefinition e, boolean withTracking, String suffix) {
+    def private void makeViews(FileBatch files, EntityDefinition e, boolean withTracking, String suffix) {
         if (e.isNoViews()) {
             return
         }
@@ -178,56 +185,59 @@ class SqlDDLGeneratorMain extends AbstractGenerator {
             }
         }
         val tablename = mkTablename(e, false) + suffix
+        val fingerprint = GenerationContext.current.fingerprint(e)
         if (prefs.doOracleOut)
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,   tablename, "View"), e.createView(DatabaseFlavour::ORACLE, withTracking, suffix))
+            files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,   tablename, "View"), fingerprint) [| measure("createView") [| e.createView(DatabaseFlavour::ORACLE, withTracking, suffix) ]]
         if (prefs.doPostgresOut)
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::POSTGRES, tablename, "View"), e.createView(DatabaseFlavour::POSTGRES, withTracking, suffix))
+            files.add(makeSqlFilename(e, DatabaseFlavour::POSTGRES, tablename, "View"), fingerprint) [| measure("createView") [| e.createView(DatabaseFlavour::POSTGRES, withTracking, suffix) ]]
     }
 
-    def private void makeTriggers(IFileSystemAccess2 fsa, EntityDefinition e) {
+    def private void makeTriggers(FileBatch files, EntityDefinition e) {
         val tablename = mkTablename(e, false)
+        val fingerprint = GenerationContext.current.fingerprint(e)
         if (prefs.doOracleOut)
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,   tablename + "_tr", "Trigger"), SqlTriggerOut.triggerOutOracle(e))
+            files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,   tablename + "_tr", "Trigger"), fingerprint) [| measure("triggerOutOracle") [| SqlTriggerOut.triggerOutOracle(e) ]]
         if (prefs.doPostgresOut)
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::POSTGRES, tablename + "_tr", "Trigger"), SqlTriggerOut.triggerOutPostgres(e))
+            files.add(makeSqlFilename(e, DatabaseFlavour::POSTGRES, tablename + "_tr", "Trigger"), fingerprint) [| measure("triggerOutPostgres") [| SqlTriggerOut.triggerOutPostgres(e) ]]
     }
 
-    def private void makeTables(IFileSystemAccess2 fsa, EntityDefinition e, boolean doHistory) {
+    def private void makeTables(FileBatch files, EntityDefinition e, boolean doHistory) {
         val tablename = mkTablename(e, doHistory)
         val doSequenceForPk = !doHistory && !e.isAbstract && e.extends === null && e.pk !== null
           && e.pk.columnName.size == 1 && e.pk.columnName.get(0).JavaDataTypeNoName(true).toLowerCase == 'long'
         val sequencename = tablename + "_s"
+        val fingerprint = GenerationContext.current.fingerprint(e)
         // System::out.println("    tablename is " + tablename);
         if (prefs.doPostgresOut) {
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::POSTGRES,    tablename, "Table"), e.sqlDdlOut(DatabaseFlavour::POSTGRES, doHistory))
+            files.add(makeSqlFilename(e, DatabaseFlavour::POSTGRES,    tablename, "Table"), fingerprint) [| measure("sqlDdlOut") [| e.sqlDdlOut(DatabaseFlavour::POSTGRES, doHistory) ]]
             if (doSequenceForPk) {
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::POSTGRES, sequencename, "Sequence"), SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::POSTGRES))
+                files.add(makeSqlFilename(e, DatabaseFlavour::POSTGRES, sequencename, "Sequence"), fingerprint) [| measure("createSequence") [| SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::POSTGRES) ]]
             }
         }
         if (prefs.doMsSQLServerOut) {
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::MSSQLSERVER, tablename, "Table"), e.sqlDdlOut(DatabaseFlavour::MSSQLSERVER, doHistory))
+            files.add(makeSqlFilename(e, DatabaseFlavour::MSSQLSERVER, tablename, "Table"), fingerprint) [| measure("sqlDdlOut") [| e.sqlDdlOut(DatabaseFlavour::MSSQLSERVER, doHistory) ]]
             if (doSequenceForPk) {
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::MSSQLSERVER, sequencename, "Sequence"), SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::MSSQLSERVER))
+                files.add(makeSqlFilename(e, DatabaseFlavour::MSSQLSERVER, sequencename, "Sequence"), fingerprint) [| measure("createSequence") [| SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::MSSQLSERVER) ]]
             }
         }
         if (prefs.doMySQLOut) {
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::MYSQL,       tablename, "Table"), e.sqlDdlOut(DatabaseFlavour::MYSQL, doHistory))
+            files.add(makeSqlFilename(e, DatabaseFlavour::MYSQL,       tablename, "Table"), fingerprint) [| measure("sqlDdlOut") [| e.sqlDdlOut(DatabaseFlavour::MYSQL, doHistory) ]]
             if (doSequenceForPk) {
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::MYSQL,   sequencename, "Sequence"), SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::MYSQL))
+                files.add(makeSqlFilename(e, DatabaseFlavour::MYSQL,   sequencename, "Sequence"), fingerprint) [| measure("createSequence") [| SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::MYSQL) ]]
             }
         }
         if (prefs.doOracleOut) {
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Table"), e.sqlDdlOut(DatabaseFlavour::ORACLE, doHistory))
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Synonym"), tablename.sqlSynonymOut)
+            files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Table"), fingerprint) [| measure("sqlDdlOut") [| e.sqlDdlOut(DatabaseFlavour::ORACLE, doHistory) ]]
+            files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,      tablename, "Synonym"), fingerprint) [| measure("sqlSynonymOut") [| tablename.sqlSynonymOut ]]
             if (doSequenceForPk) {
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,  sequencename, "Sequence"), SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::ORACLE))
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::ORACLE,  sequencename, "Synonym"), sequencename.sqlSynonymOut)
+                files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,  sequencename, "Sequence"), fingerprint) [| measure("createSequence") [| SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::ORACLE) ]]
+                files.add(makeSqlFilename(e, DatabaseFlavour::ORACLE,  sequencename, "Synonym"), fingerprint) [| measure("sqlSynonymOut") [| sequencename.sqlSynonymOut ]]
             }
         }
         if (prefs.doSapHanaOut) {
-            fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::SAPHANA,     tablename, "Table"), e.sqlDdlOut(DatabaseFlavour::SAPHANA, doHistory))
+            files.add(makeSqlFilename(e, DatabaseFlavour::SAPHANA,     tablename, "Table"), fingerprint) [| measure("sqlDdlOut") [| e.sqlDdlOut(DatabaseFlavour::SAPHANA, doHistory) ]]
             if (doSequenceForPk) {
-                fsa.generateFile(makeSqlFilename(e, DatabaseFlavour::SAPHANA, sequencename, "Sequence"), SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::SAPHANA))
+                files.add(makeSqlFilename(e, DatabaseFlavour::SAPHANA, sequencename, "Sequence"), fingerprint) [| measure("createSequence") [| SqlSequenceOut.createSequence(sequencename, DatabaseFlavour::SAPHANA) ]]
             }
         }
     }
@@ -189,6 +189,16 @@ class BDDLValidator extends AbstractBDDLValidator {
         return l.exists[it.name == f.name];
     }
 
+    // primitive Lists (ImmutableIntArray etc.) have no JPA mapping
+    def private void checkClassForPrimitiveLists(ClassDefinition cc, EStructuralFeature feature) {
+        for (var c = cc; c !== null; c = c.extendsClass?.classRef) {
+            for (f : c.fields) {
+                if (f.isPrimitiveList)
+                    error("The field " + c.name + "." + f.name + " is a primitive List, which cannot be mapped to JPA. Use a regular List instead", feature);
+            }
+        }
+    }
+
     def private void checkClassForReservedColumnNames(ClassDefinition cc, EStructuralFeature feature, ColumnNameMappingDefinition nmd) {
         var c = cc
         while (c !== null) {
@@ -362,11 +372,13 @@ class BDDLValidator extends AbstractBDDLValidator {
 
         if (e.tenantClass !== null) {
             checkClassForReservedColumnNames(e.tenantClass, BDDLPackage.Literals.ENTITY_DEFINITION__TENANT_CLASS, nmd);
+            checkClassForPrimitiveLists     (e.tenantClass, BDDLPackage.Literals.ENTITY_DEFINITION__TENANT_CLASS);
             checkClassForColumnLengths      (e.tenantClass, BDDLPackage.Literals.ENTITY_DEFINITION__TENANT_CLASS, nmd);
         }
         // check pojo type and all parents recursively
         for (var ptp = e.pojoType; ptp !== null; ptp = ptp.extendsClass?.classRef) {
             checkClassForReservedColumnNames(ptp, BDDLPackage.Literals.ENTITY_DEFINITION__POJO_TYPE, nmd);
+            checkClassForPrimitiveLists     (ptp, BDDLPackage.Literals.ENTITY_DEFINITION__POJO_TYPE);
             checkClassForColumnLengths      (ptp, BDDLPackage.Literals.ENTITY_DEFINITION__POJO_TYPE, nmd);
         }
 
@@ -592,6 +604,7 @@ class BDDLValidator extends AbstractBDDLValidator {
                 warning("Embeddables should be final", BDDLPackage.Literals.EMBEDDABLE_DEFINITION__POJO_TYPE);
             if (e.getPojoType().isAbstract())
                 error("Embeddables may not be abstract", BDDLPackage.Literals.EMBEDDABLE_DEFINITION__POJO_TYPE);
+            checkClassForPrimitiveLists(e.getPojoType(), BDDLPackage.Literals.EMBEDDABLE_DEFINITION__POJO_TYPE);
         }
     }
 